@@ -1,7 +1,7 @@
 package gui;
 
-// Importing the FileHandler class from the model package
-import model.FileHandler;
+// Importing the storage interface from the model package
+import model.StorageBackend;
 
 // Importing date picker components from external library
 import com.github.lgooddatepicker.components.DatePicker;
@@ -23,8 +23,8 @@ import java.util.List;
 // This panel handles adding a new employee via GUI
 public class AddEmployeePanel extends JPanel {
 
-    // FileHandler instance to read/write employee data
-    private final FileHandler fileHandler;
+    // Storage backend to read/write employee data
+    private final StorageBackend storage;
 
     // Stores form input components mapped to field names
     private final Map<String, JComponent> fieldMap = new LinkedHashMap<>();
@@ -44,8 +44,8 @@ public class AddEmployeePanel extends JPanel {
     private JPanel bottomPanel;
 
     // Constructor initializes UI and logic
-    public AddEmployeePanel(FileHandler fileHandler, Runnable onEmployeeAdded) {
-        this.fileHandler = fileHandler;
+    public AddEmployeePanel(StorageBackend storage, Runnable onEmployeeAdded) {
+        this.storage = storage;
         this.onEmployeeAdded = onEmployeeAdded;
 
         // Set transparent background and layout
@@ -73,8 +73,8 @@ public class AddEmployeePanel extends JPanel {
         scrollPane.setBorder(null);
 
         // Read employee headers from file
-        fileHandler.readEmployeeFile();
-        String[] headersFromFile = fileHandler.getEmployeeHeaders();
+        storage.ensureEmployeeDataLoaded();
+        String[] headersFromFile = storage.getEmployeeHeaders();
 
         // Combine headers from file and additional fields
         LinkedHashMap<String, Boolean> finalHeaders = new LinkedHashMap<>();
@@ -271,8 +271,18 @@ public class AddEmployeePanel extends JPanel {
                 errorMessages.append("- ").append(header).append(" must be numeric.\n");
             }
 
+            // Government ID numbers must not belong to another employee
+            String[] holder = isGovernmentId(header) && !value.isEmpty()
+                    ? storage.findEmployeeByGovernmentId(header, value) : null;
+            if (holder != null) {
+                component.setBorder(new LineBorder(Color.RED, 2));
+                hasError = true;
+                errorMessages.append("- ").append(header).append(" is already used by employee ")
+                        .append(holder[0]).append(".\n");
+            }
+
             // Check if employee number already exists
-            if (header.equalsIgnoreCase("Employee Number") && employeeNumberExists(value)) {
+            if (header.equalsIgnoreCase("Employee #") && employeeNumberExists(value)) {
                 component.setBorder(new LineBorder(Color.RED, 2));
                 component.requestFocus();
                 JOptionPane.showMessageDialog(this,
@@ -291,9 +301,8 @@ public class AddEmployeePanel extends JPanel {
             return;
         }
 
-        // Append to file and confirm success/failure
-        if (fileHandler.appendEmployeeToFile(newRow)) {
-            fileHandler.readEmployeeFile();
+        // Append to memory and file, then confirm success/failure
+        if (storage.appendEmployeeToFile(newRow)) {
             JOptionPane.showMessageDialog(this, "✅ Employee added successfully!");
             clearFields();
             if (onEmployeeAdded != null) onEmployeeAdded.run();
@@ -344,14 +353,17 @@ public class AddEmployeePanel extends JPanel {
         }
 
         
-    // Check if employee number already exists in file
+    // Check if employee number already exists, using the primary index
     private boolean employeeNumberExists(String empNum) {
-        for (String[] row : fileHandler.getEmployeeData()) {
-            if (row.length > 0 && row[0].equalsIgnoreCase(empNum)) {
-                return true;
-            }
-        }
-        return false;
+        return storage.getEmployeeById(empNum) != null;
+    }
+
+    // SSS, PhilHealth, TIN and Pag-IBIG numbers are unique per employee
+    private boolean isGovernmentId(String header) {
+        return header.equalsIgnoreCase("SSS #")
+                || header.equalsIgnoreCase("Philhealth #")
+                || header.equalsIgnoreCase("TIN #")
+                || header.equalsIgnoreCase("Pag-ibig #");
     }
 
     // Clear all input fields in the form
@@ -1,10 +1,14 @@
 package gui;
 
-import model.FileHandler;
+import model.StorageBackend;
 
-// Importing the FileHandler class from the model package
+// Date pickers for the date-range filter
+import com.github.lgooddatepicker.components.DatePicker;
+import com.github.lgooddatepicker.components.DatePickerSettings;
+
+// Importing the storage interface from the model package
 // Used to manage file operations like reading attendance data
-import model.FileHandler;
+import model.StorageBackend;
 
 // Swing components for building the user interface (e.g., JPanel, JTable, JScrollPane, etc.)
 import javax.swing.*;
@@ -27,15 +31,21 @@ import javax.swing.table.JTableHeader;
 // Imports core AWT classes used for UI layout, colors, fonts, etc.
 import java.awt.*;
 
+// Dates picked for the range filter
+import java.time.LocalDate;
+
 // Provides data structure to store dynamic list of arrays (e.g., attendance rows)
 import java.util.ArrayList;
 
 // Interface for creating strongly typed lists (e.g., List<String[]>)
 import java.util.List;
 
+// Thrown by SwingWorker.get when the background poll failed
+import java.util.concurrent.ExecutionException;
+
 public class AttendancePanel extends JPanel {
-    // Instance of FileHandler to access attendance-related file operations
-    private FileHandler fileHandler;
+    // Storage backend to access attendance records
+    private StorageBackend storage;
 
     // JTable to display attendance records in tabular form
     private JTable table;
@@ -46,22 +56,35 @@ public class AttendancePanel extends JPanel {
     // Text field for searching/filtering attendance data
     private JTextField searchField;
 
+    // Start and end of the date-range filter (inclusive); either may be left empty
+    private DatePicker fromPicker;
+    private DatePicker toPicker;
+
     // Holds all attendance data read from the file for reference and filtering
     private List<String[]> allData;
 
+    // True while a background poll for new punches is running
+    private boolean polling;
+
+    // Checks for new punches while the panel is part of a window
+    private final Timer tailTimer;
+
+    // How often the attendance file is checked for new punches
+    private static final int REFRESH_INTERVAL_MS = 5000;
+
     // Gradient background colors
     private final Color gradientStart = new Color(255, 204, 229);
     private final Color gradientEnd = new Color(255, 229, 180);
 
     // Constructor initializes and sets up the panel
-    public AttendancePanel(FileHandler fileHandler) {
-        this.fileHandler = fileHandler;
+    public AttendancePanel(StorageBackend storage) {
+        this.storage = storage;
         setLayout(new BorderLayout());
         setBorder(new EmptyBorder(15, 15, 15, 15));
 
         // Load attendance data
-        fileHandler.readAttendanceFile();
-        allData = fileHandler.getAttendanceData();
+        storage.ensureAttendanceDataLoaded();
+        allData = storage.getAttendanceData();
 
         // Define table columns
         String[] columnNames = {"Employee #", "Date", "Log In", "Log Out"};
@@ -96,6 +119,78 @@ public class AttendancePanel extends JPanel {
 
         // Populate the table with data
         populateTable(allData);
+
+        // Pick up punches the time clocks append while the panel is open (see addNotify)
+        tailTimer = new Timer(REFRESH_INTERVAL_MS, e -> refreshFromFile());
+    }
+
+    // Starts polling when the panel is added to a window
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        tailTimer.start();
+    }
+
+    // Stops polling when the panel is removed or its window is disposed
+    @Override
+    public void removeNotify() {
+        tailTimer.stop();
+        super.removeNotify();
+    }
+
+    // Reads newly appended punches on a background thread, then adds them to the table on
+    // the EDT without rebuilding it; only the new rows are fetched and formatted
+    private void refreshFromFile() {
+        if (!isShowing() || polling) return;
+        polling = true;
+        int shown = allData.size();
+
+        new SwingWorker<List<String[]>, Void>() {
+            // True if the result is every punch rather than just the new ones
+            private boolean reloaded;
+
+            @Override
+            protected List<String[]> doInBackground() {
+                // File I/O, and possibly a full reload, stay off the EDT
+                int added = storage.pollAttendanceFile();
+                if (added == 0) return null;
+                if (added > 0) {
+                    List<String[]> appended = storage.getAttendanceDataFrom(shown);
+                    if (appended.size() == added) return appended; // Nothing but the appended rows changed
+                }
+                reloaded = true;
+                return storage.getAttendanceData();
+            }
+
+            @Override
+            protected void done() {
+                polling = false;
+                List<String[]> latest;
+                try {
+                    latest = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    System.out.println("❌ Error refreshing attendance: " + e.getMessage());
+                    return;
+                }
+                if (latest == null) return;
+
+                if (reloaded) {
+                    allData = latest;
+                } else {
+                    allData.addAll(latest);
+                }
+                // Search results are left as they are; the next search includes the new punches
+                if (isFiltered()) return;
+
+                if (reloaded) {
+                    populateTable(allData); // Older rows changed too
+                } else {
+                    for (String[] row : latest) {
+                        model.addRow(row);
+                    }
+                }
+            }
+        }.execute();
     }
 
     // Creates the top search bar panel
@@ -115,31 +210,77 @@ public class AttendancePanel extends JPanel {
         searchButton.addActionListener(e -> search());
         searchField.addActionListener(e -> search());
 
+        fromPicker = createDatePicker();
+        toPicker = createDatePicker();
+
+        // Clears the ID and dates and shows every punch again
+        JButton clearButton = new JButton("Clear");
+        styleColoredButton(clearButton, Color.GRAY, 80, 36);
+        clearButton.addActionListener(e -> {
+            searchField.setText("");
+            fromPicker.clear();
+            toPicker.clear();
+            populateTable(allData);
+        });
+
         searchPanel.add(searchField);
+        searchPanel.add(new JLabel("From:"));
+        searchPanel.add(fromPicker);
+        searchPanel.add(new JLabel("To:"));
+        searchPanel.add(toPicker);
         searchPanel.add(searchButton);
+        searchPanel.add(clearButton);
 
         return searchPanel;
     }
 
-    // Filters attendance records based on Employee ID search
+    // Date picker in the MM/dd/yyyy format of attendance.txt
+    private DatePicker createDatePicker() {
+        DatePickerSettings settings = new DatePickerSettings();
+        settings.setFormatForDatesCommonEra("MM/dd/yyyy");
+        DatePicker picker = new DatePicker(settings);
+        picker.setPreferredSize(new Dimension(150, 30));
+        return picker;
+    }
+
+    // True while the table shows search results rather than every punch
+    private boolean isFiltered() {
+        return !searchField.getText().trim().isEmpty() || fromPicker.getDate() != null || toPicker.getDate() != null;
+    }
+
+    // Filters attendance records by Employee ID and/or date range
+    // A date range is looked up through the day index, so only that range's punches are read
     private void search() {
         String input = searchField.getText().trim().toLowerCase();
-        if (input.isEmpty()) {
+        LocalDate from = fromPicker.getDate();
+        LocalDate to = toPicker.getDate();
+        if (input.isEmpty() && from == null && to == null) {
             populateTable(allData);
-            JOptionPane.showMessageDialog(this, "Please enter an Employee ID.", "Search Error", JOptionPane.WARNING_MESSAGE);
+            JOptionPane.showMessageDialog(this, "Please enter an Employee ID or pick a date range.", "Search Error", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        // A single date picked means that day only
+        if (from == null) from = to;
+        if (to == null) to = from;
+        if (from != null && from.isAfter(to)) {
+            JOptionPane.showMessageDialog(this, "The From date is after the To date.", "Search Error", JOptionPane.WARNING_MESSAGE);
             return;
         }
+        List<String[]> candidates = from != null ? storage.getAttendanceBetween(from, to, null) : allData;
 
         // Filter matching employee records
         List<String[]> filtered = new ArrayList<>();
-        for (String[] row : allData) {
+        for (String[] row : candidates) {
             if (row[0].toLowerCase().contains(input)) {
                 filtered.add(row);
             }
         }
 
         if (filtered.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "No records found for: " + input, "No Results", JOptionPane.INFORMATION_MESSAGE);
+            String range = from == null ? "" : from + " to " + to;
+            String criteria = input.isEmpty() ? range : range.isEmpty() ? input : input + ", " + range;
+            JOptionPane.showMessageDialog(this, "No records found for: " + criteria, "No Results", JOptionPane.INFORMATION_MESSAGE);
         }
 
         // Update table view
@@ -21,9 +21,12 @@ import java.awt.event.MouseEvent;
 // Imports the URL class, used for locating resources such as images or files on the web or locally
 import java.net.URL;
 
-// Imports the FileHandler class from the 'model' package
+// Imports the storage interface from the 'model' package
 // Typically used for file operations (e.g., reading/writing employee or attendance data)
-import model.FileHandler;
+import model.StorageBackend;
+
+// Imports the shared repository that hands every panel the same storage backend
+import model.DataRepository;
 
 
 /**
@@ -136,8 +139,8 @@ public class DashboardPanel extends JFrame {
         };
 
         // Load attendance data and initialize panels
-        FileHandler fileHandler = new FileHandler();
-        AttendancePanel attendancePanel = new AttendancePanel(fileHandler);
+        StorageBackend storage = DataRepository.getStorage();
+        AttendancePanel attendancePanel = new AttendancePanel(storage);
 
         // Add all panels to the card layout
         contentPanel.add(employeePanel, "Employee");
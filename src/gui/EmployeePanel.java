@@ -1,8 +1,10 @@
 // Package declaration; this class belongs to the 'gui' package
 package gui;
 
-// Imports the FileHandler class from the 'model' package
-import model.FileHandler;
+// Imports the storage interface from the 'model' package
+import model.DataRepository;
+import model.Employee;
+import model.StorageBackend;
 // Imports Swing components for UI (e.g., JPanel, JButton, etc.)
 import javax.swing.*;
 // Imports the EmptyBorder class for border customization
@@ -13,8 +15,6 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 // Imports Vector class for handling table row data
 import java.util.Vector;
-// Imports DefaultTableModel class for table data model
-import javax.swing.table.DefaultTableModel;
 
 // Class declaration for the EmployeePanel GUI component
 public class EmployeePanel extends JPanel {
@@ -26,8 +26,8 @@ public class EmployeePanel extends JPanel {
 
     // Declares a search input field with a fixed column width of 20
 //    private final JTextField searchField = new JTextField(20);
-    // Declares a FileHandler object to manage file I/O operations
-    private final FileHandler fileHandler;
+    // Declares the storage backend that loads and saves employee data
+    private final StorageBackend storage;
     // Declares an EmployeeTable to display employee data
     private final EmployeeTable dashboardTable;
     
@@ -39,10 +39,10 @@ public class EmployeePanel extends JPanel {
         setLayout(new BorderLayout());
         // Makes this panel transparent (for gradient background)
         setOpaque(false);
-        // Initializes the file handler
-        fileHandler = new FileHandler();
+        // Uses the process-wide file handler so the data is loaded only once
+        storage = DataRepository.getStorage();
         // Initializes the dashboard table with employee data
-        dashboardTable = new EmployeeTable(fileHandler);
+        dashboardTable = new EmployeeTable(storage);
 
         // Creates the top panel containing search and action buttons
         JPanel topPanel = new JPanel(new BorderLayout());
@@ -123,7 +123,7 @@ public class EmployeePanel extends JPanel {
                 // Get Employee ID from the first column
                 String employeeId = dashboardTable.getTable().getValueAt(selectedRow, 0).toString();
                 // Get full employee details using ID
-                String[] fullRow = fileHandler.getEmployeeById(employeeId);
+                String[] fullRow = storage.getEmployeeById(employeeId);
 
                 // Show error if not found
                 if (fullRow == null) {
@@ -140,7 +140,7 @@ public class EmployeePanel extends JPanel {
                 };
 
                 // Get header titles from file
-                String[] headers = fileHandler.getEmployeeHeaders();
+                String[] headers = storage.getEmployeeHeaders();
 
                  // Form panel with gradient background
                 JPanel panel = new JPanel(new SpringLayout()) {
@@ -163,8 +163,8 @@ public class EmployeePanel extends JPanel {
             panel.add(txtId);
 
             // Check if employee is "Regular" to lock salary fields
-            int statusIndex = java.util.Arrays.asList(headers).indexOf("Status");
-            boolean isRegular = statusIndex != -1 && fullRow[statusIndex].equalsIgnoreCase("Regular");
+            Employee employee = storage.getEmployee(employeeId);
+            boolean isRegular = employee != null && employee.getStatus().equalsIgnoreCase("Regular");
 
             // Create text fields and labels for each editable field
             JTextField[] textFields = new JTextField[editableFields.length];
@@ -232,19 +232,23 @@ public class EmployeePanel extends JPanel {
             JButton saveBtn = new JButton("Save");
             styleMinimalButton(saveBtn, 120, 36);
             saveBtn.addActionListener(evt -> {
-                boolean anyChanged = false;
+                // Collect every changed field so the record is saved once
+                java.util.Map<String, String> changes = new java.util.LinkedHashMap<>();
                 for (int i = 0; i < editableFields.length; i++) {
                     String newVal = textFields[i].getText().trim();
+                    if (originalValues[i] == null && newVal.isEmpty()) continue; // Column not in file
                     if (!newVal.equals(originalValues[i]) && textFields[i].isEditable()) {
-                        boolean updated = fileHandler.updateEmployeeField(employeeId, editableFields[i], newVal);
-                        anyChanged |= updated;
+                        changes.put(editableFields[i], newVal);
                     }
                 }
-                if (anyChanged) { 
+                if (changes.isEmpty()) {
+                    showCustomMessage("No changes were made.", "Message");
+                } else if (storage.updateEmployee(employeeId, changes)) {
                     showCustomMessage("Employee record updated successfully.", "Updated");
-                    dashboardTable.refreshTable(fileHandler.getEmployeeData());
+                    dashboardTable.refreshTable();
                 } else {
-                    showCustomMessage("No changes were made.", "Message");
+                    JOptionPane.showMessageDialog(dialog, "❌ Failed to update employee record.", "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
                 }
                 dialog.dispose();
             });
@@ -273,7 +277,7 @@ public class EmployeePanel extends JPanel {
 
                 // Custom delete confirmation dialog
                     JDialog dialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), "Warning", true);
-                    dialog.setSize(400, 180);
+                    dialog.setSize(400, 210);
                     dialog.setLocationRelativeTo(this);
                     dialog.setLayout(new BorderLayout());
 
@@ -295,6 +299,12 @@ public class EmployeePanel extends JPanel {
                     message.setFont(new Font("Segoe UI", Font.PLAIN, 14));
                     content.add(message, BorderLayout.CENTER);
 
+                    // Attendance is kept unless the user asks for it to be deleted too
+                    JCheckBox deleteAttendance = new JCheckBox("Also delete this employee's attendance records");
+                    deleteAttendance.setOpaque(false);
+                    deleteAttendance.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+                    deleteAttendance.setHorizontalAlignment(SwingConstants.CENTER);
+
                     // Button panel
                     JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 20, 10));
                     buttonPanel.setOpaque(false);
@@ -303,8 +313,8 @@ public class EmployeePanel extends JPanel {
                     styleColoredButton(yesButton, new Color(220, 20, 60), 80, 36);
                     yesButton.addActionListener(ev -> {
                         try {
-                            fileHandler.deleteEmployeeById(employeeId);
-                            dashboardTable.refreshTable(fileHandler.getEmployeeData());
+                            storage.deleteEmployeeById(employeeId, deleteAttendance.isSelected());
+                            dashboardTable.refreshTable();
                                 showCustomMessage("Record Deleted Successfully", "Deleted");
 
                         } catch (Exception ex) {
@@ -320,7 +330,11 @@ public class EmployeePanel extends JPanel {
                     buttonPanel.add(yesButton);
                     buttonPanel.add(noButton);
 
-                    content.add(buttonPanel, BorderLayout.SOUTH);
+                    JPanel southPanel = new JPanel(new BorderLayout());
+                    southPanel.setOpaque(false);
+                    southPanel.add(deleteAttendance, BorderLayout.NORTH);
+                    southPanel.add(buttonPanel, BorderLayout.CENTER);
+                    content.add(southPanel, BorderLayout.SOUTH);
                     dialog.setContentPane(content);
                     dialog.setVisible(true);
 
@@ -329,15 +343,7 @@ public class EmployeePanel extends JPanel {
 
     // Method to reload and update table with latest data
     private void refreshEmployeeTable() {
-        fileHandler.readEmployeeFile();
-        java.util.List<String[]> updatedData = fileHandler.getEmployeeData();
-
-        DefaultTableModel model = (DefaultTableModel) dashboardTable.getTable().getModel();
-        model.setRowCount(0); // Clear old data
-
-        for (String[] row : updatedData) {
-            model.addRow(new Object[]{row[0], row[1], row[2], row[6], row[7], row[8], row[9]});
-        }
+        dashboardTable.refreshTable(); // Fetches only the displayed columns
     }
 
     // Builds the search bar panel
@@ -442,16 +448,15 @@ public class EmployeePanel extends JPanel {
 
     // Opens Add Employee window with callback to refresh table
     private void showAddEmployeeDialog() {
-        FileHandler fileHandler = new FileHandler();
-        fileHandler.readEmployeeFile();
+        storage.ensureEmployeeDataLoaded();
 
         JFrame frame = new JFrame("Add Employee Panel with Date Picker");
         frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         frame.setSize(550, 600);
         frame.setLocationRelativeTo(null);
         frame.setVisible(true);
-        frame.add(new AddEmployeePanel(fileHandler, () -> {
-            dashboardTable.refreshTable(fileHandler.getEmployeeData());
+        frame.add(new AddEmployeePanel(storage, () -> {
+            dashboardTable.refreshTable();
             frame.setVisible(false);
         }));
     }
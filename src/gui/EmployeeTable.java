@@ -1,8 +1,9 @@
 package gui;
 
-// Importing the FileHandler class from the 'model' package
+// Importing the storage interface from the 'model' package
 // This class is likely used to read/write employee or attendance data from files
-import model.FileHandler;
+import model.EmployeeDiff;
+import model.StorageBackend;
 
 // Importing core Swing components for building the GUI
 import javax.swing.*;
@@ -26,7 +27,10 @@ import java.awt.event.ActionEvent;
 
 // Importing ArrayList and List for storing dynamic lists of data (e.g., employee records)
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 // Importing Vector for table data model (commonly used in Swing table structures)
 import java.util.Vector;
@@ -41,10 +45,15 @@ public class EmployeeTable extends JPanel {
     private DefaultTableModel model;
 
     // File handler to read/write employee data from/to file
-    private FileHandler fileHandler;
+    private StorageBackend storage;
 
-    // List to store employee data rows from file
-    private List<String[]> employeeData;
+    // Displayed columns of every employee (see indices), fetched without decoding the rest
+    private List<String[]> listedRows = new ArrayList<>();
+
+    // Employee # -> position in listedRows, which is also the model row while no search is applied
+    private final Map<String, Integer> listedRowOf = new HashMap<>();
+    // True if an Employee # is listed twice, so rows cannot be found by it
+    private boolean duplicateIds;
 
     // Column names to display in the JTable
     private final String[] columnNames = {
@@ -55,18 +64,25 @@ public class EmployeeTable extends JPanel {
     // Indices of data fields to show (used to extract relevant data from each row)
     private final int[] indices = {0, 1, 2, 6, 7, 8, 9};
 
+    // Search query currently applied by filterTable, or null when all rows are shown
+    private String currentQuery;
+
+    // Applies edits made to the data outside the application row by row, on the EDT
+    private final EmployeeDiff.Listener employeeListener =
+            diff -> SwingUtilities.invokeLater(() -> applyChanges(diff));
+
     // Gradient background colors
     private final Color gradientStart = new Color(255, 204, 229);
     private final Color gradientEnd = new Color(255, 229, 180);
 
-    public EmployeeTable(FileHandler fileHandler) {
-        this.fileHandler = fileHandler;
+    public EmployeeTable(StorageBackend storage) {
+        this.storage = storage;
         setLayout(new BorderLayout());
 
         try {
-            // Load employee data from file
-            fileHandler.readEmployeeFile();
-            employeeData = fileHandler.getEmployeeData();
+            // Load only the displayed columns of the employee data
+            listedRows = storage.getEmployeeColumns(indices);
+            indexListedRows(0);
         } catch (Exception e) {
             // Show error message if loading fails
             JOptionPane.showMessageDialog(this, "Failed to load employee data: " + e.getMessage(),
@@ -106,7 +122,7 @@ public class EmployeeTable extends JPanel {
         add(scrollPane, BorderLayout.CENTER);
 
         // Populate table with employee data
-        refreshTable(employeeData);
+        showRows(listedRows);
 
         // View Employee button GUI is removed but logic remains
     }
@@ -200,19 +216,15 @@ public class EmployeeTable extends JPanel {
     public boolean addEmployee(String[] newEmployee) {
         if (newEmployee == null || newEmployee.length == 0) return false;
 
-        // Check for duplicate Employee ID
+        // Check for duplicate Employee ID using the primary index
         String newId = newEmployee[0].trim();
-        for (String[] existing : employeeData) {
-            if (existing.length > 0 && existing[0].trim().equals(newId)) {
-                return false;
-            }
+        if (storage.getEmployeeById(newId) != null) {
+            return false;
         }
 
-        // Append to in-memory list
-        employeeData.add(newEmployee);
         try {
-            // Save to file
-            fileHandler.appendEmployeeToFile(newEmployee);
+            // Add to memory and save to file
+            if (!storage.appendEmployeeToFile(newEmployee)) return false;
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Failed to save employee to file: " + e.getMessage(),
                     "File Error", JOptionPane.ERROR_MESSAGE);
@@ -220,44 +232,142 @@ public class EmployeeTable extends JPanel {
         }
 
         // Refresh table display
-        refreshTable(employeeData);
+        refreshTable();
         return true;
     }
 
+    // Listen for outside edits only while the table is on screen
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (model != null) storage.addEmployeeListener(employeeListener);
+    }
+
+    @Override
+    public void removeNotify() {
+        storage.removeEmployeeListener(employeeListener);
+        super.removeNotify();
+    }
+
+    // Updates, removes or adds only the rows of the employees that changed, found by
+    // Employee # through listedRowOf; nothing is fetched from storage again
+    private void applyChanges(EmployeeDiff diff) {
+        if (duplicateIds) {
+            refreshTable(); // Rows cannot be told apart by Employee #
+            return;
+        }
+        boolean searching = currentQuery != null;
+
+        List<Integer> removed = new ArrayList<>();
+        for (String id : diff.deleted()) {
+            Integer row = listedRowOf.remove(id.trim());
+            if (row != null) removed.add(row);
+        }
+        removed.sort(Collections.reverseOrder()); // Later rows first, so earlier positions stay valid
+        for (int row : removed) {
+            listedRows.remove(row);
+            if (!searching) model.removeRow(row);
+        }
+        if (!removed.isEmpty()) indexListedRows(removed.get(removed.size() - 1));
+
+        for (String[] employee : diff.updated()) {
+            Integer row = listedRowOf.get(employee[0].trim());
+            if (row == null || employee.length < 10) continue;
+            listedRows.set(row, toListedRow(employee));
+            if (searching) continue;
+            for (int i = 0; i < indices.length; i++) {
+                String value = employee[indices[i]].trim();
+                if (!value.equals(model.getValueAt(row, i))) model.setValueAt(value, row, i);
+            }
+        }
+        for (String[] employee : diff.inserted()) {
+            if (employee.length < 10) continue;
+            listedRows.add(toListedRow(employee));
+            indexListedRows(listedRows.size() - 1);
+            if (!searching) model.addRow(toDisplayRow(employee));
+        }
+
+        if (searching) filterTable(currentQuery); // Changed rows may now match the search or stop matching it
+    }
+
+    // Re-indexes listedRows from the given position on, after rows were added or removed there
+    private void indexListedRows(int from) {
+        for (int i = from; i < listedRows.size(); i++) {
+            String id = listedRows.get(i)[0].trim();
+            Integer previous = listedRowOf.put(id, i);
+            // A stale position is harmless; another row that still holds the ID is a duplicate
+            if (previous != null && previous != i && previous < listedRows.size()
+                    && listedRows.get(previous)[0].trim().equals(id)) {
+                duplicateIds = true;
+            }
+        }
+    }
+
     // Filters table rows by search query
     public void filterTable(String query) {
+        currentQuery = query == null || query.isEmpty() ? null : query;
         if (query == null || query.isEmpty()) {
-            refreshTable(employeeData);
+            showRows(listedRows);
             return;
         }
 
+        // Listed rows hold exactly the displayed columns, so every value is searched
         List<String[]> filtered = new ArrayList<>();
-        for (String[] row : employeeData) {
-            for (int i : indices) {
-                if (i < row.length && row[i].toLowerCase().contains(query.toLowerCase())) {
+        for (String[] row : listedRows) {
+            for (String value : row) {
+                if (value.toLowerCase().contains(query.toLowerCase())) {
                     filtered.add(row);
                     break;
                 }
             }
         }
 
-        refreshTable(filtered);
+        showRows(filtered);
     }
 
-    // Updates the table model with new data rows
-    public final void refreshTable(List<String[]> rows) {
+    // Reloads the displayed columns from storage and shows them, keeping any search applied
+    public final void refreshTable() {
+        listedRows = storage.getEmployeeColumns(indices);
+        listedRowOf.clear();
+        duplicateIds = false;
+        indexListedRows(0);
+        if (currentQuery != null) {
+            filterTable(currentQuery);
+        } else {
+            showRows(listedRows);
+        }
+    }
+
+    // Updates the table model with listed rows (displayed columns only)
+    private void showRows(List<String[]> rows) {
         model.setRowCount(0); // Clear current data
         for (String[] row : rows) {
-            if (row.length >= 10) {
-                String[] displayRow = new String[indices.length];
-                for (int i = 0; i < indices.length; i++) {
-                    displayRow[i] = row[indices[i]].trim();
-                }
-                model.addRow(displayRow);
+            String[] displayRow = new String[row.length];
+            for (int i = 0; i < row.length; i++) {
+                displayRow[i] = row[i].trim();
             }
+            model.addRow(displayRow);
         }
     }
 
+    // Picks the displayed columns out of a full employee row, as getEmployeeColumns returns them
+    private String[] toListedRow(String[] row) {
+        String[] listed = new String[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            listed[i] = row[indices[i]];
+        }
+        return listed;
+    }
+
+    // Picks the displayed columns out of a full employee row
+    private String[] toDisplayRow(String[] row) {
+        String[] displayRow = new String[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            displayRow[i] = row[indices[i]].trim();
+        }
+        return displayRow;
+    }
+
     // === Logic for "View Employee" kept without GUI ===
 
     // Triggers detail view of selected employee (if implemented in UI)
@@ -279,22 +389,20 @@ public class EmployeeTable extends JPanel {
         int modelRow = table.convertRowIndexToModel(selectedRow);
         String employeeId = (String) table.getModel().getValueAt(modelRow, 0);
 
-        for (String[] employee : employeeData) {
-            if (employee.length > 0 && employee[0].equals(employeeId)) {
-                Vector<Object> fullData = new Vector<>();
-                for (String item : employee) {
-                    fullData.add(item);
-                }
-                return fullData;
-            }
-        }
+        // Look up the full row through the primary index
+        String[] employee = storage.getEmployeeById(employeeId);
+        if (employee == null) return null;
 
-        return null;
+        Vector<Object> fullData = new Vector<>();
+        for (String item : employee) {
+            fullData.add(item);
+        }
+        return fullData;
     }
 
     // Displays a dialog showing all employee fields and their values
     private void showDetailDialog(Vector<Object> row) {
-        String[] headers = fileHandler.getEmployeeHeaders();
+        String[] headers = storage.getEmployeeHeaders();
         JPanel detailPanel = new JPanel(new GridLayout(0, 1, 5, 5));
         for (int i = 0; i < headers.length && i < row.size(); i++) {
             detailPanel.add(new JLabel(headers[i] + ": " + row.get(i)));
@@ -16,7 +16,8 @@ import java.awt.event.KeyEvent;
 // Logger classes for logging errors or debugging information
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import model.FileHandler;
+import model.DataRepository;
+import model.StorageBackend;
 
 // Main class for login screen; extends JFrame to create a standalone window
 public class LoginPanel extends JFrame {
@@ -232,12 +233,40 @@ public class LoginPanel extends JFrame {
 
         // Method to check login credentials and handle logic
         private void checkLogin() {
+        // Ignore Enter while an attempt is being verified or during the lockout
+        if (!loginButton.isEnabled()) return;
+
         String user = usernameField.getText().trim();
         String pass = new String(passwordField.getPassword()).trim();
 
-        FileHandler fileHandler = new FileHandler();
+        StorageBackend storage = DataRepository.getStorage();
+
+        // Verify off the EDT so the window stays responsive; the result is handled back on the EDT
+        loginButton.setEnabled(false);
+        new SwingWorker<Boolean, Void>() {
+            @Override
+            protected Boolean doInBackground() {
+                return storage.authenticateUser(user, pass);
+            }
+
+            @Override
+            protected void done() {
+                boolean authenticated;
+                try {
+                    authenticated = get();
+                } catch (Exception ex) {
+                    Logger.getLogger(LoginPanel.class.getName()).log(Level.SEVERE, null, ex);
+                    authenticated = false;
+                }
+                loginButton.setEnabled(true);
+                handleLoginResult(user, authenticated);
+            }
+        }.execute();
+    }
 
-        if (fileHandler.authenticateUser(user, pass)) {
+        // Updates the UI after a login attempt has been verified
+        private void handleLoginResult(String user, boolean authenticated) {
+        if (authenticated) {
             // Successful login
             feedbackLabel.setForeground(new Color(34, 139, 34));
             feedbackLabel.setText("Login Successful!");
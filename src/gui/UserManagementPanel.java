@@ -3,7 +3,11 @@ package gui;
 import javax.swing.*;
 import javax.swing.border.MatteBorder;
 import java.awt.*;
-import model.FileHandler;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import model.DataRepository;
+import model.StorageBackend;
 
 public class UserManagementPanel extends JFrame {
 
@@ -101,7 +105,7 @@ public class UserManagementPanel extends JFrame {
         setVisible(true);
 
         // Button logic
-        FileHandler fileHandler = new FileHandler();
+        StorageBackend storage = DataRepository.getStorage();
 
         addButton.addActionListener(e -> {
             String user = usernameField.getText().trim();
@@ -114,20 +118,13 @@ public class UserManagementPanel extends JFrame {
                 return;
             }
 
-            if (fileHandler.userExists(user)) {
-                feedbackLabel.setForeground(Color.RED);
-                feedbackLabel.setText("Username already exists.");
-            } else {
-                if (fileHandler.addUser(user, pass)) {
-                    feedbackLabel.setForeground(new Color(34, 139, 34));
-                    feedbackLabel.setText("User added successfully.");
-                    usernameField.setText("");
-                    passwordField.setText("");
-                } else {
-                    feedbackLabel.setForeground(Color.RED);
-                    feedbackLabel.setText("Failed to add user.");
-                }
-            }
+            runChange(() -> {
+                if (storage.userExists(user)) return "Username already exists.";
+                return storage.addUser(user, pass).join() ? null : "Failed to add user.";
+            }, "User added successfully.", () -> {
+                usernameField.setText("");
+                passwordField.setText("");
+            });
         });
 
 
@@ -135,18 +132,45 @@ public class UserManagementPanel extends JFrame {
             String user = usernameField.getText().trim();
             String pass = new String(passwordField.getPassword()).trim();
 
-            if (!fileHandler.userExists(user)) {
-                feedbackLabel.setText("User not found.");
-            } else {
-                if (fileHandler.updateUserPassword(user, pass)) {
+            runChange(() -> {
+                if (!storage.userExists(user)) return "User not found.";
+                return storage.updateUserPassword(user, pass).join() ? null : "Failed to update password.";
+            }, "Password updated.", () -> {});
+        });
+    }
+
+    // Hashing a password takes a moment on purpose, so changes run off the EDT as in
+    // LoginPanel.checkLogin; the change returns null on success or the message to show
+    private void runChange(Supplier<String> change, String success, Runnable afterSuccess) {
+        addButton.setEnabled(false);
+        updateButton.setEnabled(false);
+        new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() {
+                return change.get();
+            }
+
+            @Override
+            protected void done() {
+                String error;
+                try {
+                    error = get();
+                } catch (Exception ex) {
+                    Logger.getLogger(UserManagementPanel.class.getName()).log(Level.SEVERE, null, ex);
+                    error = "Failed to save the change.";
+                }
+                addButton.setEnabled(true);
+                updateButton.setEnabled(true);
+                if (error == null) {
                     feedbackLabel.setForeground(new Color(34, 139, 34));
-                    feedbackLabel.setText("Password updated.");
+                    feedbackLabel.setText(success);
+                    afterSuccess.run();
                 } else {
                     feedbackLabel.setForeground(Color.RED);
-                    feedbackLabel.setText("Failed to update password.");
+                    feedbackLabel.setText(error);
                 }
             }
-        });
+        }.execute();
     }
 
     // Button design copied from LoginPanel
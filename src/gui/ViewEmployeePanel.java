@@ -7,12 +7,11 @@ import javax.swing.border.*;
 import javax.swing.plaf.basic.BasicScrollBarUI;
 import java.awt.*;
 import java.time.*;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.time.format.TextStyle;
 import java.util.*;
 import java.util.List;
 import java.util.Locale;
+import java.util.stream.Stream;
 
 public class ViewEmployeePanel extends JFrame {
 
@@ -146,20 +145,16 @@ public class ViewEmployeePanel extends JFrame {
         rightPanel.add(textAreaScrollPane, BorderLayout.CENTER);
 
         // ===== FILE HANDLING & LOGIC =====
-        FileHandler fileHandler = new FileHandler();
-        fileHandler.readEmployeeFile();
-        fileHandler.readAttendanceFile();
+        // Shared handler: the files are only parsed if they changed since the last load
+        StorageBackend storage = DataRepository.getStorage();
+        storage.ensureEmployeeDataLoaded();
         String employeeId = employeeData.get(0).toString();
 
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+        // Only the months this employee has punches in, from their own month directory
+        List<YearMonth> attendanceMonths = storage.getAttendanceMonths(employeeId);
         Set<Month> availableMonths = new TreeSet<>();
-        for (String[] record : fileHandler.getAttendanceData()) {
-            if (record[0].equals(employeeId)) {
-                try {
-                    LocalDate date = LocalDate.parse(record[1], formatter);
-                    availableMonths.add(date.getMonth());
-                } catch (DateTimeParseException ignored) {}
-            }
+        for (YearMonth month : attendanceMonths) {
+            availableMonths.add(month.getMonth());
         }
         for (Month month : availableMonths) {
             comboBox.addItem(month.getDisplayName(TextStyle.FULL, Locale.ENGLISH));
@@ -172,32 +167,28 @@ public class ViewEmployeePanel extends JFrame {
                 return;
             }
 
-            int totalWorkedMinutes = 0, totalLateMinutes = 0;
-
-            for (String[] record : fileHandler.getAttendanceData()) {
-                if (record[0].equals(employeeId)) {
-                    try {
-                        LocalDate date = LocalDate.parse(record[1], formatter);
-                        if (date.getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH).equals(selectedMonth)) {
-                            int[] result = calculateWorkAndLateOffset(record[2], record[3]);
-                            totalWorkedMinutes += result[0];
-                            totalLateMinutes += result[1];
-                        }
-                    } catch (DateTimeParseException ignored) {}
-                }
+            Month month = Month.valueOf(selectedMonth.toUpperCase(Locale.ENGLISH));
+            int[] totals;
+            // Only this employee's punches of that month are read, in every year that has it
+            try (Stream<AttendanceRecord> punches = attendanceMonths.stream()
+                    .filter(m -> m.getMonth() == month)
+                    .flatMap(m -> storage.streamAttendance(employeeId, m))) {
+                totals = sumWorkAndLate(punches);
             }
+            int totalWorkedMinutes = totals[0], totalLateMinutes = totals[1];
 
             double totalHoursWorked = totalWorkedMinutes / 60.0;
-            String[] emp = fileHandler.getEmployeeById(employeeId);
+            // Amounts were parsed once when the employee was loaded
+            Employee emp = storage.getEmployee(employeeId);
             if (emp == null) {
                 JOptionPane.showMessageDialog(this, "Employee not found.");
                 return;
             }
 
             try {
-                double hourlyRate = safeParseDouble(emp[18]);
-                double basicSalary = safeParseDouble(emp[13]);
-                Benefits benefits = fileHandler.getBenefitsByEmployeeId(employeeId);
+                double hourlyRate = emp.getHourlyRate();
+                double basicSalary = emp.getBasicSalary();
+                Benefits benefits = emp.getBenefits();
                 double rice = benefits.getRiceSubsidy(), phone = benefits.getPhoneAllowance(), clothing = benefits.getClothingAllowance();
 
                 PayrollLogic logic = new PayrollLogic();
@@ -270,51 +261,30 @@ public class ViewEmployeePanel extends JFrame {
         setVisible(true);
     }
 
-    private double safeParseDouble(String value) {
-        try {
-            return Double.parseDouble(value.replace("\"", "").replace(",", "").trim());
-        } catch (NumberFormatException e) {
-            return 0.0;
-        }
+    // Returns {total worked minutes, total late minutes} over the given punches
+    private int[] sumWorkAndLate(Stream<AttendanceRecord> punches) {
+        int[] totals = new int[2];
+        punches.forEach(r -> {
+            int[] result = calculateWorkAndLateOffset(r.loginMinute(), r.logoutMinute());
+            totals[0] += result[0];
+            totals[1] += result[1];
+        });
+        return totals;
     }
 
-    private int[] calculateWorkAndLateOffset(String inStr, String outStr) {
-        inStr = sanitizeTime(inStr);
-        outStr = sanitizeTime(outStr);
-
-        List<DateTimeFormatter> formats = List.of(
-            DateTimeFormatter.ofPattern("H:mm"),
-            DateTimeFormatter.ofPattern("HH:mm"),
-            DateTimeFormatter.ofPattern("H:mm:ss"),
-            DateTimeFormatter.ofPattern("HH:mm:ss")
-        );
-
-        try {
-            LocalTime in = tryParseTime(inStr, formats);
-            LocalTime out = tryParseTime(outStr, formats);
-            LocalTime grace = LocalTime.of(8, 15), workEnd = LocalTime.of(17, 0);
-
-            int total = (int) Duration.between(in, out).toMinutes();
-            int late = in.isAfter(grace) ? (int) Duration.between(grace, in).toMinutes() : 0;
-            int overtime = out.isAfter(workEnd) ? (int) Duration.between(workEnd, out).toMinutes() : 0;
-
-            return new int[]{total - 60, Math.max(late - overtime, 0)};
-        } catch (Exception e) {
+    // Returns {worked minutes less the 1-hour break, late minutes not covered by overtime}
+    private int[] calculateWorkAndLateOffset(int in, int out) {
+        if (in == AttendanceStore.NO_TIME || out == AttendanceStore.NO_TIME) {
             return new int[]{0, 0};
         }
-    }
 
-    private LocalTime tryParseTime(String time, List<DateTimeFormatter> formats) {
-        for (DateTimeFormatter f : formats) {
-            try {
-                return LocalTime.parse(time, f);
-            } catch (Exception ignored) {}
-        }
-        throw new IllegalArgumentException("Invalid time: " + time);
-    }
+        int grace = 8 * 60 + 15, workEnd = 17 * 60;
+
+        int total = out - in;
+        int late = in > grace ? in - grace : 0;
+        int overtime = out > workEnd ? out - workEnd : 0;
 
-    private String sanitizeTime(String input) {
-        return input.replaceAll("[^\\x20-\\x7E]", "").replace("\"", "").trim();
+        return new int[]{total - 60, Math.max(late - overtime, 0)};
     }
 
     private BasicScrollBarUI createScrollBarUI() {
@@ -0,0 +1,20 @@
+package model;
+
+// One-shot split of data/attendance.txt into monthly partitions under data/attendance/.
+// Run once from the project folder while the application is closed:
+//   java -cp ... model.AttendancePartitionMigration
+// Edits still in attendance.journal are included. attendance.txt stays in place, as
+// the time clocks keep appending to it: punches added to it later are moved into
+// their month's partition when attendance is loaded or polled.
+// FileHandler takes the same step by itself once attendance.journal stays large after
+// compaction, as attendance.txt cannot take the journaled edits in.
+public final class AttendancePartitionMigration {
+
+    private AttendancePartitionMigration() {
+    }
+
+    public static void main(String[] args) {
+        boolean migrated = new FileHandler().migrateAttendanceToPartitions();
+        System.exit(migrated ? 0 : 1);
+    }
+}
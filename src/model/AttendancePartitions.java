@@ -0,0 +1,311 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+// Attendance kept as one file per month under data/attendance/ (2024-06.csv, ...).
+// Every partition has the format of attendance.txt. manifest.txt lists the months
+// and their row counts, so the months on file are known without opening any
+// partition, a month-scoped read opens a single file and an edit rewrites only the
+// partitions of the months it touched. The folder is used once the manifest exists;
+// AttendancePartitionMigration creates both from attendance.txt.
+// The time clocks keep appending to attendance.txt afterwards, so the manifest also
+// records how much of it the partitions hold (an "attendance.txt,..." line).
+final class AttendancePartitions {
+
+    // Partition for punches whose date could not be parsed (undated.csv)
+    static final YearMonth UNDATED = YearMonth.of(Year.MIN_VALUE, 1);
+
+    private static final String MANIFEST = "manifest.txt";
+    private static final String MANIFEST_HEADER = "Month,Rows";
+    private static final String INBOX = "attendance.txt";
+
+    private final Path folder;
+    private final Path manifest;
+
+    // Months in the manifest with their row counts, in month order
+    private final TreeMap<YearMonth, Integer> months = new TreeMap<>();
+    private FileStamp manifestStamp;
+    // Part of attendance.txt already moved into the partitions, or null if none of it is
+    private AttendanceTail inboxTail;
+
+    // Version of each partition as last read or written here, and rewrites not yet on disk
+    private final Map<YearMonth, FileStamp> stamps = new HashMap<>();
+    private final Map<YearMonth, Integer> pendingWrites = new HashMap<>();
+    private int pendingManifestWrites;
+    // Last rewrite queued for each month, until it is on disk (a failed one stays, so the
+    // manifest is not saved until that month was written again)
+    private final Map<YearMonth, CompletableFuture<Boolean>> latestWrites = new HashMap<>();
+    // Manifest snapshots in the order they were taken, and the newest one handed to the writer
+    private long manifestVersion;
+    private long submittedManifestVersion;
+    private CompletableFuture<Boolean> submittedManifest = CompletableFuture.completedFuture(true);
+
+    AttendancePartitions(Path folder) {
+        this.folder = folder;
+        this.manifest = folder.resolve(MANIFEST);
+    }
+
+    // True once the folder holds a manifest, i.e. attendance has been partitioned
+    boolean exists() {
+        return Files.exists(manifest);
+    }
+
+    // Months that have punches, in order (the undated partition is left out)
+    synchronized List<YearMonth> months() {
+        refreshManifest();
+        List<YearMonth> listed = new ArrayList<>(months.keySet());
+        listed.remove(UNDATED);
+        return listed;
+    }
+
+    // Every partition in the manifest, including the undated one
+    synchronized List<YearMonth> allMonths() {
+        refreshManifest();
+        return new ArrayList<>(months.keySet());
+    }
+
+    // Month a punch belongs to
+    static YearMonth monthOf(int epochDay) {
+        return epochDay == AttendanceStore.NO_DATE ? UNDATED : YearMonth.from(LocalDate.ofEpochDay(epochDay));
+    }
+
+    // First and last epoch day stored in a month's partition
+    static int firstDay(YearMonth month) {
+        return month.equals(UNDATED) ? AttendanceStore.NO_DATE : (int) month.atDay(1).toEpochDay();
+    }
+
+    static int lastDay(YearMonth month) {
+        return month.equals(UNDATED) ? AttendanceStore.NO_DATE : (int) month.atEndOfMonth().toEpochDay();
+    }
+
+    Path pathOf(YearMonth month) {
+        return folder.resolve(month.equals(UNDATED) ? "undated.csv" : month + ".csv");
+    }
+
+    // ======== Reading ========
+
+    // Appends the punches of a month to the store; returns the rows kept as unreadable lines
+    synchronized int read(YearMonth month, AttendanceStore store) throws IOException {
+        Path path = pathOf(month);
+        stamps.put(month, FileStamp.of(path.toFile())); // Stamped first, so a change while reading is noticed
+        return Files.exists(path) ? MappedAttendanceReader.read(path, store) : 0;
+    }
+
+    // Streams the punches of one month straight from its partition; close the stream when done
+    Stream<AttendanceRecord> stream(YearMonth month) {
+        Path path = pathOf(month);
+        if (!Files.exists(path)) return Stream.empty();
+        try {
+            return MappedAttendanceReader.stream(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Streams every partition in month order, opening one file at a time
+    Stream<AttendanceRecord> streamAll() {
+        return allMonths().stream().flatMap(this::stream);
+    }
+
+    // Months whose partition changed on disk since it was last read or written here,
+    // including months that were added to or dropped from the manifest
+    synchronized Set<YearMonth> changedMonths() {
+        refreshManifest();
+        Set<YearMonth> changed = new HashSet<>();
+        Set<YearMonth> known = new HashSet<>(stamps.keySet());
+        known.addAll(months.keySet());
+        for (YearMonth month : known) {
+            if (pendingWrites.getOrDefault(month, 0) > 0) continue; // Our own rewrite is on its way
+            FileStamp current = months.containsKey(month) ? FileStamp.of(pathOf(month).toFile()) : null;
+            if (!Objects.equals(current, stamps.get(month)) || !months.containsKey(month)) changed.add(month);
+        }
+        return changed;
+    }
+
+    // Forgets a month that was dropped from the manifest once its rows are gone from memory
+    synchronized void forget(YearMonth month) {
+        if (!months.containsKey(month)) stamps.remove(month);
+    }
+
+    // Re-reads the manifest if it was changed outside the application
+    private void refreshManifest() {
+        FileStamp current = FileStamp.of(manifest.toFile());
+        if (pendingManifestWrites > 0 || Objects.equals(current, manifestStamp)) return;
+
+        manifestStamp = current;
+        months.clear();
+        inboxTail = null;
+        if (current == null) return;
+        try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.trim().split(",");
+                if (parts.length != 2 || line.startsWith(MANIFEST_HEADER)) continue;
+                if (parts[0].equals(INBOX)) {
+                    inboxTail = AttendanceTail.restore(parts[1]);
+                    if (inboxTail == null) System.out.println("⚠ Ignoring manifest line: " + line);
+                    continue;
+                }
+                try {
+                    YearMonth month = parts[0].equals("undated") ? UNDATED : YearMonth.parse(parts[0]);
+                    months.put(month, Integer.parseInt(parts[1].trim()));
+                } catch (DateTimeParseException | NumberFormatException e) {
+                    System.out.println("⚠ Ignoring manifest line: " + line);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("❌ Error reading " + manifest + ": " + e.getMessage());
+        }
+    }
+
+    // ======== Writing ========
+
+    // Queues a rewrite of a month's partition with the given punches (a copy the caller
+    // no longer modifies); the manifest is updated in memory and saved by writeManifest
+    synchronized CompletableFuture<Boolean> write(DurableFileWriter writer, YearMonth month, AttendanceStore punches) {
+        refreshManifest();
+        if (punches.size() > 0 || !punches.unreadableLines().isEmpty()) {
+            months.put(month, punches.size());
+        } else {
+            months.remove(month); // The empty file stays behind but is no longer listed
+        }
+
+        Path path = pathOf(month);
+        pendingWrites.merge(month, 1, Integer::sum);
+        CompletableFuture<Boolean> saved = writer.submit(path, () -> new DurableFileWriter.TextContent() {
+            @Override
+            public void writeTo(Writer out) throws IOException {
+                punches.writeCsv(out);
+            }
+
+            @Override
+            public void committed() {
+                synchronized (AttendancePartitions.this) {
+                    stamps.put(month, FileStamp.of(path.toFile()));
+                }
+            }
+        });
+        latestWrites.put(month, saved);
+        saved.whenComplete((ok, error) -> {
+            synchronized (AttendancePartitions.this) {
+                pendingWrites.merge(month, -1, Integer::sum);
+                if (Boolean.TRUE.equals(ok)) latestWrites.remove(month, saved);
+            }
+        });
+        return saved;
+    }
+
+    // How much of attendance.txt the partitions hold, or null if none of it
+    synchronized AttendanceTail inboxTail() {
+        refreshManifest();
+        return inboxTail;
+    }
+
+    // Records how much of attendance.txt is now in the partitions; saved by writeManifest
+    synchronized void setInboxTail(AttendanceTail tail) {
+        refreshManifest();
+        inboxTail = tail;
+    }
+
+    // Queues a rewrite of the manifest as it is in memory now. It is handed to the writer
+    // only once every partition write queued so far is on disk, so it never lists punches
+    // (or a part of attendance.txt) that a partition does not hold yet; if one of those
+    // writes failed it is not saved. The writer merges a queued manifest write with the
+    // next one, so a snapshot older than one already handed over is dropped in its favour
+    synchronized CompletableFuture<Boolean> writeManifest(DurableFileWriter writer) {
+        Map<YearMonth, Integer> listed = new TreeMap<>(months);
+        AttendanceTail inbox = inboxTail;
+        long version = ++manifestVersion;
+        List<CompletableFuture<Boolean>> partitions = new ArrayList<>(latestWrites.values());
+
+        pendingManifestWrites++;
+        CompletableFuture<Boolean> saved = CompletableFuture.allOf(partitions.toArray(CompletableFuture[]::new))
+                .thenCompose(done -> {
+                    for (CompletableFuture<Boolean> partition : partitions) {
+                        if (!partition.join()) {
+                            System.out.println("⚠ " + MANIFEST + " not saved: a partition could not be written");
+                            return CompletableFuture.completedFuture(false);
+                        }
+                    }
+                    synchronized (AttendancePartitions.this) {
+                        if (version < submittedManifestVersion) return submittedManifest;
+                        submittedManifestVersion = version;
+                        submittedManifest = writer.submit(manifest, () -> manifestContent(listed, inbox));
+                        return submittedManifest;
+                    }
+                });
+        saved.whenComplete((ok, error) -> {
+            synchronized (AttendancePartitions.this) {
+                pendingManifestWrites--;
+            }
+        });
+        return saved;
+    }
+
+    private DurableFileWriter.TextContent manifestContent(Map<YearMonth, Integer> listed, AttendanceTail inbox) {
+        return new DurableFileWriter.TextContent() {
+            @Override
+            public void writeTo(Writer out) throws IOException {
+                out.write(MANIFEST_HEADER);
+                out.write('\n');
+                for (Map.Entry<YearMonth, Integer> entry : listed.entrySet()) {
+                    out.write(entry.getKey().equals(UNDATED) ? "undated" : entry.getKey().toString());
+                    out.write(',');
+                    out.write(Integer.toString(entry.getValue()));
+                    out.write('\n');
+                }
+                if (inbox != null) {
+                    out.write(INBOX + "," + inbox.save());
+                    out.write('\n');
+                }
+            }
+
+            @Override
+            public void committed() {
+                synchronized (AttendancePartitions.this) {
+                    manifestStamp = FileStamp.of(manifest.toFile());
+                }
+            }
+        };
+    }
+
+    // Splits the punches by month, in month order
+    static Map<YearMonth, AttendanceStore> split(AttendanceStore punches) {
+        Map<YearMonth, AttendanceStore> byMonth = new TreeMap<>();
+        AttendanceStore.Cursor cursor = punches.cursor();
+        while (cursor.next()) {
+            byMonth.computeIfAbsent(monthOf(cursor.epochDay()), m -> new AttendanceStore())
+                    .add(cursor.employeeId(), cursor.epochDay(), cursor.loginMinute(), cursor.logoutMinute());
+        }
+        // Unreadable lines count as undated
+        for (String line : punches.unreadableLines()) {
+            byMonth.computeIfAbsent(UNDATED, m -> new AttendanceStore()).keepUnreadable(line);
+        }
+        return byMonth;
+    }
+
+    // Creates the folder for the partitions
+    void createFolder() throws IOException {
+        Files.createDirectories(folder);
+    }
+}
@@ -0,0 +1,20 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.Month;
+
+// One attendance punch as produced by FileHandler.streamAttendance
+// Values are kept in the store's encoding: the date as an epoch day (or
+// AttendanceStore.NO_DATE) and times as minutes since midnight (or NO_TIME)
+public record AttendanceRecord(int employeeId, int epochDay, short loginMinute, short logoutMinute) {
+
+    // Returns the punch date, or null if it could not be parsed
+    public LocalDate date() {
+        return epochDay == AttendanceStore.NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    // True if the punch falls in the given month of any year
+    public boolean isInMonth(Month month) {
+        return epochDay != AttendanceStore.NO_DATE && date().getMonth() == month;
+    }
+}
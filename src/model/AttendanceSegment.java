@@ -0,0 +1,170 @@
+package model;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+// Binary copy of attendance.txt that loads without any parsing.
+// Layout (little-endian): a 64-byte header followed by the four columns of the
+// AttendanceStore stored back to back as fixed-width values:
+//   int employee # [rows], int epoch day [rows], short log in [rows], short log out [rows]
+// The header records the size and modification time of the attendance.txt it was
+// built from, so a segment is only used while the text file is unchanged, and a
+// CRC32C of the column data, so a damaged segment is rejected instead of loaded.
+final class AttendanceSegment {
+
+    private static final int MAGIC = 0x5341504D; // "MPAS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+
+    // Header field offsets
+    private static final long MAGIC_OFFSET = 0;
+    private static final long VERSION_OFFSET = 4;
+    private static final long ROWS_OFFSET = 8;
+    private static final long CHECKSUM_OFFSET = 12;
+    private static final long SOURCE_SIZE_OFFSET = 16;
+    private static final long SOURCE_MODIFIED_OFFSET = 24;
+
+    // Bytes per row across the four columns
+    private static final int ROW_SIZE = 4 + 4 + 2 + 2;
+
+    // Rows written per buffer when building a segment
+    private static final int WRITE_BATCH = 1 << 16;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private AttendanceSegment() {
+    }
+
+    // Maps the segment and copies its columns into the store if it was built from the
+    // given version of attendance.txt; returns false if it is missing, stale or damaged
+    static boolean load(Path path, long sourceSize, long sourceModified, AttendanceStore store) throws IOException {
+        if (!Files.exists(path)) return false;
+
+        try (Arena arena = Arena.ofConfined();
+             FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) return false;
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize, arena);
+
+            if (segment.get(INT, MAGIC_OFFSET) != MAGIC || segment.get(INT, VERSION_OFFSET) != VERSION) return false;
+            if (segment.get(LONG, SOURCE_SIZE_OFFSET) != sourceSize
+                    || segment.get(LONG, SOURCE_MODIFIED_OFFSET) != sourceModified) {
+                return false;
+            }
+            int rows = segment.get(INT, ROWS_OFFSET);
+            if (rows < 0 || fileSize != HEADER_SIZE + (long) rows * ROW_SIZE) return false;
+
+            MemorySegment body = segment.asSlice(HEADER_SIZE);
+            if (checksum(body) != segment.get(INT, CHECKSUM_OFFSET)) {
+                System.out.println("⚠ " + path.getFileName() + " is damaged and will be rebuilt");
+                return false;
+            }
+
+            // Bulk copies straight out of the mapping; no per-row work at all
+            int[] employeeIds = new int[rows];
+            int[] epochDays = new int[rows];
+            short[] loginMinutes = new short[rows];
+            short[] logoutMinutes = new short[rows];
+            long offset = 0;
+            MemorySegment.copy(body, INT, offset, employeeIds, 0, rows);
+            offset += 4L * rows;
+            MemorySegment.copy(body, INT, offset, epochDays, 0, rows);
+            offset += 4L * rows;
+            MemorySegment.copy(body, SHORT, offset, loginMinutes, 0, rows);
+            offset += 2L * rows;
+            MemorySegment.copy(body, SHORT, offset, logoutMinutes, 0, rows);
+
+            store.load(employeeIds, epochDays, loginMinutes, logoutMinutes, rows);
+            return true;
+        }
+    }
+
+    // Content that writes the punches as a segment for the given version of attendance.txt
+    // The store must not be modified afterwards (pass a copy)
+    static DurableFileWriter.Content content(AttendanceStore punches, long sourceSize, long sourceModified) {
+        return new DurableFileWriter.Content() {
+            @Override
+            public void writeTo(FileChannel channel) throws IOException {
+                write(channel, punches, sourceSize, sourceModified);
+            }
+        };
+    }
+
+    private static void write(FileChannel channel, AttendanceStore punches, long sourceSize, long sourceModified)
+            throws IOException {
+        punches.compact();
+        int rows = punches.rowCount();
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_BATCH * 4).order(ByteOrder.LITTLE_ENDIAN);
+
+        channel.position(HEADER_SIZE);
+        writeColumn(channel, buffer, crc, punches.employeeIdColumn(), rows);
+        writeColumn(channel, buffer, crc, punches.epochDayColumn(), rows);
+        writeColumn(channel, buffer, crc, punches.loginMinuteColumn(), rows);
+        writeColumn(channel, buffer, crc, punches.logoutMinuteColumn(), rows);
+
+        // The header goes last, so a segment cut short never carries a valid checksum
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt((int) MAGIC_OFFSET, MAGIC)
+                .putInt((int) VERSION_OFFSET, VERSION)
+                .putInt((int) ROWS_OFFSET, rows)
+                .putInt((int) CHECKSUM_OFFSET, (int) crc.getValue())
+                .putLong((int) SOURCE_SIZE_OFFSET, sourceSize)
+                .putLong((int) SOURCE_MODIFIED_OFFSET, sourceModified);
+        writeFully(channel, header, 0);
+    }
+
+    private static void writeColumn(FileChannel channel, ByteBuffer buffer, CRC32C crc, int[] values, int rows)
+            throws IOException {
+        for (int start = 0; start < rows; start += WRITE_BATCH) {
+            int count = Math.min(WRITE_BATCH, rows - start);
+            buffer.clear();
+            buffer.asIntBuffer().put(values, start, count);
+            buffer.limit(count * 4);
+            flush(channel, buffer, crc);
+        }
+    }
+
+    private static void writeColumn(FileChannel channel, ByteBuffer buffer, CRC32C crc, short[] values, int rows)
+            throws IOException {
+        for (int start = 0; start < rows; start += WRITE_BATCH) {
+            int count = Math.min(WRITE_BATCH, rows - start);
+            buffer.clear();
+            buffer.asShortBuffer().put(values, start, count);
+            buffer.limit(count * 2);
+            flush(channel, buffer, crc);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer, CRC32C crc) throws IOException {
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    // CRC32C of the mapped bytes, fed in slices a ByteBuffer can address
+    private static int checksum(MemorySegment body) {
+        CRC32C crc = new CRC32C();
+        long chunk = 1L << 30;
+        for (long offset = 0; offset < body.byteSize(); offset += chunk) {
+            crc.update(body.asSlice(offset, Math.min(chunk, body.byteSize() - offset)).asByteBuffer());
+        }
+        return (int) crc.getValue();
+    }
+}
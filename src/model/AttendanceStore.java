@@ -0,0 +1,839 @@
+package model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Column-oriented, primitive-typed storage for attendance punches.
+// Each punch is kept as four parallel array entries instead of a String[],
+// so the date and times are parsed once at load time and never again.
+// A composite (employee #, date) index gives constant-time point lookups,
+// upserts and deletes; deleted rows are tombstoned and squeezed out in bulk.
+// Each employee's rows are also chained together, so all of one employee's
+// punches can be tombstoned without scanning the others, and a day index keeps
+// the rows sorted by date so a date range is found by binary search.
+// Lines whose Employee # is not a plain number cannot be held as punches; they are
+// kept verbatim as unreadable lines, count as undated and are written back as they were.
+public class AttendanceStore {
+
+    // Arrays grow in whole chunks of this many rows
+    private static final int CHUNK_SIZE = 4096;
+
+    // Marker for a date that could not be parsed
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    // Marker for a log in / log out time that is missing or could not be parsed
+    public static final short NO_TIME = -1;
+
+    // Employee # stored in a row that has been deleted but not yet compacted away
+    private static final int DELETED = -1;
+
+    private int[] employeeIds = new int[0];
+    private int[] epochDays = new int[0];
+    private short[] loginMinutes = new short[0];
+    private short[] logoutMinutes = new short[0];
+    private int size;
+    private int deletedCount;
+
+    // (employee #, epoch day) -> first row with that key; built on first lookup, then kept
+    // up to date. Further rows with the same key (duplicate punches in the file) are chained
+    // off it in row order: nextDuplicateOf[row] is the next one, or -1
+    private LongIntHashMap index;
+    private int[] nextDuplicateOf;
+
+    // Employee # -> first and last row of their punches, and each row's next row of the
+    // same employee (-1 at the end); built on first use and dropped when rows move
+    private IntIntHashMap firstRowOf;
+    private IntIntHashMap lastRowOf;
+    private int[] nextRowOf;
+
+    // Dated rows sorted by (epoch day, row), built on first range query; appends in date
+    // order extend it, anything else drops it until the next query
+    private int[] dayOrder;
+    private int dayOrderSize;
+
+    // Punches laid out by employee (see ClusteredAttendance); an employee's layout is
+    // dropped when one of their punches changes. Rows moving does not affect it
+    private final ClusteredAttendance clustered = new ClusteredAttendance(this);
+
+    // Lines read that are not a usable punch, kept so rewriting the file does not lose them
+    private final List<String> unreadableLines = new ArrayList<>();
+
+    // String[] view used by the table models and file writers
+    private final List<String[]> rows = new RowView();
+    // Row of each live punch in order, so the view skips deleted rows without compacting;
+    // built on first use while rows are deleted, dropped when one is deleted or rows move
+    private int[] liveRows;
+
+    // ======== Accessors ========
+
+    // Returns the number of punches held, not counting deleted rows
+    public int size() {
+        return size - deletedCount;
+    }
+
+    // Returns the lines kept because they are not a usable punch (see keepUnreadable)
+    public List<String> unreadableLines() {
+        return List.copyOf(unreadableLines);
+    }
+
+    // Returns the number of row slots, including deleted rows not yet compacted away
+    public int rowCount() {
+        return size;
+    }
+
+    // True if the row was deleted; its other columns are then meaningless
+    public boolean isDeleted(int row) {
+        checkIndex(row);
+        return employeeIds[row] == DELETED;
+    }
+
+    public int employeeId(int row) {
+        checkIndex(row);
+        return employeeIds[row];
+    }
+
+    public int epochDay(int row) {
+        checkIndex(row);
+        return epochDays[row];
+    }
+
+    // Log in time as minutes since midnight, or NO_TIME
+    public short loginMinute(int row) {
+        checkIndex(row);
+        return loginMinutes[row];
+    }
+
+    // Log out time as minutes since midnight, or NO_TIME
+    public short logoutMinute(int row) {
+        checkIndex(row);
+        return logoutMinutes[row];
+    }
+
+    // Returns the punch date, or null if it could not be parsed
+    public LocalDate date(int row) {
+        int day = epochDay(row);
+        return day == NO_DATE ? null : LocalDate.ofEpochDay(day);
+    }
+
+    // Returns the row of the employee's punch on that day, or -1
+    public int find(int employeeId, int epochDay) {
+        if (employeeId < 0 || epochDay == NO_DATE) return -1;
+        ensureIndex();
+        return index.get(key(employeeId, epochDay));
+    }
+
+    // Returns every row of the employee's punches, in row order, by following their row chain
+    public int[] rowsOf(int employeeId) {
+        if (employeeId < 0) return new int[0];
+        ensureChains();
+        int row = firstRowOf.get(employeeId);
+        if (row == IntIntHashMap.MISSING) return new int[0];
+
+        int[] found = new int[16];
+        int count = 0;
+        for (; row != -1; row = nextRowOf[row]) {
+            if (employeeIds[row] != employeeId) continue; // Deleted
+            if (count == found.length) found = Arrays.copyOf(found, count * 2);
+            found[count++] = row;
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    // Returns every row of the employee's punches on that day, in row order; more than one
+    // only if the file repeats a punch. Follows the index entry's chain of duplicates
+    public int[] rowsOf(int employeeId, int epochDay) {
+        int row = find(employeeId, epochDay);
+        if (row == -1) return new int[0];
+
+        int[] found = new int[1];
+        int count = 0;
+        for (; row != -1; row = nextDuplicateOf[row]) {
+            if (count == found.length) found = Arrays.copyOf(found, count * 2);
+            found[count++] = row;
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    // Returns the rows of the live punches dated between the two epoch days (inclusive),
+    // in date order; only the rows in the range are visited
+    public int[] between(int firstDay, int lastDay) {
+        return between(firstDay, lastDay, -1);
+    }
+
+    // Same, keeping only one employee's punches; a negative employeeId keeps everyone's
+    public int[] between(int firstDay, int lastDay, int employeeId) {
+        if (firstDay == NO_DATE || firstDay > lastDay) return new int[0];
+        ensureDayOrder();
+
+        // First position whose day is not before firstDay
+        int low = 0, high = dayOrderSize;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[dayOrder[mid]] < firstDay) low = mid + 1;
+            else high = mid;
+        }
+
+        int[] found = new int[16];
+        int count = 0;
+        for (int i = low; i < dayOrderSize && epochDays[dayOrder[i]] <= lastDay; i++) {
+            int row = dayOrder[i];
+            if (employeeIds[row] == DELETED || (employeeId >= 0 && employeeIds[row] != employeeId)) continue;
+            if (count == found.length) found = Arrays.copyOf(found, count * 2);
+            found[count++] = row;
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    // Formats one row as {employee #, date, log in, log out} without compacting first
+    public String[] toRow(int row) {
+        checkIndex(row);
+        return new String[]{
+            String.valueOf(employeeIds[row]),
+            formatDate(epochDays[row]),
+            formatTime(loginMinutes[row]),
+            formatTime(logoutMinutes[row])
+        };
+    }
+
+    // Returns the punches laid out by employee with a month directory each; an employee's
+    // layout is built on first use after one of their punches changed
+    ClusteredAttendance clustered() {
+        return clustered;
+    }
+
+    // Returns a cursor positioned before the first punch
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    // Returns a live String[] view of the punches ({employee #, date, log in, log out})
+    public List<String[]> asRows() {
+        return rows;
+    }
+
+    // Returns an independent copy of the live punches (deleted rows and the index are left out)
+    public AttendanceStore copy() {
+        AttendanceStore copy = new AttendanceStore();
+        copy.ensureCapacity(size());
+        Cursor cursor = cursor();
+        while (cursor.next()) {
+            int row = cursor.row();
+            copy.add(employeeIds[row], epochDays[row], loginMinutes[row], logoutMinutes[row]);
+        }
+        copy.unreadableLines.addAll(unreadableLines);
+        return copy;
+    }
+
+    // Returns an independent copy of the live punches dated between the two epoch days
+    // (inclusive); a range of NO_DATE copies the unreadable lines too
+    public AttendanceStore copyDays(int firstDay, int lastDay) {
+        AttendanceStore copy = new AttendanceStore();
+        Cursor cursor = cursor();
+        while (cursor.next()) {
+            int row = cursor.row();
+            if (epochDays[row] >= firstDay && epochDays[row] <= lastDay) {
+                copy.add(employeeIds[row], epochDays[row], loginMinutes[row], logoutMinutes[row]);
+            }
+        }
+        if (firstDay == NO_DATE) copy.unreadableLines.addAll(unreadableLines);
+        return copy;
+    }
+
+    // Writes the live punches as attendance.txt lines ("employee #,date,log in,log out")
+    void writeCsv(Writer out) throws IOException {
+        Cursor cursor = cursor();
+        while (cursor.next()) {
+            out.write(Integer.toString(cursor.employeeId()));
+            out.write(',');
+            out.write(formatDate(cursor.epochDay()));
+            out.write(',');
+            out.write(formatTime(cursor.loginMinute()));
+            out.write(',');
+            out.write(formatTime(cursor.logoutMinute()));
+            out.write('\n');
+        }
+        for (String line : unreadableLines) {
+            out.write(line);
+            out.write('\n');
+        }
+    }
+
+    // ======== Mutators ========
+
+    // Keeps a line that is not a usable punch, to be written back unchanged
+    void keepUnreadable(String line) {
+        unreadableLines.add(line);
+    }
+
+    // Appends a punch and returns its row index
+    // A punch needs a plain Employee #; a line without one goes to keepUnreadable instead
+    public int add(int employeeId, int epochDay, int loginMinute, int logoutMinute) {
+        checkEmployeeId(employeeId);
+        ensureCapacity(size + 1);
+        clustered.changed(employeeId);
+        employeeIds[size] = employeeId;
+        epochDays[size] = epochDay;
+        loginMinutes[size] = (short) loginMinute;
+        logoutMinutes[size] = (short) logoutMinute;
+        if (index != null) indexRow(size);
+        if (firstRowOf != null) chainRow(size);
+        if (dayOrder != null) orderRow(size);
+        if (liveRows != null) {
+            if (liveRows.length == size()) liveRows = Arrays.copyOf(liveRows, Math.max(16, size() * 2));
+            liveRows[size()] = size;
+        }
+        return size++;
+    }
+
+    // Updates the employee's punch on that day, or appends one; returns its row
+    public int upsert(int employeeId, int epochDay, int loginMinute, int logoutMinute) {
+        int row = find(employeeId, epochDay);
+        if (row == -1) return add(employeeId, epochDay, loginMinute, logoutMinute);
+
+        clustered.changed(employeeId);
+        loginMinutes[row] = (short) loginMinute;
+        logoutMinutes[row] = (short) logoutMinute;
+        return row;
+    }
+
+    // Replaces the punch at the given row
+    public void set(int row, int employeeId, int epochDay, int loginMinute, int logoutMinute) {
+        checkIndex(row);
+        if (employeeIds[row] == DELETED) throw new IllegalStateException("Row " + row + " was deleted.");
+        checkEmployeeId(employeeId);
+
+        boolean rekey = employeeIds[row] != employeeId || epochDays[row] != epochDay;
+        if (rekey && index != null) unindexRow(row);
+        if (employeeIds[row] != employeeId) firstRowOf = null; // Chains are rebuilt when next needed
+        if (epochDays[row] != epochDay) dayOrder = null;
+        clustered.changed(employeeIds[row]);
+        clustered.changed(employeeId);
+
+        employeeIds[row] = employeeId;
+        epochDays[row] = epochDay;
+        loginMinutes[row] = (short) loginMinute;
+        logoutMinutes[row] = (short) logoutMinute;
+
+        if (rekey && index != null) indexRow(row);
+    }
+
+    // Deletes the punch at the given row in constant time by tombstoning it
+    // Tombstones are squeezed out once they make up half of the rows
+    public void remove(int row) {
+        checkIndex(row);
+        if (employeeIds[row] == DELETED) return;
+
+        if (index != null) unindexRow(row);
+        clustered.changed(employeeIds[row]);
+        employeeIds[row] = DELETED;
+        deletedCount++;
+        liveRows = null;
+
+        if (deletedCount > CHUNK_SIZE && deletedCount > size / 2) compact();
+    }
+
+    // Deletes every punch of the employee on that day; returns how many were removed
+    public int remove(int employeeId, int epochDay) {
+        int removed = 0;
+        int row;
+        while ((row = find(employeeId, epochDay)) != -1) {
+            remove(row);
+            removed++;
+        }
+        return removed;
+    }
+
+    // Tombstones every punch of the employee by following their row chain, without
+    // looking at anyone else's rows; returns the epoch days of the removed punches
+    public int[] removeEmployee(int employeeId) {
+        if (employeeId < 0) return new int[0];
+        ensureChains();
+        int row = firstRowOf.get(employeeId);
+        if (row == IntIntHashMap.MISSING) return new int[0];
+
+        int[] days = new int[8];
+        int removed = 0;
+        for (; row != -1; row = nextRowOf[row]) {
+            if (employeeIds[row] != employeeId) continue; // Already deleted
+            if (index != null) unindexRow(row);
+            employeeIds[row] = DELETED;
+            if (removed == days.length) days = Arrays.copyOf(days, removed * 2);
+            days[removed++] = epochDays[row];
+        }
+        firstRowOf.remove(employeeId);
+        lastRowOf.remove(employeeId);
+        deletedCount += removed;
+        liveRows = null;
+        clustered.changed(employeeId);
+
+        if (deletedCount > CHUNK_SIZE && deletedCount > size / 2) compact();
+        return Arrays.copyOf(days, removed);
+    }
+
+    // Deletes every punch dated between the two epoch days (inclusive); returns how many were removed
+    public int removeDays(int firstDay, int lastDay) {
+        int removed = 0;
+        for (int row = 0; row < size; row++) {
+            if (employeeIds[row] != DELETED && epochDays[row] >= firstDay && epochDays[row] <= lastDay) {
+                clustered.changed(employeeIds[row]);
+                employeeIds[row] = DELETED;
+                removed++;
+            }
+        }
+        if (firstDay == NO_DATE) unreadableLines.clear(); // They count as undated
+        if (removed == 0) return 0;
+
+        deletedCount += removed;
+        liveRows = null;
+        // Rebuilding the index on the next lookup is cheaper than unindexing row by row
+        index = null;
+        if (deletedCount > CHUNK_SIZE && deletedCount > size / 2) compact();
+        return removed;
+    }
+
+    // Appends every live punch of another store, keeping their order
+    void addAll(AttendanceStore other) {
+        other.compact();
+        int rows = other.size;
+        ensureCapacity(size + rows);
+        System.arraycopy(other.employeeIds, 0, employeeIds, size, rows);
+        System.arraycopy(other.epochDays, 0, epochDays, size, rows);
+        System.arraycopy(other.loginMinutes, 0, loginMinutes, size, rows);
+        System.arraycopy(other.logoutMinutes, 0, logoutMinutes, size, rows);
+        unreadableLines.addAll(other.unreadableLines);
+
+        dayOrder = null;
+        liveRows = null;
+        for (int i = 0; i < rows; i++) {
+            clustered.changed(other.employeeIds[i]);
+        }
+        if (index == null && firstRowOf == null) {
+            size += rows;
+        } else {
+            for (int i = 0; i < rows; i++) {
+                if (index != null) indexRow(size);
+                if (firstRowOf != null) chainRow(size);
+                size++;
+            }
+        }
+    }
+
+    // Replaces the contents with ready-made columns (used when loading a binary segment)
+    void load(int[] employeeIds, int[] epochDays, short[] loginMinutes, short[] logoutMinutes, int rows) {
+        this.employeeIds = employeeIds;
+        this.epochDays = epochDays;
+        this.loginMinutes = loginMinutes;
+        this.logoutMinutes = logoutMinutes;
+        size = rows;
+        deletedCount = 0;
+        index = null;
+        firstRowOf = null;
+        dayOrder = null;
+        liveRows = null;
+        unreadableLines.clear();
+        clustered.clear();
+    }
+
+    // Raw column arrays for bulk writers; only the first rowCount() entries are used
+    // and callers must compact() first so no deleted rows are included
+    int[] employeeIdColumn() {
+        return employeeIds;
+    }
+
+    int[] epochDayColumn() {
+        return epochDays;
+    }
+
+    short[] loginMinuteColumn() {
+        return loginMinutes;
+    }
+
+    short[] logoutMinuteColumn() {
+        return logoutMinutes;
+    }
+
+    // Removes all punches but keeps the allocated arrays
+    public void clear() {
+        size = 0;
+        deletedCount = 0;
+        index = null;
+        firstRowOf = null;
+        dayOrder = null;
+        liveRows = null;
+        unreadableLines.clear();
+        clustered.clear();
+    }
+
+    // Physically removes deleted rows, keeping the remaining rows in order
+    public void compact() {
+        if (deletedCount == 0) return;
+
+        int live = 0;
+        for (int row = 0; row < size; row++) {
+            if (employeeIds[row] == DELETED) continue;
+            employeeIds[live] = employeeIds[row];
+            epochDays[live] = epochDays[row];
+            loginMinutes[live] = loginMinutes[row];
+            logoutMinutes[live] = logoutMinutes[row];
+            live++;
+        }
+        size = live;
+        deletedCount = 0;
+
+        // Row numbers changed, so the indexes and chains are rebuilt when next needed
+        index = null;
+        firstRowOf = null;
+        dayOrder = null;
+        liveRows = null;
+    }
+
+    // Grows the column arrays in whole chunks when more room is needed
+    private void ensureCapacity(int required) {
+        if (required <= employeeIds.length) return;
+        int capacity = Math.max(required, employeeIds.length + (employeeIds.length >> 1));
+        capacity = (capacity + CHUNK_SIZE - 1) / CHUNK_SIZE * CHUNK_SIZE;
+
+        employeeIds = Arrays.copyOf(employeeIds, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        loginMinutes = Arrays.copyOf(loginMinutes, capacity);
+        logoutMinutes = Arrays.copyOf(logoutMinutes, capacity);
+    }
+
+    // Negative numbers mark deleted rows, so they cannot be stored as an Employee #
+    private static void checkEmployeeId(int employeeId) {
+        if (employeeId < 0) throw new IllegalArgumentException("Employee # is not a plain number.");
+    }
+
+    private void checkIndex(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+    }
+
+    // ======== Composite Index ========
+
+    // Packs an (employee #, epoch day) pair into one index key
+    private static long key(int employeeId, int epochDay) {
+        return ((long) employeeId << 32) | (epochDay & 0xFFFFFFFFL);
+    }
+
+    // Builds the index on first use, so stores that are only read never pay for it
+    private void ensureIndex() {
+        if (index != null) return;
+        index = new LongIntHashMap(size);
+        nextDuplicateOf = new int[employeeIds.length];
+        for (int row = 0; row < size; row++) {
+            indexRow(row);
+        }
+    }
+
+    // Adds a row to the index; a row whose key is taken joins that key's duplicate chain
+    // in row order (the chain only ever holds the few repeats of one punch)
+    private void indexRow(int row) {
+        if (nextDuplicateOf.length < employeeIds.length) nextDuplicateOf = Arrays.copyOf(nextDuplicateOf, employeeIds.length);
+        nextDuplicateOf[row] = -1;
+        if (employeeIds[row] == DELETED || epochDays[row] == NO_DATE) return;
+        long key = key(employeeIds[row], epochDays[row]);
+        int first = index.get(key);
+        if (first == LongIntHashMap.MISSING || row < first) {
+            if (first != LongIntHashMap.MISSING) nextDuplicateOf[row] = first;
+            index.put(key, row);
+            return;
+        }
+        int previous = first;
+        while (nextDuplicateOf[previous] != -1 && nextDuplicateOf[previous] < row) previous = nextDuplicateOf[previous];
+        nextDuplicateOf[row] = nextDuplicateOf[previous];
+        nextDuplicateOf[previous] = row;
+    }
+
+    // Drops a row from the index; the next duplicate punch, if any, takes its place
+    private void unindexRow(int row) {
+        if (employeeIds[row] == DELETED || epochDays[row] == NO_DATE) return;
+        long key = key(employeeIds[row], epochDays[row]);
+        int first = index.get(key);
+        if (first == row) {
+            if (nextDuplicateOf[row] == -1) {
+                index.remove(key);
+            } else {
+                index.put(key, nextDuplicateOf[row]);
+            }
+        } else if (first != LongIntHashMap.MISSING) {
+            int previous = first;
+            while (nextDuplicateOf[previous] != -1 && nextDuplicateOf[previous] != row) previous = nextDuplicateOf[previous];
+            if (nextDuplicateOf[previous] == row) nextDuplicateOf[previous] = nextDuplicateOf[row];
+        }
+        nextDuplicateOf[row] = -1;
+    }
+
+    // ======== Employee Chains ========
+
+    // Links every row into its employee's chain on first use
+    private void ensureChains() {
+        if (firstRowOf != null) return;
+        firstRowOf = new IntIntHashMap(Math.max(16, size / 16));
+        lastRowOf = new IntIntHashMap(Math.max(16, size / 16));
+        nextRowOf = new int[employeeIds.length];
+        for (int row = 0; row < size; row++) {
+            chainRow(row);
+        }
+    }
+
+    // Appends a row to the end of its employee's chain
+    private void chainRow(int row) {
+        if (nextRowOf.length < employeeIds.length) nextRowOf = Arrays.copyOf(nextRowOf, employeeIds.length);
+        nextRowOf[row] = -1;
+        int employeeId = employeeIds[row];
+        if (employeeId < 0) return; // Deleted, or not a plain number
+        int last = lastRowOf.get(employeeId);
+        if (last == IntIntHashMap.MISSING) {
+            firstRowOf.put(employeeId, row);
+        } else {
+            nextRowOf[last] = row;
+        }
+        lastRowOf.put(employeeId, row);
+    }
+
+    // ======== Day Index ========
+
+    // Sorts the dated rows by day on first use; deleted rows are skipped at query time instead
+    private void ensureDayOrder() {
+        if (dayOrder != null) return;
+        long[] keys = new long[size];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (employeeIds[row] != DELETED && epochDays[row] != NO_DATE) {
+                keys[count++] = ((long) epochDays[row] << 32) | row; // Day first, then row order
+            }
+        }
+        Arrays.sort(keys, 0, count);
+
+        dayOrder = new int[Math.max(count, 16)];
+        for (int i = 0; i < count; i++) {
+            dayOrder[i] = (int) keys[i];
+        }
+        dayOrderSize = count;
+    }
+
+    // Adds a new last row to the day index, which stays sorted if it is not older than the rest
+    private void orderRow(int row) {
+        int day = epochDays[row];
+        if (day == NO_DATE) return;
+        if (dayOrderSize > 0 && day < epochDays[dayOrder[dayOrderSize - 1]]) {
+            dayOrder = null; // Out of order: sorted again on the next range query
+            return;
+        }
+        if (dayOrderSize == dayOrder.length) dayOrder = Arrays.copyOf(dayOrder, dayOrderSize * 2);
+        dayOrder[dayOrderSize++] = row;
+    }
+
+    // ======== Parsing & Formatting ========
+
+    // Parses an employee number, or returns -1 if it is not a plain number
+    public static int parseEmployeeId(CharSequence text) {
+        int value = 0;
+        int length = text.length();
+        int start = 0, end = length;
+        while (start < end && text.charAt(start) <= ' ') start++;
+        while (end > start && text.charAt(end - 1) <= ' ') end--;
+        if (start == end || end - start > 9) return -1;
+
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // Parses an MM/dd/yyyy date (single-digit month/day allowed) into an epoch day
+    public static int parseDate(CharSequence text) {
+        int month = 0, day = 0, year = 0;
+        int part = 0, digits = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > (part == 2 ? 4 : 2)) return NO_DATE;
+                if (part == 0) month = month * 10 + (c - '0');
+                else if (part == 1) day = day * 10 + (c - '0');
+                else year = year * 10 + (c - '0');
+            } else if (c == '/' && digits > 0 && part < 2) {
+                part++;
+                digits = 0;
+            } else if (c > ' ' && c != '"') {
+                return NO_DATE;
+            }
+        }
+        if (part != 2 || digits != 4) return NO_DATE;
+        return toEpochDay(year, month, day);
+    }
+
+    // Parses an H:mm or H:mm:ss time into minutes since midnight (seconds are dropped)
+    public static short parseTime(CharSequence text) {
+        int hour = 0, minute = 0, second = 0;
+        int part = 0, digits = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > 2) return NO_TIME;
+                if (part == 0) hour = hour * 10 + (c - '0');
+                else if (part == 1) minute = minute * 10 + (c - '0');
+                else second = second * 10 + (c - '0');
+            } else if (c == ':' && digits > 0 && part < 2) {
+                part++;
+                digits = 0;
+            } else if (c > ' ' && c != '"') {
+                return NO_TIME;
+            }
+        }
+        if (part == 0 || digits != 2) return NO_TIME;
+        return toMinuteOfDay(hour, minute, second);
+    }
+
+    // Converts a calendar date to an epoch day without allocating, or NO_DATE if invalid
+    static int toEpochDay(int year, int month, int day) {
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) return NO_DATE;
+        int y = month <= 2 ? year - 1 : year;
+        int era = y / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    // Converts a time of day to minutes since midnight, or NO_TIME if invalid
+    static short toMinuteOfDay(int hour, int minute, int second) {
+        if (hour > 23 || minute > 59 || second > 59) return NO_TIME;
+        return (short) (hour * 60 + minute);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        if (month == 2) {
+            boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            return leap ? 29 : 28;
+        }
+        return (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+    }
+
+    // Formats an epoch day as MM/dd/yyyy, the format used in attendance.txt
+    public static String formatDate(int epochDay) {
+        if (epochDay == NO_DATE) return "";
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        char[] out = {
+            (char) ('0' + date.getMonthValue() / 10), (char) ('0' + date.getMonthValue() % 10), '/',
+            (char) ('0' + date.getDayOfMonth() / 10), (char) ('0' + date.getDayOfMonth() % 10), '/',
+            (char) ('0' + date.getYear() / 1000 % 10), (char) ('0' + date.getYear() / 100 % 10),
+            (char) ('0' + date.getYear() / 10 % 10), (char) ('0' + date.getYear() % 10)
+        };
+        return new String(out);
+    }
+
+    // Formats minutes since midnight as H:mm, the format used in attendance.txt
+    public static String formatTime(int minuteOfDay) {
+        if (minuteOfDay < 0) return "";
+        int minute = minuteOfDay % 60;
+        return (minuteOfDay / 60) + ":" + (char) ('0' + minute / 10) + (char) ('0' + minute % 10);
+    }
+
+    // ======== Cursor ========
+
+    // Forward-only cursor over the punches, avoiding per-row allocation
+    public class Cursor {
+        private int row = -1;
+
+        // Moves to the next punch, skipping deleted rows; returns false when there are no more
+        public boolean next() {
+            do {
+                if (row + 1 >= size) return false;
+                row++;
+            } while (employeeIds[row] == DELETED);
+            return true;
+        }
+
+        public int row() {
+            return row;
+        }
+
+        public int employeeId() {
+            return employeeIds[row];
+        }
+
+        public int epochDay() {
+            return epochDays[row];
+        }
+
+        public short loginMinute() {
+            return loginMinutes[row];
+        }
+
+        public short logoutMinute() {
+            return logoutMinutes[row];
+        }
+    }
+
+    // ======== String[] View ========
+
+    // Row of the index-th live punch
+    private int rowAt(int index) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("Punch " + index + " of " + size());
+        if (deletedCount == 0) return index;
+        if (liveRows == null) {
+            liveRows = new int[size()];
+            int live = 0;
+            for (int row = 0; row < size; row++) {
+                if (employeeIds[row] != DELETED) liveRows[live++] = row;
+            }
+        }
+        return liveRows[index];
+    }
+
+    // Formats rows on demand so callers that work with String[] keep working
+    // List positions count live punches only; deleted rows are skipped, not compacted away
+    private class RowView extends AbstractList<String[]> {
+        @Override
+        public String[] get(int index) {
+            return toRow(rowAt(index));
+        }
+
+        @Override
+        public String[] set(int index, String[] row) {
+            int at = rowAt(index);
+            String[] previous = toRow(at);
+            AttendanceStore.this.set(at, parseEmployeeId(row[0]), parseDate(row[1]),
+                    parseTime(row[2]), parseTime(row[3]));
+            return previous;
+        }
+
+        @Override
+        public void add(int index, String[] row) {
+            if (index != size()) throw new UnsupportedOperationException("Punches can only be appended.");
+            AttendanceStore.this.add(parseEmployeeId(row[0]), parseDate(row[1]),
+                    parseTime(row[2]), parseTime(row[3]));
+            modCount++;
+        }
+
+        @Override
+        public String[] remove(int index) {
+            int at = rowAt(index);
+            String[] previous = toRow(at);
+            AttendanceStore.this.remove(at);
+            modCount++;
+            return previous;
+        }
+
+        @Override
+        public void clear() {
+            AttendanceStore.this.clear();
+            modCount++;
+        }
+
+        @Override
+        public int size() {
+            return AttendanceStore.this.size();
+        }
+    }
+}
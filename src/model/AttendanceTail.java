@@ -0,0 +1,134 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+// Remembers how much of attendance.txt has been consumed, so punches the time
+// clocks append later can be read without reparsing the whole file.
+// The consumed region is fingerprinted (CRC32 of its first and last few KB);
+// if the file shrinks or either checksum changes, it was truncated or rewritten
+// and the caller has to fall back to a full reload.
+final class AttendanceTail {
+
+    // Bytes checksummed at the start and at the end of the consumed region
+    private static final int FINGERPRINT_SIZE = 4096;
+
+    // File size when the tail was captured
+    private final long end;
+    // Start of the last record if it has no separator yet, otherwise equal to end
+    private final long offset;
+    private final long prefixChecksum;
+    private final long anchorChecksum;
+    // {employee #, epoch day, log in, log out} of the unterminated last record, or null
+    private final int[] provisional;
+
+    private AttendanceTail(long end, long offset, long prefixChecksum, long anchorChecksum, int[] provisional) {
+        this.end = end;
+        this.offset = offset;
+        this.prefixChecksum = prefixChecksum;
+        this.anchorChecksum = anchorChecksum;
+        this.provisional = provisional;
+    }
+
+    // Captures the state of a file whose first size bytes are already in the store
+    // The last record may still be cut short by a writer, so it is remembered separately
+    static AttendanceTail capture(FileChannel channel, long size) throws IOException {
+        long offset = MappedAttendanceReader.lastRecordStart(channel, 0, size);
+
+        int[] provisional = null;
+        if (offset < size) {
+            AttendanceStore last = new AttendanceStore();
+            MappedAttendanceReader.read(channel, offset, size, last);
+            if (last.size() == 1) {
+                provisional = new int[]{last.employeeId(0), last.epochDay(0), last.loginMinute(0), last.logoutMinute(0)};
+            }
+        }
+
+        return new AttendanceTail(size, offset,
+                checksum(channel, 0, Math.min(FINGERPRINT_SIZE, offset)),
+                checksum(channel, Math.max(0, offset - FINGERPRINT_SIZE), offset),
+                provisional);
+    }
+
+    // True if the file still starts with the consumed bytes, i.e. it was only appended to
+    boolean isContinuedBy(FileChannel channel) throws IOException {
+        return channel.size() >= end
+                && checksum(channel, 0, Math.min(FINGERPRINT_SIZE, offset)) == prefixChecksum
+                && checksum(channel, Math.max(0, offset - FINGERPRINT_SIZE), offset) == anchorChecksum;
+    }
+
+    // True if nothing was appended since the capture
+    boolean isCurrent(FileChannel channel) throws IOException {
+        return channel.size() == end;
+    }
+
+    // Offset to resume parsing from; the provisional record is parsed again from here
+    long offset() {
+        return offset;
+    }
+
+    // True if the last record had no separator when captured
+    boolean hasProvisional() {
+        return provisional != null;
+    }
+
+    // Epoch day of the provisional record; only meaningful if hasProvisional()
+    int provisionalDay() {
+        return provisional == null ? AttendanceStore.NO_DATE : provisional[1];
+    }
+
+    // True if the punch equals the provisional record captured earlier
+    boolean isProvisional(int employeeId, int epochDay, int loginMinute, int logoutMinute) {
+        return provisional != null && provisional[0] == employeeId && provisional[1] == epochDay
+                && provisional[2] == loginMinute && provisional[3] == logoutMinute;
+    }
+
+    // Removes the provisional record from the store, once a longer version of it was read
+    // Returns false if it could not be found (e.g. it was edited since)
+    boolean removeProvisional(AttendanceStore store) {
+        if (provisional == null) return true;
+        int row = store.find(provisional[0], provisional[1]);
+        if (row == -1 || store.loginMinute(row) != provisional[2] || store.logoutMinute(row) != provisional[3]) {
+            return false;
+        }
+        store.remove(row);
+        return true;
+    }
+
+    // Text form kept in the partition manifest between runs:
+    // "end offset prefix anchor" plus "employee day in out" of the provisional record
+    String save() {
+        String text = end + " " + offset + " " + prefixChecksum + " " + anchorChecksum;
+        if (provisional == null) return text;
+        return text + " " + provisional[0] + " " + provisional[1] + " " + provisional[2] + " " + provisional[3];
+    }
+
+    // Reads back a tail saved with save(), or returns null if the text is not one
+    static AttendanceTail restore(String text) {
+        String[] parts = text.trim().split(" ");
+        if (parts.length != 4 && parts.length != 8) return null;
+        try {
+            int[] provisional = null;
+            if (parts.length == 8) {
+                provisional = new int[]{Integer.parseInt(parts[4]), Integer.parseInt(parts[5]),
+                        Integer.parseInt(parts[6]), Integer.parseInt(parts[7])};
+            }
+            return new AttendanceTail(Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                    Long.parseLong(parts[2]), Long.parseLong(parts[3]), provisional);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long checksum(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (to - from));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, from + buffer.position()) < 0) return -1;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.flip());
+        return crc.getValue();
+    }
+}
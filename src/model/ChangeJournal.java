@@ -0,0 +1,198 @@
+package model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Append-only log of changes made to one of the data files.
+// Each change is stored as [payload length][CRC32 of payload][payload], where the
+// payload is an operation code followed by its string arguments. On replay the
+// log is read up to the first incomplete or corrupt record (e.g. one cut short
+// by a crash) and the damaged tail is truncated away.
+final class ChangeJournal implements ChangeLog {
+
+    // Size of the length + checksum prefix in front of every record
+    private static final int HEADER_SIZE = 8;
+
+    // Upper bound for one record, so a corrupt length cannot trigger a huge allocation
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+
+    private final Path path;
+
+    // Receives one replayed change
+    interface Handler {
+        void apply(byte op, String[] args);
+    }
+
+    ChangeJournal(Path path) {
+        this.path = path;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    // Returns the current journal size in bytes (0 if it does not exist)
+    long size() {
+        try {
+            return Files.exists(path) ? Files.size(path) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // One change, as written by rewrite
+    record Entry(byte op, String... args) {
+    }
+
+    // Appends one change and forces it to disk before returning
+    public synchronized void append(byte op, String... args) throws IOException {
+        ByteBuffer record = encode(op, args);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (record.hasRemaining()) channel.write(record);
+            channel.force(false);
+        }
+    }
+
+    // Replaces the whole journal with the given changes in one atomic step, e.g. with a
+    // shorter list that has the same effect; appends wait until it is done
+    synchronized void rewrite(List<Entry> entries) throws IOException {
+        if (entries.isEmpty()) {
+            reset();
+            return;
+        }
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                for (Entry entry : entries) {
+                    ByteBuffer record = encode(entry.op(), entry.args());
+                    while (record.hasRemaining()) target.write(record);
+                }
+                target.force(false);
+            }
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Lays out one record: length, CRC32 and the payload (op code, argument count, arguments)
+    private static ByteBuffer encode(byte op, String... args) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(payload)) {
+            out.writeByte(op);
+            out.writeShort(args.length);
+            for (String arg : args) {
+                out.writeUTF(arg == null ? "" : arg);
+            }
+        }
+        byte[] bytes = payload.toByteArray();
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + bytes.length);
+        record.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes).flip();
+        return record;
+    }
+
+    // Replays every intact record in order and returns how many were applied
+    // A torn or corrupt tail is cut off so later appends start from a clean record
+    public synchronized int replay(Handler handler) throws IOException {
+        if (!Files.exists(path)) return 0;
+
+        int applied = 0;
+        long validEnd = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+            while (validEnd + HEADER_SIZE <= size) {
+                header.clear();
+                if (!readFully(channel, header, validEnd)) break;
+                header.flip();
+                int length = header.getInt();
+                int checksum = header.getInt();
+                if (length < 3 || length > MAX_RECORD_SIZE || validEnd + HEADER_SIZE + length > size) break;
+
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                if (!readFully(channel, payload, validEnd + HEADER_SIZE)) break;
+                CRC32 crc = new CRC32();
+                crc.update(payload.array());
+                if ((int) crc.getValue() != checksum) break;
+
+                try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload.array()))) {
+                    byte op = in.readByte();
+                    String[] args = new String[in.readShort()];
+                    for (int i = 0; i < args.length; i++) {
+                        args[i] = in.readUTF();
+                    }
+                    handler.apply(op, args);
+                } catch (EOFException e) {
+                    break; // Checksum matched but payload is malformed; treat as end of log
+                }
+
+                applied++;
+                validEnd += HEADER_SIZE + length;
+            }
+
+            if (validEnd < size) {
+                System.out.println("⚠ Discarding " + (size - validEnd) + " damaged bytes at end of " + path.getFileName());
+                channel.truncate(validEnd);
+                channel.force(false);
+            }
+        }
+        return applied;
+    }
+
+    // Empties the journal once its changes are part of the base file
+    synchronized void reset() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    // Drops the first length bytes (changes now part of the base file) and keeps the rest
+    synchronized void discardHead(long length) throws IOException {
+        if (length <= 0) return;
+        long size = size();
+        if (length >= size) {
+            reset();
+            return;
+        }
+
+        // Changes were appended after the snapshot; rewrite the journal with just those
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel source = FileChannel.open(path, StandardOpenOption.READ);
+                 FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                long position = length;
+                while (position < size) {
+                    position += source.transferTo(position, size - position, target);
+                }
+                target.force(false);
+            }
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) return false;
+        }
+        return true;
+    }
+}
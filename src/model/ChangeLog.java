@@ -0,0 +1,13 @@
+package model;
+
+import java.io.IOException;
+
+// Ordered, append-only store of change records (an operation code and its string
+// arguments). ChangeJournal keeps one in a file; JdbcStorageBackend keeps one in a table.
+interface ChangeLog {
+
+    void append(byte op, String... args) throws IOException;
+
+    // Hands every record to the handler in the order it was appended; returns how many there were
+    int replay(ChangeJournal.Handler handler) throws IOException;
+}
@@ -0,0 +1,140 @@
+package model;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Punches laid out by employee: each employee's punches are copied contiguous and
+// sorted by date, with a small directory of month -> offset range into them. The
+// months one employee has punches in, and their punches of a month, are then found
+// without touching anyone else's rows.
+// Kept by an AttendanceStore (see AttendanceStore.clustered()): an employee's layout is
+// built from their row chain on first use and dropped when one of their punches changes,
+// so an edit or an appended punch only costs rebuilding that one employee's layout.
+final class ClusteredAttendance {
+
+    private final AttendanceStore store;
+    // Employee # -> their layout, for the employees looked up since their last change
+    private final Map<Integer, Layout> layouts = new HashMap<>();
+
+    // One employee's punches sorted by date (undated punches first) and their month
+    // directory: year * 12 + month - 1, and the offset of the month's first punch (the
+    // month ends where the next entry, or the punches, end). Never modified, so streams
+    // over it stay valid while the store changes
+    private record Layout(int[] monthKeys, int[] monthOffsets,
+                          int[] epochDays, short[] loginMinutes, short[] logoutMinutes) {
+    }
+
+    ClusteredAttendance(AttendanceStore store) {
+        this.store = store;
+    }
+
+    // Drops the layout of an employee whose punches changed
+    void changed(int employeeId) {
+        layouts.remove(employeeId);
+    }
+
+    // Drops every layout, when the store was replaced or cleared
+    void clear() {
+        layouts.clear();
+    }
+
+    // Months the employee has dated punches in, in order
+    List<YearMonth> months(int employeeId) {
+        List<YearMonth> months = new ArrayList<>();
+        Layout layout = layoutOf(employeeId);
+        if (layout == null) return months;
+        for (int key : layout.monthKeys()) {
+            months.add(YearMonth.of(Math.floorDiv(key, 12), Math.floorMod(key, 12) + 1));
+        }
+        return months;
+    }
+
+    // The employee's punches in the month, in date order
+    Stream<AttendanceRecord> punches(int employeeId, YearMonth month) {
+        Layout layout = layoutOf(employeeId);
+        if (layout == null) return Stream.empty();
+
+        int key = month.getYear() * 12 + month.getMonthValue() - 1;
+        int entry = Arrays.binarySearch(layout.monthKeys(), key);
+        if (entry < 0) return Stream.empty();
+
+        int from = layout.monthOffsets()[entry];
+        int to = entry + 1 < layout.monthKeys().length ? layout.monthOffsets()[entry + 1] : layout.epochDays().length;
+        return IntStream.range(from, to).mapToObj(i -> new AttendanceRecord(employeeId,
+                layout.epochDays()[i], layout.loginMinutes()[i], layout.logoutMinutes()[i]));
+    }
+
+    // Returns the employee's layout, building it from their row chain if needed, or null
+    // if they have no punches
+    private Layout layoutOf(int employeeId) {
+        if (employeeId < 0) return null;
+        Layout layout = layouts.get(employeeId);
+        if (layout == null) {
+            layout = build(store.rowsOf(employeeId));
+            if (layout == null) return null; // Not cached: a punch added later does not drop anything
+            layouts.put(employeeId, layout);
+        }
+        return layout;
+    }
+
+    private Layout build(int[] rows) {
+        if (rows.length == 0) return null;
+
+        // Sort the rows by date, then row (undated punches come first)
+        long[] byDay = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            byDay[i] = ((long) store.epochDay(rows[i]) << 32) | rows[i];
+        }
+        Arrays.sort(byDay);
+
+        int[] monthKeys = new int[4];
+        int[] monthOffsets = new int[4];
+        int months = 0;
+        int[] epochDays = new int[rows.length];
+        short[] loginMinutes = new short[rows.length];
+        short[] logoutMinutes = new short[rows.length];
+
+        int lastMonth = Integer.MIN_VALUE;
+        for (int i = 0; i < byDay.length; i++) {
+            int row = (int) byDay[i];
+            epochDays[i] = store.epochDay(row);
+            loginMinutes[i] = store.loginMinute(row);
+            logoutMinutes[i] = store.logoutMinute(row);
+
+            if (epochDays[i] == AttendanceStore.NO_DATE) continue;
+            int month = monthKey(epochDays[i]);
+            if (month != lastMonth) {
+                if (months == monthKeys.length) {
+                    monthKeys = Arrays.copyOf(monthKeys, months * 2);
+                    monthOffsets = Arrays.copyOf(monthOffsets, months * 2);
+                }
+                monthKeys[months] = month;
+                monthOffsets[months] = i;
+                months++;
+                lastMonth = month;
+            }
+        }
+        return new Layout(Arrays.copyOf(monthKeys, months), Arrays.copyOf(monthOffsets, months),
+                epochDays, loginMinutes, logoutMinutes);
+    }
+
+    // year * 12 + month - 1 of an epoch day, without allocating a LocalDate
+    private static int monthKey(int epochDay) {
+        // Inverse of AttendanceStore.toEpochDay (days from 0000-03-01 in 400-year eras)
+        int shifted = epochDay + 719468;
+        int era = Math.floorDiv(shifted, 146097);
+        int dayOfEra = shifted - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 12 + month - 1;
+    }
+}
@@ -0,0 +1,78 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Dictionary encoding for one low-cardinality employee column (Status, Position, ...).
+// Every distinct value is stored once and numbered; each row slot holds the int code
+// of its value and the row's cell is pointed at the shared String, so 100k rows with
+// a handful of positions keep a handful of strings instead of 100k copies.
+// Equality filters look the value up once and then compare codes.
+final class ColumnDictionary {
+
+    // Returned by codeOf() for a value no row has
+    static final int MISSING = -1;
+
+    private final int column;
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    // Code of the value in each row slot
+    private int[] slots = new int[16];
+    private int size;
+
+    ColumnDictionary(int column) {
+        this.column = column;
+    }
+
+    // Position of the column in an employee row
+    int column() {
+        return column;
+    }
+
+    // Number of distinct values seen
+    int distinctValues() {
+        return values.size();
+    }
+
+    // Records the value at the slot and returns the shared copy of it
+    String encode(String value, int slot) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+
+        if (slot >= slots.length) slots = Arrays.copyOf(slots, Math.max(slots.length * 2, slot + 1));
+        slots[slot] = code;
+        size = Math.max(size, slot + 1);
+        return values.get(code);
+    }
+
+    // Drops the slots from the given one on; called before slots are re-encoded
+    void truncate(int newSize) {
+        size = Math.min(size, newSize);
+    }
+
+    // Code for the value, or MISSING if no row has it
+    int codeOf(String value) {
+        Integer code = codes.get(value);
+        return code == null ? MISSING : code;
+    }
+
+    int codeAt(int slot) {
+        return slots[slot];
+    }
+
+    String decode(int code) {
+        return values.get(code);
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,231 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory index of credentials.txt ("username,password hash" per line, see PasswordHash).
+// The file is read once into a hash map from username to the salted hash of the
+// password, so logins and lookups never touch the disk and can run on any thread.
+// Reading never changes the file: lines from before passwords were hashed still log in
+// (with a warning) until PasswordMigration hashes them in one explicit step.
+// Changes update the index and the file together: the new content is queued on
+// the durable writer, which replaces the file atomically.
+final class CredentialStore {
+
+    private final Path path;
+    private final DurableFileWriter writer;
+
+    // Username -> hash of the password (or the password itself on a line not converted yet);
+    // read without locking and swapped whole on reload
+    private volatile Map<String, String> hashes = new ConcurrentHashMap<>();
+
+    // File lines (kept so unrelated lines survive a rewrite) and where each user's line is.
+    // Guarded by this
+    private final List<String> lines = new ArrayList<>();
+    private final Map<String, Integer> lineOf = new HashMap<>();
+
+    // Version of the file the index was built from, and rewrites not yet on disk
+    private volatile FileStamp stamp;
+    private volatile int pendingWrites;
+    private volatile boolean loaded;
+
+    CredentialStore(Path path, DurableFileWriter writer) {
+        this.path = path;
+        this.writer = writer;
+    }
+
+    // True if the username and password match a stored account
+    boolean authenticate(String username, String password) {
+        ensureLoaded();
+        String expected = hashes.get(username);
+        // Unknown users are hashed too, so timing does not tell them apart
+        return expected == null ? PasswordHash.matchesUnknownUser(password) : PasswordHash.matchesStored(password, expected);
+    }
+
+    boolean exists(String username) {
+        ensureLoaded();
+        return hashes.containsKey(username);
+    }
+
+    // Returns the usernames in file order
+    synchronized List<String> usernames() {
+        ensureLoaded();
+        List<String> users = new ArrayList<>(lineOf.keySet());
+        users.sort((a, b) -> Integer.compare(lineOf.get(a), lineOf.get(b)));
+        return users;
+    }
+
+    // Adds an account; the future completes with false if it exists already or could not be saved
+    // The password is hashed before the lock is taken, as that is slow on purpose
+    CompletableFuture<Boolean> add(String username, String password) {
+        String hash = PasswordHash.hash(password);
+        synchronized (this) {
+            ensureLoaded();
+            if (hashes.containsKey(username)) return CompletableFuture.completedFuture(false);
+
+            lineOf.put(username, lines.size());
+            lines.add(username + "," + hash);
+            hashes.put(username, hash);
+            return save();
+        }
+    }
+
+    // Changes a password; the future completes with false if the user does not exist or it could not be saved
+    CompletableFuture<Boolean> updatePassword(String username, String password) {
+        String hash = PasswordHash.hash(password);
+        synchronized (this) {
+            ensureLoaded();
+            Integer line = lineOf.get(username);
+            if (line == null) return CompletableFuture.completedFuture(false);
+
+            lines.set(line, username + "," + hash);
+            hashes.put(username, hash);
+            return save();
+        }
+    }
+
+    // One-shot upgrade (see PasswordMigration): hashes every password still stored in plain
+    // text and saves the file; returns how many were hashed, or -1 if it could not be saved
+    int hashPlainText() {
+        int hashed = 0;
+        CompletableFuture<Boolean> saved;
+        synchronized (this) {
+            ensureLoaded();
+            for (int i = 0; i < lines.size(); i++) {
+                String[] parts = lines.get(i).trim().split(",");
+                if (parts.length != 2 || PasswordHash.isHash(parts[1].trim())) continue;
+
+                String username = parts[0].trim();
+                String hash = PasswordHash.hash(parts[1].trim());
+                lines.set(i, username + "," + hash);
+                if (lineOf.get(username) == i) hashes.put(username, hash);
+                hashed++;
+            }
+            if (hashed == 0) return 0;
+            saved = save();
+        }
+        // Waited for outside the lock: the writer takes it to snapshot the lines
+        return saved.join() ? hashed : -1;
+    }
+
+    // Returns username -> password hash for every account, in file order
+    synchronized Map<String, String> entries() {
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (String username : usernames()) {
+            entries.put(username, hashes.get(username));
+        }
+        return entries;
+    }
+
+    // Replaces every account with the given username -> password hash pairs; a password
+    // given in plain text (e.g. from an older database) is hashed first
+    synchronized CompletableFuture<Boolean> replaceAll(Map<String, String> entries) {
+        ensureLoaded();
+        lines.clear();
+        lineOf.clear();
+        Map<String, String> replaced = new ConcurrentHashMap<>();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            String hash = PasswordHash.isHash(entry.getValue()) ? entry.getValue() : PasswordHash.hash(entry.getValue());
+            lineOf.put(entry.getKey(), lines.size());
+            lines.add(entry.getKey() + "," + hash);
+            replaced.put(entry.getKey(), hash);
+        }
+        hashes = replaced;
+        return save();
+    }
+
+    // Queues a rewrite of the file from the current lines
+    private CompletableFuture<Boolean> save() {
+        pendingWrites++;
+        CompletableFuture<Boolean> saved = writer.submit(path, this::snapshot);
+        saved.whenComplete((ok, error) -> {
+            synchronized (CredentialStore.this) {
+                pendingWrites--;
+            }
+        });
+        return saved;
+    }
+
+    private synchronized DurableFileWriter.TextContent snapshot() {
+        List<String> content = new ArrayList<>(lines);
+        return new DurableFileWriter.TextContent() {
+            @Override
+            public void writeTo(Writer out) throws IOException {
+                for (String line : content) {
+                    out.write(line);
+                    out.write(System.lineSeparator());
+                }
+            }
+
+            @Override
+            public void committed() {
+                synchronized (CredentialStore.this) {
+                    stamp = FileStamp.of(path.toFile());
+                }
+            }
+        };
+    }
+
+    // Builds the index on first use, and again if the file was edited outside the application
+    private void ensureLoaded() {
+        if (loaded && isCurrent()) return;
+        synchronized (this) {
+            if (!loaded || !isCurrent()) load();
+        }
+    }
+
+    // True if the file is the version the index was built from, or our own rewrite of it is
+    // still on its way (reloading then would drop the change)
+    private boolean isCurrent() {
+        return pendingWrites > 0 || Objects.equals(stamp, FileStamp.of(path.toFile()));
+    }
+
+    private void load() {
+        lines.clear();
+        lineOf.clear();
+        Map<String, String> loadedHashes = new ConcurrentHashMap<>();
+        stamp = FileStamp.of(path.toFile());
+        int plainText = 0;
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(path.toFile(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.trim().split(",");
+                if (parts.length == 2) {
+                    String username = parts[0].trim();
+                    String password = parts[1].trim();
+                    if (!PasswordHash.isHash(password)) plainText++;
+                    // The first line for a user wins, as with the old linear scan
+                    if (lineOf.putIfAbsent(username, lines.size()) == null) {
+                        loadedHashes.put(username, password);
+                    }
+                }
+                lines.add(line);
+            }
+        } catch (FileNotFoundException e) {
+            // No accounts yet; the first add creates the file
+        } catch (IOException e) {
+            System.err.println("Error reading credentials file: " + e.getMessage());
+        }
+        hashes = loadedHashes; // Logins in progress keep using the previous map until now
+        loaded = true;
+
+        if (plainText > 0) {
+            System.out.println("⚠ " + path.getFileName() + ": " + plainText
+                    + " passwords are stored in plain text; run model.PasswordMigration to hash them");
+        }
+    }
+}
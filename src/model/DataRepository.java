@@ -0,0 +1,38 @@
+package model;
+
+import java.sql.SQLException;
+
+// Process-wide home of the loaded data sets.
+// Every panel works with the same storage backend, so the data is loaded once per
+// process and only reloaded when it changes (see ensureEmployeeDataLoaded /
+// ensureAttendanceDataLoaded). The backend is the text files under data/ unless the
+// motorph.storage system property names a JDBC database, e.g.
+//   java -Dmotorph.storage=jdbc:h2:./data/motorph -cp ... (the H2 driver is in src/lib)
+public final class DataRepository {
+
+    // System property selecting the backend: "text" (default) or a JDBC URL
+    public static final String STORAGE_PROPERTY = "motorph.storage";
+
+    private static final StorageBackend SHARED = open(System.getProperty(STORAGE_PROPERTY, "text"));
+
+    private DataRepository() {
+    }
+
+    // Returns the shared backend; call its ensure...Loaded methods before reading data
+    public static StorageBackend getStorage() {
+        return SHARED;
+    }
+
+    // Opens the backend for a location: "text" for the files under data/, or a JDBC URL
+    static StorageBackend open(String location) {
+        if (location.equals("text")) return new FileHandler();
+        if (!location.startsWith("jdbc:")) {
+            throw new IllegalArgumentException("Unknown storage '" + location + "': use \"text\" or a JDBC URL");
+        }
+        try {
+            return new JdbcStorageBackend(location);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot open " + location + ": " + e.getMessage(), e);
+        }
+    }
+}
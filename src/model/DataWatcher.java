@@ -0,0 +1,101 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Watches the data folder and reports when one of the given files was changed by
+// someone else (an editor, another instance of the application, ...).
+// Editors and the atomic replace of DurableFileWriter produce bursts of events, so
+// a change is only reported once the folder has been quiet for a moment.
+final class DataWatcher {
+
+    // How long the folder has to be quiet before a change is reported
+    private static final long QUIET_MILLIS = 250;
+
+    private final Path folder;
+    private final Set<String> fileNames;
+    private final Consumer<String> onChange;
+    private WatchService service;
+
+    // onChange receives the name of each changed file, on the watcher thread
+    DataWatcher(Path folder, Set<String> fileNames, Consumer<String> onChange) {
+        this.folder = folder;
+        this.fileNames = fileNames;
+        this.onChange = onChange;
+    }
+
+    // Starts watching on a daemon thread; returns false if the folder cannot be watched
+    synchronized boolean start() {
+        if (service != null) return true;
+        try {
+            service = FileSystems.getDefault().newWatchService();
+            folder.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            System.out.println("⚠ Cannot watch " + folder + " for outside changes: " + e.getMessage());
+            service = null;
+            return false;
+        }
+
+        Thread thread = new Thread(() -> run(service), "data-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    synchronized void stop() {
+        if (service == null) return;
+        try {
+            service.close();
+        } catch (IOException e) {
+            // Closing only ends the watcher thread
+        }
+        service = null;
+    }
+
+    private void run(WatchService watcher) {
+        try {
+            while (true) {
+                Set<String> changed = new TreeSet<>();
+                collect(watcher.take(), changed);
+
+                // Wait for the burst to end before looking at the files
+                WatchKey more;
+                while ((more = watcher.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    collect(more, changed);
+                }
+
+                for (String name : changed) {
+                    try {
+                        onChange.accept(name);
+                    } catch (RuntimeException e) {
+                        System.out.println("❌ Error reloading " + name + ": " + e.getMessage());
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    // Adds the watched files named by the key's events; an overflow counts as a change to all of them
+    private void collect(WatchKey key, Set<String> changed) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed.addAll(fileNames);
+            } else if (event.context() instanceof Path name && fileNames.contains(name.toString())) {
+                changed.add(name.toString());
+            }
+        }
+        key.reset();
+    }
+}
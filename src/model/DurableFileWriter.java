@@ -0,0 +1,166 @@
+package model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Background writer that replaces whole data files crash-safely.
+// The new content goes to a temp file in the same folder, is forced to disk and
+// is then moved over the original in one atomic step, so a crash leaves either
+// the old or the new file but never a half-written one. Requests for a file that
+// is already waiting in the queue are coalesced into a single write.
+final class DurableFileWriter {
+
+    // Produces the file content; snapshots are taken on the writer thread
+    // Binary content writes to the temp file's channel; text content is a TextContent
+    interface Content {
+        void writeTo(FileChannel channel) throws IOException;
+
+        // Checked right before the new file is moved over the old one; returning false
+        // abandons the write and leaves the old file as it is
+        default boolean targetUnchanged() {
+            return true;
+        }
+
+        // Called once the new file has replaced the old one
+        default void committed() {
+        }
+    }
+
+    // Content written as UTF-8 text, buffered
+    interface TextContent extends Content {
+        void writeTo(Writer out) throws IOException;
+
+        @Override
+        default void writeTo(FileChannel channel) throws IOException {
+            Writer out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), 1 << 16);
+            writeTo(out);
+            out.flush();
+        }
+    }
+
+    // How long a shutdown waits for queued writes to finish
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "file-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Writes queued but not yet started, by target file
+    private final Map<Path, PendingWrite> pending = new HashMap<>();
+
+    private static final class PendingWrite {
+        private Supplier<Content> snapshot;
+        private final CompletableFuture<Boolean> done = new CompletableFuture<>();
+
+        PendingWrite(Supplier<Content> snapshot) {
+            this.snapshot = snapshot;
+        }
+    }
+
+    DurableFileWriter() {
+        // Let queued writes finish when the application exits
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "file-writer-shutdown"));
+    }
+
+    // Queues a replacement of the target file and returns a future that completes
+    // with true once it is durably on disk, or false if the write failed
+    // If a write of the same file is still queued, the two share that one write
+    CompletableFuture<Boolean> submit(Path target, Supplier<Content> snapshot) {
+        synchronized (pending) {
+            PendingWrite write = pending.get(target);
+            if (write != null) {
+                write.snapshot = snapshot; // Latest request wins; its snapshot covers the earlier ones
+                return write.done;
+            }
+
+            PendingWrite queued = new PendingWrite(snapshot);
+            try {
+                executor.execute(() -> run(target, queued));
+            } catch (RejectedExecutionException e) {
+                System.out.println("❌ Cannot write " + target.getFileName() + ": application is shutting down.");
+                return CompletableFuture.completedFuture(false);
+            }
+            pending.put(target, queued);
+            return queued.done;
+        }
+    }
+
+    private void run(Path target, PendingWrite write) {
+        Supplier<Content> snapshot;
+        synchronized (pending) {
+            pending.remove(target); // Later requests now queue a fresh write
+            snapshot = write.snapshot;
+        }
+
+        try {
+            Content content = snapshot.get();
+            replace(target, content);
+            content.committed();
+            System.out.println("✅ " + target.getFileName() + " written successfully.");
+            write.done.complete(true);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("❌ Error writing " + target.getFileName() + ": " + e.getMessage());
+            write.done.complete(false);
+        }
+    }
+
+    // Writes the content to a temp file, forces it to disk and moves it over the target
+    static void replace(Path target, Content content) throws IOException {
+        Path folder = target.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(folder, target.getFileName().toString(), ".tmp");
+        try {
+            // Temp files are created owner-only; keep the permissions the target already had
+            if (Files.exists(target) && Files.getFileStore(target).supportsFileAttributeView(PosixFileAttributeView.class)) {
+                Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+            }
+
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                content.writeTo(channel);
+                channel.force(true);
+            }
+
+            if (!content.targetUnchanged()) {
+                throw new IOException(target.getFileName() + " changed while it was being written; left as it is");
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp); // Only left over if the write or move failed
+        }
+    }
+
+    // Stops accepting work and waits for queued writes to reach the disk
+    void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.out.println("⚠ Timed out waiting for pending file writes.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,30 +1,68 @@
 package model;
 
-// This class represents an Employee with relevant salary details
+import java.time.LocalDate;
+
+// This class represents an Employee with every column of employee.txt.
+// It is built once per loaded or changed row, on first use (see EmployeeSchema), with
+// the amounts and the birthday already parsed, so payroll code never parses strings.
 public class Employee {
 
     // Employee ID (e.g., unique identifier for each employee)
-    private String employeeID;
+    private final String employeeID;
+
+    // Personal details
+    private final String lastName;
+    private final String firstName;
+    private final LocalDate birthday; // Null if the file has no valid date
+    private final String address;
+    private final String phoneNumber;
+
+    // Government ID numbers
+    private final String sssNumber;
+    private final String philhealthNumber;
+    private final String tinNumber;
+    private final String pagibigNumber;
 
-    // Full name of the employee
-    private String name;
+    // Job details
+    private final String status;
+    private final String position;
+    private final String immediateSupervisor;
 
     // Basic monthly salary of the employee
-    private double basicSalary;
+    private final double basicSalary;
+
+    // Monthly allowances
+    private final double riceSubsidy;
+    private final double phoneAllowance;
+    private final double clothingAllowance;
 
     // Semi-monthly salary rate (used if paid twice a month)
-    private double semiMonthlyRate;
+    private final double semiMonthlyRate;
 
     // Hourly rate used for computing pay based on hours worked
-    private double hourlyRate;
+    private final double hourlyRate;
 
-    // Constructor to initialize all attributes of the Employee object
-    public Employee(String employeeID, String name, double basicSalary, double semiMonthlyRate, double hourlyRate) {
-        this.employeeID = employeeID;
-        this.name = name;
-        this.basicSalary = basicSalary;
-        this.semiMonthlyRate = semiMonthlyRate;
-        this.hourlyRate = hourlyRate;
+    // Parses every column of the row through the schema
+    Employee(EmployeeSchema schema, String[] row) {
+        employeeID = schema.text(row, schema.employeeNumber);
+        lastName = schema.text(row, schema.lastName);
+        firstName = schema.text(row, schema.firstName);
+        birthday = schema.date(row, schema.birthday);
+        address = schema.text(row, schema.address);
+        phoneNumber = schema.text(row, schema.phoneNumber);
+        sssNumber = schema.text(row, schema.sssNumber);
+        philhealthNumber = schema.text(row, schema.philhealthNumber);
+        tinNumber = schema.text(row, schema.tinNumber);
+        pagibigNumber = schema.text(row, schema.pagibigNumber);
+        status = schema.text(row, schema.status);
+        position = schema.text(row, schema.position);
+        immediateSupervisor = schema.text(row, schema.immediateSupervisor);
+        basicSalary = schema.amount(row, schema.basicSalary);
+        riceSubsidy = schema.amount(row, schema.riceSubsidy);
+        phoneAllowance = schema.amount(row, schema.phoneAllowance);
+        clothingAllowance = schema.amount(row, schema.clothingAllowance);
+        semiMonthlyRate = schema.amount(row, schema.grossSemiMonthlyRate);
+        hourlyRate = schema.amount(row, schema.hourlyRate);
     }
 
     // Getter method to retrieve employee ID
@@ -32,9 +70,57 @@ public class Employee {
         return employeeID;
     }
 
-    // Getter method to retrieve employee name
+    // Getter method to retrieve employee name ("First Last")
     public String getName() {
-        return name;
+        return firstName + " " + lastName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public LocalDate getBirthday() {
+        return birthday;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public String getSssNumber() {
+        return sssNumber;
+    }
+
+    public String getPhilhealthNumber() {
+        return philhealthNumber;
+    }
+
+    public String getTinNumber() {
+        return tinNumber;
+    }
+
+    public String getPagibigNumber() {
+        return pagibigNumber;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getPosition() {
+        return position;
+    }
+
+    public String getImmediateSupervisor() {
+        return immediateSupervisor;
     }
 
     // Getter method to retrieve the basic salary
@@ -42,6 +128,23 @@ public class Employee {
         return basicSalary;
     }
 
+    public double getRiceSubsidy() {
+        return riceSubsidy;
+    }
+
+    public double getPhoneAllowance() {
+        return phoneAllowance;
+    }
+
+    public double getClothingAllowance() {
+        return clothingAllowance;
+    }
+
+    // Allowances as a Benefits object, for the payroll screens
+    public Benefits getBenefits() {
+        return new Benefits(riceSubsidy, phoneAllowance, clothingAllowance);
+    }
+
     // Getter method to retrieve the semi-monthly rate
     public double getSemiMonthlyRate() {
         return semiMonthlyRate;
@@ -0,0 +1,66 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Rows that differ between two versions of the employee data, matched by Employee #.
+// Updated rows keep their Employee #; a changed Employee # shows up as a delete plus an insert.
+public record EmployeeDiff(List<String[]> inserted, List<String[]> updated, List<String> deleted) {
+
+    static final EmployeeDiff NONE = new EmployeeDiff(List.of(), List.of(), List.of());
+
+    // Receives the differences after the employee data changed outside this process
+    // Called on a background thread; Swing code should hand the work to the EDT
+    public interface Listener {
+        void employeesChanged(EmployeeDiff diff);
+    }
+
+    public boolean isEmpty() {
+        return inserted.isEmpty() && updated.isEmpty() && deleted.isEmpty();
+    }
+
+    // Compares the rows by the Employee # in the given column; returns null if either
+    // version holds an Employee # twice, since rows cannot be matched reliably then
+    static EmployeeDiff between(List<String[]> before, List<String[]> after, int idColumn) {
+        Map<String, String[]> old = byId(before, idColumn);
+        Map<String, String[]> current = byId(after, idColumn);
+        if (old == null || current == null) return null;
+
+        List<String[]> inserted = new ArrayList<>();
+        List<String[]> updated = new ArrayList<>();
+        for (String[] row : after) {
+            String[] previous = old.get(row[idColumn]);
+            if (previous == null) {
+                inserted.add(row);
+            } else if (!Arrays.equals(previous, row)) {
+                updated.add(row);
+            }
+        }
+        List<String> deleted = new ArrayList<>();
+        for (String id : old.keySet()) {
+            if (!current.containsKey(id)) deleted.add(id);
+        }
+        return new EmployeeDiff(inserted, updated, deleted);
+    }
+
+    // Reports every old row deleted and every new row inserted, for changes that cannot be matched row by row
+    static EmployeeDiff replaced(List<String[]> before, List<String[]> after, int idColumn) {
+        List<String> deleted = new ArrayList<>();
+        for (String[] row : before) {
+            deleted.add(row[idColumn]);
+        }
+        return new EmployeeDiff(new ArrayList<>(after), List.of(), deleted);
+    }
+
+    // Returns the rows by Employee #, or null if an Employee # occurs twice
+    private static Map<String, String[]> byId(List<String[]> rows, int idColumn) {
+        Map<String, String[]> map = new HashMap<>(rows.size() * 2);
+        for (String[] row : rows) {
+            if (map.put(row[idColumn], row) != null) return null;
+        }
+        return map;
+    }
+}
@@ -0,0 +1,235 @@
+package model;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Every change made to the employees, so their state at any past instant can be
+// rebuilt (e.g. an employee's Hourly Rate when an old payroll period was paid).
+// An update is stored as a compact delta {Employee #, time, column, old, new, ...};
+// the full row is stored as a checkpoint when an employee is added, before its first
+// recorded change (the state it had when history began) and again after every
+// CHECKPOINT_INTERVAL deltas. An as-of lookup starts from the last checkpoint at or
+// before the instant and applies at most CHECKPOINT_INTERVAL deltas, never the whole
+// history. The log is read once, on first use, into a per-employee timeline.
+final class EmployeeHistory {
+
+    private static final byte OP_CHECKPOINT = 1; // Employee #, time, column, value, ...
+    private static final byte OP_CHANGE = 2;     // Employee #, time, column, old, new, ...
+    private static final byte OP_DELETE = 3;     // Employee #, time
+
+    // Deltas after which the full row is stored again
+    static final int CHECKPOINT_INTERVAL = 16;
+
+    // Time of the checkpoint holding the state an employee had before history began
+    private static final long BEFORE_HISTORY = Long.MIN_VALUE;
+
+    private final ChangeLog log;
+    private Map<String, Timeline> timelines; // Null until the log has been read
+
+    EmployeeHistory(ChangeLog log) {
+        this.log = log;
+    }
+
+    // ======== Recording ========
+
+    // Records an added employee
+    synchronized void recordInsert(List<String> headers, String employeeId, String[] row) {
+        Timeline timeline = timeline(employeeId);
+        append(timeline, OP_CHECKPOINT, employeeId, timeline.nextTime(), pairs(headers, row));
+    }
+
+    // Records the columns that differ between the row before and after an update
+    synchronized void recordUpdate(List<String> headers, String employeeId, String[] before, String[] after) {
+        List<String> delta = new ArrayList<>();
+        for (int i = 0; i < headers.size(); i++) {
+            String old = i < before.length ? before[i] : "";
+            String now = i < after.length ? after[i] : "";
+            if (!Objects.equals(old, now)) {
+                delta.add(headers.get(i));
+                delta.add(old);
+                delta.add(now);
+            }
+        }
+        if (delta.isEmpty()) return;
+
+        Timeline timeline = timeline(employeeId);
+        recordBaseline(timeline, headers, employeeId, before);
+        long time = timeline.nextTime();
+        append(timeline, OP_CHANGE, employeeId, time, delta.toArray(String[]::new));
+        if (timeline.deltasSinceCheckpoint() >= CHECKPOINT_INTERVAL) {
+            append(timeline, OP_CHECKPOINT, employeeId, time, pairs(headers, after));
+        }
+    }
+
+    // Records a removed employee; the row is its last state
+    synchronized void recordDelete(List<String> headers, String employeeId, String[] row) {
+        Timeline timeline = timeline(employeeId);
+        recordBaseline(timeline, headers, employeeId, row);
+        append(timeline, OP_DELETE, employeeId, timeline.nextTime());
+    }
+
+    // The first change of an employee that predates the history also stores its prior state
+    private void recordBaseline(Timeline timeline, List<String> headers, String employeeId, String[] before) {
+        if (timeline.isEmpty()) append(timeline, OP_CHECKPOINT, employeeId, BEFORE_HISTORY, pairs(headers, before));
+    }
+
+    private void append(Timeline timeline, byte op, String employeeId, long time, String... values) {
+        String[] args = new String[2 + values.length];
+        args[0] = employeeId;
+        args[1] = Long.toString(time);
+        System.arraycopy(values, 0, args, 2, values.length);
+        try {
+            log.append(op, args);
+        } catch (IOException e) {
+            System.out.println("❌ Error recording employee history: " + e.getMessage());
+        }
+        timeline.add(op, time, values);
+    }
+
+    // ======== Queries ========
+
+    // Returns the employee's columns (name -> value) as they were at the instant, or null
+    // if the employee did not exist then. current is the row now (null if there is none);
+    // an employee without recorded changes has always looked like that.
+    synchronized Map<String, String> asOf(String employeeId, Instant instant, List<String> headers, String[] current) {
+        Timeline timeline = loaded().get(employeeId);
+        if (timeline == null || timeline.isEmpty()) {
+            return current == null ? null : toMap(pairs(headers, current));
+        }
+        return timeline.stateAt(instant.toEpochMilli());
+    }
+
+    // ======== Loading ========
+
+    private Timeline timeline(String employeeId) {
+        return loaded().computeIfAbsent(employeeId, id -> new Timeline());
+    }
+
+    private Map<String, Timeline> loaded() {
+        if (timelines == null) {
+            timelines = new HashMap<>();
+            try {
+                int records = log.replay((op, args) -> {
+                    if (args.length < 2) return;
+                    String[] values = new String[args.length - 2];
+                    System.arraycopy(args, 2, values, 0, values.length);
+                    try {
+                        timelines.computeIfAbsent(args[0], id -> new Timeline()).add(op, Long.parseLong(args[1]), values);
+                    } catch (NumberFormatException e) {
+                        System.out.println("⚠ Ignoring employee history entry for " + args[0]);
+                    }
+                });
+                if (records > 0) System.out.println("✅ employee history loaded: " + records + " changes");
+            } catch (IOException e) {
+                System.out.println("❌ Error reading employee history: " + e.getMessage());
+            }
+        }
+        return timelines;
+    }
+
+    // Interleaves column names and values: {column, value, column, value, ...}
+    private static String[] pairs(List<String> headers, String[] row) {
+        String[] pairs = new String[headers.size() * 2];
+        for (int i = 0; i < headers.size(); i++) {
+            pairs[2 * i] = headers.get(i);
+            pairs[2 * i + 1] = i < row.length ? row[i] : "";
+        }
+        return pairs;
+    }
+
+    private static Map<String, String> toMap(String[] pairs) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < pairs.length; i += 2) {
+            columns.put(pairs[i], pairs[i + 1]);
+        }
+        return columns;
+    }
+
+    // ======== Timeline ========
+
+    // One employee's records in time order, with the positions of its checkpoints
+    private static final class Timeline {
+        private final List<Long> times = new ArrayList<>();
+        private final List<Byte> ops = new ArrayList<>();
+        private final List<String[]> values = new ArrayList<>();
+        private final List<Integer> checkpoints = new ArrayList<>();
+
+        boolean isEmpty() {
+            return times.isEmpty();
+        }
+
+        void add(byte op, long time, String[] recordValues) {
+            if (op == OP_CHECKPOINT) checkpoints.add(times.size());
+            times.add(time);
+            ops.add(op);
+            values.add(recordValues);
+        }
+
+        // Now, or just after the last record, so records stay in time order
+        long nextTime() {
+            long now = System.currentTimeMillis();
+            return times.isEmpty() ? now : Math.max(now, times.get(times.size() - 1));
+        }
+
+        int deltasSinceCheckpoint() {
+            return checkpoints.isEmpty() ? times.size() : times.size() - 1 - checkpoints.get(checkpoints.size() - 1);
+        }
+
+        // Starts from the last checkpoint at or before the time and applies the records after it
+        Map<String, String> stateAt(long time) {
+            int last = lastAtOrBefore(time);
+            if (last == -1) return null; // Added after that time
+
+            int checkpoint = -1;
+            int low = 0, high = checkpoints.size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (checkpoints.get(mid) <= last) {
+                    checkpoint = checkpoints.get(mid);
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            if (checkpoint == -1) return null;
+
+            Map<String, String> state = toMap(values.get(checkpoint));
+            for (int i = checkpoint + 1; i <= last; i++) {
+                String[] record = values.get(i);
+                switch (ops.get(i)) {
+                    case OP_CHANGE -> {
+                        if (state == null) break;
+                        for (int j = 0; j + 2 < record.length; j += 3) {
+                            state.put(record[j], record[j + 2]);
+                        }
+                    }
+                    case OP_DELETE -> state = null;
+                    case OP_CHECKPOINT -> state = toMap(record);
+                    default -> { }
+                }
+            }
+            return state;
+        }
+
+        // Index of the last record at or before the time, or -1
+        private int lastAtOrBefore(long time) {
+            int low = 0, high = times.size() - 1, found = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (times.get(mid) <= time) {
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return found;
+        }
+    }
+}
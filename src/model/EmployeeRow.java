@@ -0,0 +1,89 @@
+package model;
+
+// One employee record that keeps its raw employee.txt line and decodes columns
+// only when they are asked for. Loading keeps the lines as they are; the primary
+// index and the dictionary columns decode their own columns, a projected listing
+// decodes the displayed ones, and the full String[] is only built for rows that are
+// opened, edited or written. The array handed out by cells() stays the row's
+// identity, so in-place edits of it are seen by every holder, as before.
+final class EmployeeRow {
+
+    private static final char SEPARATOR = ';';
+
+    // Raw line; null once every column has been decoded
+    private String line;
+    // Decoded columns; null entries have not been decoded yet
+    private final String[] cells;
+
+    // A row read from employee.txt, with the number of columns in the headers
+    EmployeeRow(String line, int width) {
+        this.line = line;
+        this.cells = new String[width];
+    }
+
+    // A row whose columns are already known (appended or replayed rows)
+    EmployeeRow(String[] cells) {
+        this.cells = cells;
+    }
+
+    // Decodes one column; columns past the end of the line read as ""
+    synchronized String cell(int column) {
+        if (column >= cells.length) return "";
+        String value = cells[column];
+        if (value == null) {
+            value = LineTokenizer.field(line, SEPARATOR, column);
+            cells[column] = value;
+        }
+        return value;
+    }
+
+    // Decodes the given columns in one pass over the line and returns their values in that order
+    synchronized String[] cells(int[] columns) {
+        String[] values = new String[columns.length];
+        if (line != null) LineTokenizer.fields(line, SEPARATOR, columns, cells);
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = columns[i] < cells.length ? cells[columns[i]] : "";
+        }
+        return values;
+    }
+
+    // Replaces a column with an equal value, e.g. the shared copy from a ColumnDictionary
+    synchronized void share(int column, String value) {
+        if (column < cells.length) cells[column] = value;
+    }
+
+    // Decodes every column and returns the row itself (not a copy)
+    synchronized String[] cells() {
+        if (line != null) {
+            decodeInto(cells);
+            line = null;
+        }
+        return cells;
+    }
+
+    // A copy of every column, decoded without keeping the result if the row is still raw
+    synchronized String[] copyCells() {
+        if (line == null) return cells.clone();
+        String[] copy = cells.clone();
+        decodeInto(copy);
+        return copy;
+    }
+
+    // True if the row is still exactly this raw line (never decoded in full, so never edited)
+    synchronized boolean isLine(String candidate) {
+        return line != null && line.equals(candidate);
+    }
+
+    synchronized boolean isDecoded() {
+        return line == null;
+    }
+
+    // Fills the columns of the target that are still null from the raw line
+    private void decodeInto(String[] target) {
+        LineTokenizer tokenizer = new LineTokenizer(SEPARATOR);
+        int count = tokenizer.tokenize(line);
+        for (int i = 0; i < target.length; i++) {
+            if (target[i] == null) target[i] = i < count ? tokenizer.field(i) : "";
+        }
+    }
+}
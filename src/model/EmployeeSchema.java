@@ -0,0 +1,99 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+// Positions of the employee.txt columns, resolved once from the header row, so rows
+// are read by name instead of by magic index or a header lookup per use.
+// A column missing from the headers resolves to -1 and reads as empty (or zero).
+public final class EmployeeSchema {
+
+    // Birthday format used in employee.txt (e.g. 10/11/1983)
+    private static final DateTimeFormatter BIRTHDAY_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    // Schema for the standard column order of FileHandler.EMPLOYEE_HEADERS
+    static final EmployeeSchema STANDARD = of(List.of(FileHandler.EMPLOYEE_HEADERS));
+
+    final int employeeNumber;
+    final int lastName;
+    final int firstName;
+    final int birthday;
+    final int address;
+    final int phoneNumber;
+    final int sssNumber;
+    final int philhealthNumber;
+    final int tinNumber;
+    final int pagibigNumber;
+    final int status;
+    final int position;
+    final int immediateSupervisor;
+    final int basicSalary;
+    final int riceSubsidy;
+    final int phoneAllowance;
+    final int clothingAllowance;
+    final int grossSemiMonthlyRate;
+    final int hourlyRate;
+
+    private EmployeeSchema(List<String> headers) {
+        employeeNumber = headers.indexOf("Employee #");
+        lastName = headers.indexOf("Last Name");
+        firstName = headers.indexOf("First Name");
+        birthday = headers.indexOf("Birthday");
+        address = headers.indexOf("Address");
+        phoneNumber = headers.indexOf("Phone Number");
+        sssNumber = headers.indexOf("SSS #");
+        philhealthNumber = headers.indexOf("Philhealth #");
+        tinNumber = headers.indexOf("TIN #");
+        pagibigNumber = headers.indexOf("Pag-ibig #");
+        status = headers.indexOf("Status");
+        position = headers.indexOf("Position");
+        immediateSupervisor = headers.indexOf("Immediate Supervisor");
+        basicSalary = headers.indexOf("Basic Salary");
+        riceSubsidy = headers.indexOf("Rice Subsidy");
+        phoneAllowance = headers.indexOf("Phone Allowance");
+        clothingAllowance = headers.indexOf("Clothing Allowance");
+        grossSemiMonthlyRate = headers.indexOf("Gross Semi-monthly Rate");
+        hourlyRate = headers.indexOf("Hourly Rate");
+    }
+
+    // Resolves the column positions from the header row
+    public static EmployeeSchema of(List<String> headers) {
+        return new EmployeeSchema(headers);
+    }
+
+    // Parses a row into a typed employee; null rows give null
+    public Employee toEmployee(String[] row) {
+        return row == null ? null : new Employee(this, row);
+    }
+
+    // ======== Cell Readers ========
+
+    String text(String[] row, int column) {
+        return column >= 0 && column < row.length && row[column] != null ? row[column].trim() : "";
+    }
+
+    // Reads amounts such as "90,000" or "\"1,500\""; blanks and bad values read as 0
+    double amount(String[] row, int column) {
+        String value = text(row, column).replace("\"", "").replace(",", "");
+        if (value.isEmpty()) return 0.0;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Failed to parse double: " + value);
+            return 0.0;
+        }
+    }
+
+    // Reads a MM/dd/yyyy date, or null if the cell is blank or not a date
+    LocalDate date(String[] row, int column) {
+        String value = text(row, column);
+        if (value.isEmpty()) return null;
+        try {
+            return LocalDate.parse(value, BIRTHDAY_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
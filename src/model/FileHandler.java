@@ -4,71 +4,293 @@ package model;
 // Used for reading and writing CSV (Comma-Separated Values) files
 import com.opencsv.*;
 
-// Imports specific exception class from OpenCSV
-// Thrown when a CSV file contains invalid or unreadable data
-import com.opencsv.exceptions.CsvValidationException;
-
 // Imports I/O classes for reading from and writing to files
 // Includes FileReader, FileWriter, BufferedReader, etc.
 import java.io.*;
 
+// Imports NIO classes used to locate the change journals and to read attendance.txt
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Imports the month type attendance partitions are keyed by, the instant history is queried at
+// and the dates attendance ranges are given in
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
 // Imports utility classes from the Java Collections Framework
 // Includes ArrayList, HashMap, List, Set, etc., commonly used for storing and manipulating data
 import java.util.*;
 
-public class FileHandler {
+// Imports the future type used to report background writes back to the caller
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+// Imports the stream types used to query attendance without loading it all
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+// Text-file implementation of the storage backend: employee.txt, attendance.txt and
+// credentials.txt under data/ (or the folder given), with edits journaled next to them
+public class FileHandler implements StorageBackend {
 
     // ======== Fields and Constants ========
+    // Columns of employee.txt, in file order
+    static final String[] EMPLOYEE_HEADERS = {
+            "Employee #", "Last Name", "First Name", "Birthday", "Address", "Phone Number",
+            "SSS #", "Philhealth #", "TIN #", "Pag-ibig #", "Status", "Position",
+            "Immediate Supervisor", "Basic Salary", "Rice Subsidy", "Phone Allowance",
+            "Clothing Allowance", "Gross Semi-monthly Rate", "Hourly Rate"
+    };
+
     // Folder path where the employee and attendance files are stored
-    private final String folderPath = "data";
-    private final String credentialsFilePath = "data/credentials.txt";
+    private final String folderPath;
+    private final String credentialsFilePath;
+
 
     // Storage for headers and data rows of employee records
     private final List<String> employeeHeaders = new ArrayList<>();
-    private final List<String[]> employeeData = new ArrayList<>();
+    // Rows keep their raw line and decode columns on first access (see EmployeeRow);
+    // employeeData is the same rows as String[], decoding a row fully when it is fetched
+    // and skipping deleted rows that have not been purged yet. It is only read under the
+    // lock; callers outside get copies (getEmployeeData, getEmployeeById)
+    private final List<EmployeeRow> employeeRows = new ArrayList<>();
+    private final List<String[]> employeeData = new AbstractList<>() {
+        @Override
+        public String[] get(int index) {
+            return employeeRows.get(liveSlot(index)).cells();
+        }
+
+        @Override
+        public int size() {
+            return employeeRows.size() - deletedEmployeeCount;
+        }
+    };
+
+    // Slots of deleted employees (tombstones): out of the index and skipped by every listing,
+    // so a delete marks one bit; the rows are removed in one batch by purgeDeletedEmployees
+    private final BitSet deletedEmployeeSlots = new BitSet();
+    private int deletedEmployeeCount;
+    // Rank table for deletedEmployeeSlots: live rows before each 64-slot word, so a
+    // position in employeeData finds its slot by binary search; null until the first
+    // read after a delete
+    private long[] deletedWords;
+    private int[] liveBeforeWord;
+    private boolean purgeScheduled;
+    // Delay between the first delete and the purge, so a run of deletes shifts the rows once
+    private static final long PURGE_DELAY_MS = 2000;
+
+    // Primary index: Employee # -> position of the row in employeeData
+    private final IntIntHashMap employeeIndex = new IntIntHashMap();
+    // Column holding the Employee #, resolved once when the headers are read
+    private int employeeIdColumn = 0;
+    // True once two rows with the same Employee # were seen; only then does a delete look for the others
+    private boolean duplicateEmployeeIds;
+
+    // Column positions by name, and the typed employees parsed on first request (same slots as employeeData)
+    private EmployeeSchema employeeSchema = EmployeeSchema.STANDARD;
+    private final List<Employee> employeeRecords = new ArrayList<>();
+
+    // Columns with few distinct values, kept dictionary-encoded (see ColumnDictionary)
+    private static final String[] DICTIONARY_COLUMNS = {"Status", "Position", "Immediate Supervisor"};
+    private final Map<Integer, ColumnDictionary> dictionaries = new HashMap<>();
+    // Unique indexes on the SSS, PhilHealth, TIN and Pag-IBIG numbers of the live rows
+    private GovernmentIdIndex governmentIds = new GovernmentIdIndex(List.of(EMPLOYEE_HEADERS), 0);
+    // Columns decoded while loading: the Employee #, the dictionary and the government ID columns
+    private int[] indexedColumns = {0};
 
     // Storage for headers and data rows of attendance records
+    // Punches are held in primitive columns; attendanceData is a String[] view over them
     private final List<String> attendanceHeaders = new ArrayList<>();
-    private final List<String[]> attendanceData = new ArrayList<>();
+    private final AttendanceStore attendanceStore = new AttendanceStore();
+    private final List<String[]> attendanceData = attendanceStore.asRows();
+
+    // Size and modification time of each file as last loaded or written here,
+    // so a file is only reparsed when it actually changed on disk
+    private FileStamp employeeStamp;
+    private FileStamp attendanceStamp;
+    // How many times each file was read in full, so tests can check that it is parsed once
+    private int employeeLoads;
+    private int attendanceLoads;
+
+    // How far attendance.txt has been read, so appended punches can be read on their own
+    private AttendanceTail attendanceTail;
 
     // File paths
-    private final String EMPLOYEE_FILE = folderPath + "/employee.txt";
-    private final String ATTENDANCE_FILE = folderPath + "/attendance.txt";
+    private final String EMPLOYEE_FILE;
+    private final String ATTENDANCE_FILE;
+    // Parsed binary copy of attendance.txt, rebuilt whenever the text file changes
+    private final Path ATTENDANCE_SEGMENT;
+
+    // Monthly attendance files that hold the punches once migrated (see AttendancePartitionMigration);
+    // attendance.txt is then only read for what the clocks appended, which is moved into them
+    private final AttendancePartitions partitions;
+    // True while attendanceStore holds the partitions rather than attendance.txt
+    private boolean partitioned;
+
+    // ======== Change Journals ========
+    // Edits are appended to a journal instead of rewriting the whole data file;
+    // the journal is replayed on load and folded back into the file once it grows
+    private static final byte OP_APPEND = 1;
+    private static final byte OP_UPDATE = 2;
+    private static final byte OP_DELETE = 3;
+    // Attendance journal only: every punch of one employee
+    private static final byte OP_DELETE_EMPLOYEE = 4;
+    // Attendance journal only: the employee's punches on one day are exactly the ones given
+    // ({employee #, date, log in, log out, log in, log out, ...}), whatever the file holds
+    private static final byte OP_SET_DAY = 5;
+
+    // Journal size (bytes) after which it is compacted into the base file
+    private static final long COMPACTION_THRESHOLD = 256 * 1024;
+    // Size (bytes) of attendance.journal after compaction past which it is folded into
+    // monthly partitions (see foldAttendanceJournal)
+    private static final long ATTENDANCE_FOLD_THRESHOLD = 4L * 1024 * 1024;
+
+    // Single background thread shared by all handlers for full-file writes
+    private static final DurableFileWriter WRITER = new DurableFileWriter();
+
+    // Logins are checked against this index instead of rescanning credentials.txt
+    private final CredentialStore credentials;
+
+    private final ChangeJournal employeeJournal;
+    private final ChangeJournal attendanceJournal;
+    private boolean journaling = true;
+
+    // attendance.txt belongs to the time clocks and is never rewritten here, so attendance
+    // edits cannot be folded into it. The journal is compacted by rewriting the journal
+    // itself: one OP_DELETE_EMPLOYEE per employee whose punches were deleted and one
+    // OP_SET_DAY per (employee #, day) edited, taken from memory. That still grows with every
+    // day ever edited, so once it passes ATTENDANCE_FOLD_THRESHOLD the attendance is moved
+    // into monthly partitions, which are rewritten on each edit and need no journal
+    private final Set<Integer> journaledEmployees = new HashSet<>();
+    private final Set<Long> journaledDays = new HashSet<>();
+    // Journal size after the last compaction; the next one waits until it grew by the threshold
+    private long compactedAttendanceJournal;
+    // True while the journal is being folded into partitions on a background thread
+    private boolean foldingAttendanceJournal;
+
+    // Every employee change with its time, for as-of lookups; never compacted away
+    private final EmployeeHistory history;
+
+    // ======== Outside Changes ========
+    // Panels that want single-row updates when employee.txt is edited outside the application
+    private final List<EmployeeDiff.Listener> employeeListeners = new CopyOnWriteArrayList<>();
+    private final DataWatcher watcher;
+    // Rewrites of employee.txt not yet on disk; their events are our own and must not trigger a reload
+    private int pendingEmployeeWrites;
+
+    // ======== Constructors ========
+
+    // Works on the files under data/ in the working directory
+    public FileHandler() {
+        this(Path.of("data"));
+    }
+
+    // Works on the files in the given folder instead, e.g. a copy of data/
+    public FileHandler(Path folder) {
+        folderPath = folder.toString();
+        credentialsFilePath = folderPath + "/credentials.txt";
+        EMPLOYEE_FILE = folderPath + "/employee.txt";
+        ATTENDANCE_FILE = folderPath + "/attendance.txt";
+        ATTENDANCE_SEGMENT = Path.of(folderPath, "attendance.seg");
+        partitions = new AttendancePartitions(Path.of(folderPath, "attendance"));
+        credentials = new CredentialStore(Path.of(credentialsFilePath), WRITER);
+        employeeJournal = new ChangeJournal(Path.of(folderPath, "employee.journal"));
+        attendanceJournal = new ChangeJournal(Path.of(folderPath, "attendance.journal"));
+        history = new EmployeeHistory(new ChangeJournal(Path.of(folderPath, "employee.history")));
+        watcher = new DataWatcher(Path.of(folderPath), Set.of("employee.txt"), this::fileChanged);
+    }
 
     // ======== Read Methods ========
 
+    // Loads employee.txt unless the copy in memory is already current; returns true if it was (re)read
+    public synchronized boolean ensureEmployeeDataLoaded() {
+        FileStamp current = FileStamp.of(new File(EMPLOYEE_FILE));
+        if (current != null && current.equals(employeeStamp)) return false;
+        readEmployeeFile();
+        return true;
+    }
+
+    // Loads attendance.txt unless the copy in memory is already current; returns true if it was (re)read
+    public synchronized boolean ensureAttendanceDataLoaded() {
+        if (partitions.exists()) {
+            if (!partitioned) {
+                readAttendanceFile();
+                return true;
+            }
+            int routed = routeAttendanceInbox();
+            return reloadChangedPartitions() > 0 || routed > 0;
+        }
+
+        FileStamp current = FileStamp.of(new File(ATTENDANCE_FILE));
+        if (current != null && current.equals(attendanceStamp)) return false;
+        if (attendanceTail != null) {
+            pollAttendanceFile(); // Usually the clocks only appended; falls back to a full reload
+        } else {
+            readAttendanceFile();
+        }
+        return true;
+    }
+
+    // Number of times employee.txt was read in full
+    synchronized int employeeLoads() {
+        return employeeLoads;
+    }
+
+    // Number of times the attendance data was read in full (not counting appended punches)
+    synchronized int attendanceLoads() {
+        return attendanceLoads;
+    }
+
     // Reads and parses the employee file, storing headers and data
-    public void readEmployeeFile() {
+    public synchronized void readEmployeeFile() {
         File file = new File(EMPLOYEE_FILE);
         if (!file.exists()) {
             System.out.println("❌ employee.txt not found.");
             return;
         }
 
+        // Stamp before reading, so a change made while parsing triggers another reload
+        employeeStamp = FileStamp.of(file);
+        employeeLoads++;
         employeeHeaders.clear();
-        employeeData.clear();
+        employeeRows.clear();
+        employeeIndex.clear();
+        employeeRecords.clear();
+        clearDeletedEmployees();
 
         try (BufferedReader br = new BufferedReader(new FileReader(file))) {
             String line;
             boolean isFirstLine = true;
+            LineTokenizer tokenizer = new LineTokenizer(';');
 
             while ((line = br.readLine()) != null) {
                 if (line.trim().isEmpty()) continue;
 
-                // Split line by semicolon, accounting for quoted strings
-                String[] fields = line.split("(?=(?:[^\"]*\"[^\"]*\")*[^\"]*)\\;");
-                for (int i = 0; i < fields.length; i++) {
-                    fields[i] = fields[i].replaceAll("^\"|\"$", "").trim(); // Remove outer quotes
-                }
-
                 if (isFirstLine) {
-                    employeeHeaders.addAll(Arrays.asList(fields));
+                    // Split line by semicolon in a single pass, accounting for quoted strings
+                    tokenizer.tokenize(line);
+                    employeeHeaders.addAll(Arrays.asList(tokenizer.toArray())); // Outer quotes already removed and trimmed
+                    employeeIdColumn = Math.max(employeeHeaders.indexOf("Employee #"), 0);
+                    resolveEmployeeColumns();
                     isFirstLine = false;
                 } else {
-                    fields = adjustRowLength(fields, employeeHeaders.size()); // Normalize row length
-                    employeeData.add(fields);
+                    addEmployeeLine(line);
                 }
             }
+            if (governmentIds.sharedCount() > 0) {
+                System.out.println("⚠ employee.txt: " + governmentIds.sharedCount()
+                        + " government ID numbers are held by more than one employee");
+            }
+
+            // Re-apply edits that have not been compacted into employee.txt yet
+            int replayed = employeeJournal.replay(this::applyEmployeeChange);
+            if (replayed > 0) {
+                System.out.println("✅ employee.journal replayed: " + replayed + " changes");
+            }
 
             System.out.println("✅ employee.txt loaded: " + employeeData.size() + " rows");
 
@@ -77,325 +299,1738 @@ public class FileHandler {
         }
     }
     
+    // Checks a login against the cached credential index; safe to call off the EDT
     public boolean authenticateUser(String username, String password) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(credentialsFilePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.trim().split(",");
-                if (parts.length == 2) {
-                    String storedUsername = parts[0].trim();
-                    String storedPassword = parts[1].trim();
-
-                    if (storedUsername.equals(username) && storedPassword.equals(password)) {
-                        return true; // Match found
-                    }
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("Error reading credentials file: " + e.getMessage());
-        }
-
-        return false; // No match
+        return credentials.authenticate(username, password);
     }
 
 
-    // Reads and parses the attendance file using OpenCSV
-    public void readAttendanceFile() {
+    // Reads the attendance file by memory-mapping it and decoding each punch
+    // straight into the attendance store (handles \r, \n and \r\n record separators)
+    public synchronized void readAttendanceFile() {
+        if (partitions.exists()) {
+            readAttendancePartitions();
+            return;
+        }
+        partitioned = false;
+
         File file = new File(ATTENDANCE_FILE);
         if (!file.exists()) {
             System.out.println("❌ attendance.txt not found.");
             return;
         }
 
+        attendanceStamp = FileStamp.of(file);
+        attendanceLoads++;
         attendanceHeaders.clear();
-        attendanceData.clear();
-
-        try (CSVReader reader = new CSVReaderBuilder(new FileReader(file))
-                .withCSVParser(new CSVParserBuilder().withSeparator(',').build())
-                .build()) {
-
-            String[] line;
-            while ((line = reader.readNext()) != null) {
-                if (line.length == 0 || line[0].trim().isEmpty()) continue;
-                attendanceData.add(line);
+        attendanceStore.clear();
+        attendanceTail = null;
+        clearJournaledAttendance();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            // The segment is only trusted for the exact file version stamped above
+            boolean stampMatches = attendanceStamp.size() == size;
+
+            if (stampMatches && loadAttendanceSegment(size, attendanceStamp.lastModified())) {
+                System.out.println("✅ attendance.seg mapped: no parsing needed");
+            } else {
+                int skipped = MappedAttendanceReader.readParallel(channel, 0, size, attendanceStore);
+                if (skipped > 0) {
+                    System.out.println("⚠ " + skipped + " attendance rows without a numeric Employee # are kept as they are");
+                }
+                // Save the parsed punches so the next start can skip parsing; the segment
+                // only holds punches, so a file with unreadable lines is parsed every time
+                if (stampMatches && skipped == 0) {
+                    AttendanceStore parsed = attendanceStore.copy();
+                    long modified = attendanceStamp.lastModified();
+                    WRITER.submit(ATTENDANCE_SEGMENT, () -> AttendanceSegment.content(parsed, size, modified));
+                }
             }
+            attendanceTail = AttendanceTail.capture(channel, size);
 
-            System.out.println("✅ Attendance data loaded: " + attendanceData.size() + " rows");
+            // Re-apply edits that have not been compacted into attendance.txt yet
+            int replayed = attendanceJournal.replay(this::applyAttendanceChange);
+            if (replayed > 0) {
+                System.out.println("✅ attendance.journal replayed: " + replayed + " changes");
+            }
 
-        } catch (IOException | CsvValidationException e) {
+            System.out.println("✅ Attendance data loaded: " + attendanceStore.size() + " rows");
+        } catch (IOException e) {
             System.out.println("❌ Error reading attendance.txt: " + e.getMessage());
         }
     }
 
-    // ======== Write Methods ========
-
-    // Writes employee data to the employee file
-    public void writeEmployeeFile(List<String[]> data) {
-        try (ICSVWriter writer = new CSVWriterBuilder(new FileWriter(EMPLOYEE_FILE))
-                .withSeparator(';')
-                .withQuoteChar(CSVWriter.NO_QUOTE_CHARACTER)
-                .build()) {
+    // Reads every monthly partition into the attendance store
+    private void readAttendancePartitions() {
+        attendanceStamp = null;
+        attendanceLoads++;
+        attendanceHeaders.clear();
+        attendanceStore.clear();
+        attendanceTail = null;
+        clearJournaledAttendance();
+        partitioned = true;
 
-            writer.writeNext(employeeHeaders.toArray(String[]::new));
-            for (String[] row : data) {
-                writer.writeNext(row);
+        try {
+            int skipped = 0;
+            for (YearMonth month : partitions.allMonths()) {
+                skipped += partitions.read(month, attendanceStore);
+            }
+            if (skipped > 0) {
+                System.out.println("⚠ " + skipped + " attendance rows without a numeric Employee # are kept as they are");
             }
+            System.out.println("✅ Attendance partitions loaded: " + attendanceStore.size() + " rows");
+        } catch (IOException e) {
+            System.out.println("❌ Error reading attendance partitions: " + e.getMessage());
+        }
+        routeAttendanceInbox();
+        foldLeftoverAttendanceJournal();
+    }
 
-            System.out.println("✅ employee.txt written successfully.");
+    // Moves attendance.journal entries left over from before the partitions took over (edits
+    // made while they were being written, or a fold cut short by a crash) into the partitions,
+    // and empties the journal once they are saved. Edits only ever journal whole days and
+    // whole employees, which can be applied twice without harm
+    private void foldLeftoverAttendanceJournal() {
+        if (attendanceJournal.size() == 0) return;
 
+        Set<YearMonth> months = new TreeSet<>();
+        int applied;
+        try {
+            applied = attendanceJournal.replay((op, args) -> {
+                if (op == OP_SET_DAY) {
+                    applyAttendanceDay(args);
+                    int day = AttendanceStore.parseDate(args[1]);
+                    if (day != AttendanceStore.NO_DATE) months.add(AttendancePartitions.monthOf(day));
+                } else if (op == OP_DELETE_EMPLOYEE) {
+                    for (int day : attendanceStore.removeEmployee(AttendanceStore.parseEmployeeId(args[0]))) {
+                        months.add(AttendancePartitions.monthOf(day));
+                    }
+                }
+                // Older single-row entries were already in attendance.txt when it was split
+            });
         } catch (IOException e) {
-            System.out.println("❌ Error writing employee file: " + e.getMessage());
+            System.out.println("❌ Error reading attendance.journal: " + e.getMessage());
+            return;
         }
+
+        long folded = attendanceJournal.size();
+        writeAttendancePartitions(months.toArray(YearMonth[]::new)).thenAccept(saved -> {
+            if (!saved) return; // Kept, and applied again on the next load
+            synchronized (FileHandler.this) {
+                try {
+                    attendanceJournal.discardHead(folded);
+                } catch (IOException e) {
+                    System.out.println("⚠ attendance.journal could not be cleared: " + e.getMessage());
+                }
+            }
+        });
+        System.out.println("✅ attendance.journal: " + applied + " changes moved into the partitions");
     }
 
-    // Writes attendance data to the attendance file
-    public void writeAttendanceFile(List<String[]> data) {
-        try (ICSVWriter writer = new CSVWriterBuilder(new FileWriter(ATTENDANCE_FILE))
-                .withSeparator(',')
-                .withQuoteChar(CSVWriter.NO_QUOTE_CHARACTER)
-                .build()) {
+    // Moves the punches the clocks appended to attendance.txt since the partitions last took
+    // it in into their months' partitions, and records how far it has been read
+    // A punch already on file for that employee, day and times is not added again, so
+    // reading the same part twice (e.g. after a crash before the manifest was saved) is harmless
+    // Returns how many punches were added at the end of the data
+    private int routeAttendanceInbox() {
+        File file = new File(ATTENDANCE_FILE);
+        if (!file.exists()) return 0;
 
-            writer.writeNext(attendanceHeaders.toArray(String[]::new));
-            for (String[] row : data) {
-                writer.writeNext(row);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            AttendanceTail routed = partitions.inboxTail();
+            if (routed != null && !routed.isContinuedBy(channel)) {
+                System.out.println("⚠ attendance.txt was replaced; taking in all of it");
+                routed = null;
             }
+            if (routed != null && routed.isCurrent(channel)) return 0;
 
-            System.out.println("✅ attendance.txt written successfully.");
+            long size = channel.size();
+            AttendanceStore appended = new AttendanceStore();
+            int skipped = MappedAttendanceReader.read(channel, routed == null ? 0 : routed.offset(), size, appended);
+            if (skipped > 0) {
+                System.out.println("⚠ " + skipped + " attendance rows without a numeric Employee # are kept as they are");
+            }
+
+            Set<YearMonth> months = new TreeSet<>();
+            int added = 0;
+            AttendanceStore.Cursor cursor = appended.cursor();
+            while (cursor.next()) {
+                // The record the clock was still writing last time is read again; if it grew,
+                // the version taken in then is swapped out
+                if (cursor.row() == 0 && routed != null && routed.hasProvisional()) {
+                    if (routed.isProvisional(cursor.employeeId(), cursor.epochDay(),
+                            cursor.loginMinute(), cursor.logoutMinute())) {
+                        continue;
+                    }
+                    if (routed.removeProvisional(attendanceStore)) {
+                        months.add(AttendancePartitions.monthOf(routed.provisionalDay()));
+                    }
+                }
+                if (isOnFile(cursor.employeeId(), cursor.epochDay(), cursor.loginMinute(), cursor.logoutMinute())) {
+                    continue;
+                }
+                attendanceStore.add(cursor.employeeId(), cursor.epochDay(), cursor.loginMinute(), cursor.logoutMinute());
+                months.add(AttendancePartitions.monthOf(cursor.epochDay()));
+                added++;
+            }
+            List<String> kept = attendanceStore.unreadableLines();
+            for (String line : appended.unreadableLines()) {
+                if (kept.contains(line)) continue;
+                attendanceStore.keepUnreadable(line); // Undated, like any unreadable line
+                months.add(AttendancePartitions.UNDATED);
+            }
 
+            // The manifest, written after the partitions, then records how far they go
+            partitions.setInboxTail(AttendanceTail.capture(channel, size));
+            writeAttendancePartitions(months.toArray(YearMonth[]::new));
+            if (added > 0) System.out.println("✅ attendance.txt: " + added + " new punches moved into the partitions");
+            return added;
         } catch (IOException e) {
-            System.out.println("❌ Error writing attendance file: " + e.getMessage());
+            System.out.println("❌ Error reading attendance.txt: " + e.getMessage());
+            return 0;
         }
     }
 
-    // ======== Update & Append Methods ========
+    // True if one of the employee's punches that day has exactly these times
+    private boolean isOnFile(int employeeId, int epochDay, int loginMinute, int logoutMinute) {
+        for (int row : attendanceStore.rowsOf(employeeId, epochDay)) {
+            if (attendanceStore.loginMinute(row) == loginMinute && attendanceStore.logoutMinute(row) == logoutMinute) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-    // Appends a new employee row to the employee file
-    public boolean appendEmployeeToFile(String[] employeeRow) {
-        try (ICSVWriter writer = new CSVWriterBuilder(new FileWriter(EMPLOYEE_FILE, true))
-                .withSeparator(';')
-                .withQuoteChar(CSVWriter.NO_QUOTE_CHARACTER)
-                .build()) {
-            writer.writeNext(employeeRow);
-            return true;
+    // Adds to punches streamed from the partitions those appended to attendance.txt that
+    // are not in them yet (the clocks wrote them after the last load or poll)
+    private synchronized Stream<AttendanceRecord> withUnroutedPunches(Stream<AttendanceRecord> partitioned) {
+        File file = new File(ATTENDANCE_FILE);
+        if (!file.exists()) return partitioned;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            AttendanceTail routed = partitions.inboxTail();
+            if (routed != null && !routed.isContinuedBy(channel)) routed = null;
+            if (routed != null && routed.isCurrent(channel)) return partitioned;
+
+            AttendanceStore appended = new AttendanceStore();
+            MappedAttendanceReader.read(channel, routed == null ? 0 : routed.offset(), channel.size(), appended);
+            List<AttendanceRecord> punches = new ArrayList<>();
+            AttendanceStore.Cursor cursor = appended.cursor();
+            while (cursor.next()) {
+                punches.add(new AttendanceRecord(cursor.employeeId(), cursor.epochDay(),
+                        cursor.loginMinute(), cursor.logoutMinute()));
+            }
+
+            // The record the clock was still writing is in the partitions already; it is
+            // streamed from whichever side has its latest version
+            if (routed != null && routed.hasProvisional() && !punches.isEmpty()) {
+                AttendanceRecord first = punches.get(0);
+                if (routed.isProvisional(first.employeeId(), first.epochDay(), first.loginMinute(), first.logoutMinute())) {
+                    punches.remove(0);
+                } else {
+                    AttendanceTail stale = routed;
+                    partitioned = partitioned.filter(r -> !stale.isProvisional(r.employeeId(), r.epochDay(),
+                            r.loginMinute(), r.logoutMinute()));
+                }
+            }
+            return Stream.concat(partitioned, punches.stream());
         } catch (IOException e) {
-            System.out.println("❌ Error appending to employee.txt: " + e.getMessage());
-            return false;
+            System.out.println("❌ Error reading attendance.txt: " + e.getMessage());
+            return partitioned;
         }
     }
 
-    // Updates a specific field of an employee identified by employee ID
-    public boolean updateEmployeeField(String employeeId, String columnName, String newValue) {
-        int idIndex = employeeHeaders.indexOf("Employee #");
-        int columnIndex = employeeHeaders.indexOf(columnName);
+    // Replaces the punches of every month whose partition changed on disk; returns how many months
+    private int reloadChangedPartitions() {
+        Set<YearMonth> changed = partitions.changedMonths();
+        for (YearMonth month : changed) {
+            attendanceStore.removeDays(AttendancePartitions.firstDay(month), AttendancePartitions.lastDay(month));
+            try {
+                partitions.read(month, attendanceStore);
+            } catch (IOException e) {
+                System.out.println("❌ Error reading attendance for " + month + ": " + e.getMessage());
+            }
+            partitions.forget(month);
+        }
+        if (!changed.isEmpty()) System.out.println("✅ Attendance partitions reloaded: " + changed.size() + " months");
+        return changed.size();
+    }
 
-        if (idIndex == -1 || columnIndex == -1) return false;
+    // Loads the binary segment if it was built from this version of attendance.txt
+    private boolean loadAttendanceSegment(long sourceSize, long sourceModified) {
+        try {
+            return AttendanceSegment.load(ATTENDANCE_SEGMENT, sourceSize, sourceModified, attendanceStore);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("⚠ Could not map attendance.seg, parsing attendance.txt instead: " + e.getMessage());
+            attendanceStore.clear();
+            return false;
+        }
+    }
 
-        for (String[] row : employeeData) {
-            if (row[idIndex].equals(employeeId)) {
-                row[columnIndex] = newValue;
-                writeEmployeeFile(employeeData); // Save changes
-                return true;
+    // Streams the punches in attendance.txt that pass the filter, reading the file lazily
+    // block by block, so memory use stays bounded however large the file is
+    // attendance.txt never holds the edits: the days attendance.journal overrides are
+    // dropped from the file as it streams, and their punches from the journal follow it
+    // Close the stream when done (e.g. try-with-resources) to release the file
+    public Stream<AttendanceRecord> streamAttendance(Predicate<? super AttendanceRecord> filter) {
+        if (partitions.exists()) {
+            return withUnroutedPunches(partitions.streamAll()).filter(filter);
+        }
+
+        try {
+            Stream<AttendanceRecord> punches = MappedAttendanceReader.stream(Path.of(ATTENDANCE_FILE));
+            if (attendanceJournal.size() > 0) {
+                AttendanceOverlay overlay = attendanceOverlay();
+                punches = Stream.concat(punches.filter(r -> !overlay.overrides(r)), overlay.punches());
             }
+            return punches.filter(filter);
+        } catch (IOException e) {
+            System.out.println("❌ Error reading attendance.txt: " + e.getMessage());
+            return Stream.empty();
         }
-        return false;
     }
 
-    // Updates multiple benefit fields of an employee by ID
-    public boolean updateBenefitsByEmployeeId(String employeeId, Benefits benefits) {
-        return updateEmployeeField(employeeId, "Rice Subsidy", String.valueOf(benefits.getRiceSubsidy())) &&
-               updateEmployeeField(employeeId, "Phone Allowance", String.valueOf(benefits.getPhoneAllowance())) &&
-               updateEmployeeField(employeeId, "Clothing Allowance", String.valueOf(benefits.getClothingAllowance()));
+    // Edits attendance.journal makes to attendance.txt, keyed by (employee #, day): every
+    // punch of a deleted employee and of an edited day in the file is overridden, and the
+    // edited days' punches as they are now replace them
+    private record AttendanceOverlay(Set<Integer> deletedEmployees, Map<Long, List<AttendanceRecord>> days) {
+
+        boolean overrides(AttendanceRecord punch) {
+            return deletedEmployees.contains(punch.employeeId())
+                    || days.containsKey(dayKey(punch.employeeId(), punch.epochDay()));
+        }
+
+        Stream<AttendanceRecord> punches() {
+            return days.values().stream().flatMap(List::stream);
+        }
     }
 
-    // Updates attendance record by employee ID and date
-    public boolean updateAttendance(String employeeId, String date, String[] newRow) {
-        for (int i = 0; i < attendanceData.size(); i++) {
-            String[] row = attendanceData.get(i);
-            if (row[0].equals(employeeId) && row[1].equals(date)) {
-                attendanceData.set(i, newRow);
-                writeAttendanceFile(attendanceData); // Save changes
-                return true;
+    // Reads the overlay from attendance.journal without loading attendance.txt
+    // Entries journaled before whole days were (single-row appends, updates and deletes)
+    // depend on the rows in the file, so with any of those it is taken from the loaded data
+    private synchronized AttendanceOverlay attendanceOverlay() throws IOException {
+        Set<Integer> deletedEmployees = new HashSet<>();
+        Map<Long, List<AttendanceRecord>> days = new LinkedHashMap<>();
+        boolean[] rowEntries = {false};
+        attendanceJournal.replay((op, args) -> {
+            int id = AttendanceStore.parseEmployeeId(args[0]);
+            switch (op) {
+                case OP_DELETE_EMPLOYEE -> {
+                    if (id < 0) return;
+                    deletedEmployees.add(id);
+                    days.keySet().removeIf(key -> (int) (key >> 32) == id); // Days edited before are gone with the rest
+                }
+                case OP_SET_DAY -> {
+                    int day = AttendanceStore.parseDate(args[1]);
+                    if (id < 0 || day == AttendanceStore.NO_DATE) return;
+                    List<AttendanceRecord> punches = new ArrayList<>();
+                    for (int i = 2; i + 1 < args.length; i += 2) {
+                        punches.add(new AttendanceRecord(id, day,
+                                AttendanceStore.parseTime(args[i]), AttendanceStore.parseTime(args[i + 1])));
+                    }
+                    days.put(dayKey(id, day), punches);
+                }
+                default -> rowEntries[0] = true;
             }
+        });
+        if (!rowEntries[0]) return new AttendanceOverlay(deletedEmployees, days);
+
+        ensureAttendanceDataLoaded();
+        days.clear();
+        for (long key : journaledDays) {
+            List<AttendanceRecord> punches = new ArrayList<>();
+            for (int row : attendanceStore.rowsOf((int) (key >> 32), (int) key)) {
+                punches.add(new AttendanceRecord(attendanceStore.employeeId(row), attendanceStore.epochDay(row),
+                        attendanceStore.loginMinute(row), attendanceStore.logoutMinute(row)));
+            }
+            days.put(key, punches);
         }
-        return false;
+        return new AttendanceOverlay(new HashSet<>(journaledEmployees), days);
     }
 
-    // ======== Delete Methods ========
+    // Streams the punches of one month; with partitioned attendance only that month's file is opened
+    public Stream<AttendanceRecord> streamAttendance(YearMonth month, Predicate<? super AttendanceRecord> filter) {
+        int first = AttendancePartitions.firstDay(month);
+        int last = AttendancePartitions.lastDay(month);
+        if (partitions.exists()) {
+            return withUnroutedPunches(partitions.stream(month))
+                    .filter(r -> r.epochDay() >= first && r.epochDay() <= last && filter.test(r));
+        }
+        return streamAttendance(r -> r.epochDay() >= first && r.epochDay() <= last && filter.test(r));
+    }
 
-    // Deletes an employee record by ID
-    public boolean deleteEmployeeById(String employeeId) {
-        int idIndex = employeeHeaders.indexOf("Employee #");
-        boolean removed = employeeData.removeIf(row -> row[idIndex].equals(employeeId));
-        if (removed) writeEmployeeFile(employeeData);
-        return removed;
+    // Returns the months that have punches, in order
+    // With partitioned attendance they come from the manifest without opening any partition
+    public List<YearMonth> getAttendanceMonths() {
+        if (partitions.exists()) return partitions.months();
+
+        Set<YearMonth> months = new TreeSet<>();
+        try (Stream<AttendanceRecord> punches = streamAttendance(r -> r.epochDay() != AttendanceStore.NO_DATE)) {
+            punches.forEach(r -> months.add(AttendancePartitions.monthOf(r.epochDay())));
+        }
+        return new ArrayList<>(months);
     }
 
-    // Deletes attendance entry for an employee on a given date
-    public boolean deleteAttendance(String employeeId, String date) {
-        boolean removed = attendanceData.removeIf(row -> row[0].equals(employeeId) && row[1].equals(date));
-        if (removed) writeAttendanceFile(attendanceData);
-        return removed;
+    // Returns the months one employee has punches in, from their month directory in the
+    // employee-clustered layout, so no other employee's punches are looked at
+    public synchronized List<YearMonth> getAttendanceMonths(String employeeId) {
+        ensureAttendanceDataLoaded();
+        return attendanceStore.clustered().months(AttendanceStore.parseEmployeeId(employeeId));
     }
 
-    // ======== Utility Methods ========
+    // Returns one employee's punches of the month, in date order, from the clustered layout
+    // The layout is never modified, so the stream stays valid while the data changes
+    public synchronized Stream<AttendanceRecord> streamAttendance(String employeeId, YearMonth month) {
+        ensureAttendanceDataLoaded();
+        return attendanceStore.clustered().punches(AttendanceStore.parseEmployeeId(employeeId), month);
+    }
 
-    // Retrieves benefits object by employee ID
-    public Benefits getBenefitsByEmployeeId(String employeeId) {
-        for (String[] emp : employeeData) {
-            if (emp[0].equals(employeeId)) {
-                double rice = safeParseDouble(emp[14], 0.0);
-                double phone = safeParseDouble(emp[15], 0.0);
-                double clothing = safeParseDouble(emp[16], 0.0);
-                return new Benefits(rice, phone, clothing);
+    // Reads only the punches appended to attendance.txt since the last load or poll
+    // Returns how many punches were added at the end of the data, or -1 if existing rows
+    // changed too (the file was truncated or rewritten and had to be reloaded in full)
+    public synchronized int pollAttendanceFile() {
+        if (partitions.exists()) {
+            if (!partitioned) {
+                readAttendanceFile();
+                return -1;
             }
+            int routed = routeAttendanceInbox();
+            return reloadChangedPartitions() > 0 ? -1 : routed; // Reloaded months move to the end of the data
         }
-        return new Benefits(0.0, 0.0, 0.0); // Default if not found
-    }
 
-    // Parses string to double with fallback in case of error
-    private double safeParseDouble(String value, double defaultValue) {
-        try {
-            return Double.parseDouble(value.replace("\"", "").replace(",", "").trim());
-        } catch (NumberFormatException e) {
-            System.err.println("Failed to parse double: " + value);
-            return defaultValue;
+        File file = new File(ATTENDANCE_FILE);
+        if (attendanceTail == null || !file.exists()) {
+            readAttendanceFile();
+            return -1;
         }
-    }
 
-    // Adjusts the length of the row to match expected number of columns
-    private String[] adjustRowLength(String[] fields, int expectedSize) {
-        if (fields.length < expectedSize) {
-            String[] padded = Arrays.copyOf(fields, expectedSize);
-            Arrays.fill(padded, fields.length, expectedSize, "");
-            return padded;
-        } else if (fields.length > expectedSize) {
-            return Arrays.copyOf(fields, expectedSize);
-        } else {
-            return fields;
+        attendanceStamp = FileStamp.of(file);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (!attendanceTail.isContinuedBy(channel)) {
+                System.out.println("⚠ attendance.txt was truncated or rewritten; reloading it in full");
+                readAttendanceFile();
+                return -1;
+            }
+            if (attendanceTail.isCurrent(channel)) return 0;
+
+            long size = channel.size();
+            AttendanceStore appended = new AttendanceStore();
+            MappedAttendanceReader.read(channel, attendanceTail.offset(), size, appended);
+
+            // The last record seen before had no separator yet and is read again; if it
+            // grew (the clock was still writing it), the old version is swapped out
+            boolean replaced = false;
+            int added = 0;
+            AttendanceStore.Cursor cursor = appended.cursor();
+            while (cursor.next()) {
+                if (cursor.row() == 0 && attendanceTail.hasProvisional()) {
+                    if (attendanceTail.isProvisional(cursor.employeeId(), cursor.epochDay(),
+                            cursor.loginMinute(), cursor.logoutMinute())) {
+                        continue; // Unchanged and already in the store
+                    }
+                    if (!attendanceTail.removeProvisional(attendanceStore)) {
+                        readAttendanceFile();
+                        return -1;
+                    }
+                    replaced = true;
+                }
+                attendanceStore.add(cursor.employeeId(), cursor.epochDay(), cursor.loginMinute(), cursor.logoutMinute());
+                added++;
+                // A day the journal overrides would lose this punch on the next load, so it is journaled too
+                if (journaledEmployees.contains(cursor.employeeId())
+                        || journaledDays.contains(dayKey(cursor.employeeId(), cursor.epochDay()))) {
+                    persistAttendanceDay(cursor.employeeId(), cursor.epochDay());
+                }
+            }
+            for (String line : appended.unreadableLines()) {
+                attendanceStore.keepUnreadable(line);
+            }
+
+            attendanceTail = AttendanceTail.capture(channel, size);
+            if (added > 0) System.out.println("✅ attendance.txt: " + added + " new punches");
+            return replaced ? -1 : added;
+        } catch (IOException e) {
+            System.out.println("❌ Error reading attendance.txt: " + e.getMessage());
+            return 0;
         }
     }
 
-    // ======== Getters ========
+    // ======== Write Methods ========
 
-    // Returns full employee data
-    public List<String[]> getEmployeeData() {
-        return employeeData;
+    // Queues a crash-safe rewrite of the employee file on the background writer
+    // The future completes with true once the file is on disk, or false if the write failed
+    public synchronized CompletableFuture<Boolean> writeEmployeeFile(List<String[]> data) {
+        pendingEmployeeWrites++;
+        CompletableFuture<Boolean> saved = WRITER.submit(Path.of(EMPLOYEE_FILE), () -> snapshotEmployeeFile(data));
+        saved.whenComplete((ok, error) -> {
+            synchronized (FileHandler.this) {
+                pendingEmployeeWrites--;
+            }
+        });
+        return saved;
     }
 
-    // Returns full attendance data
-    public List<String[]> getAttendanceData() {
-        return attendanceData;
+    // Queues a crash-safe rewrite of the attendance file on the background writer, for explicit
+    // replacements such as an import; edits never rewrite it (see journaledDays). The write is
+    // abandoned if the time clocks append to the file while it is being written
+    // With partitioned attendance every monthly partition is rewritten instead
+    public CompletableFuture<Boolean> writeAttendanceFile(List<String[]> data) {
+        if (partitions.exists()) return writeAllPartitions(data);
+        return WRITER.submit(Path.of(ATTENDANCE_FILE), () -> snapshotAttendanceFile(data));
     }
 
-    // Returns predefined headers for employee file
-    public String[] getEmployeeHeaders() {
-        return new String[]{
-                "Employee #", "Last Name", "First Name", "Birthday", "Address", "Phone Number",
-                "SSS #", "Philhealth #", "TIN #", "Pag-ibig #", "Status", "Position",
-                "Immediate Supervisor", "Basic Salary", "Rice Subsidy", "Phone Allowance",
-                "Clothing Allowance", "Gross Semi-monthly Rate", "Hourly Rate"
-        };
+    // Rewrites the partitions of the given months from memory, then the manifest
+    private synchronized CompletableFuture<Boolean> writeAttendancePartitions(YearMonth... months) {
+        CompletableFuture<Boolean> saved = CompletableFuture.completedFuture(true);
+        for (YearMonth month : new TreeSet<>(Arrays.asList(months))) {
+            AttendanceStore punches = attendanceStore.copyDays(
+                    AttendancePartitions.firstDay(month), AttendancePartitions.lastDay(month));
+            saved = saved.thenCombine(partitions.write(WRITER, month, punches), Boolean::logicalAnd);
+        }
+        return saved.thenCombine(partitions.writeManifest(WRITER), Boolean::logicalAnd);
     }
 
-    // Returns attendance file headers
-    public List<String> getAttendanceHeaders() {
-        return attendanceHeaders;
+    // Rewrites every partition from the rows, dropping months that no longer have punches
+    private synchronized CompletableFuture<Boolean> writeAllPartitions(List<String[]> data) {
+        AttendanceStore punches;
+        if (data == attendanceData) {
+            punches = attendanceStore;
+        } else {
+            punches = new AttendanceStore();
+            for (String[] row : data) {
+                int id = AttendanceStore.parseEmployeeId(row[0]);
+                if (id < 0) {
+                    punches.keepUnreadable(String.join(",", row));
+                    continue;
+                }
+                punches.add(id, AttendanceStore.parseDate(row[1]),
+                        AttendanceStore.parseTime(row[2]), AttendanceStore.parseTime(row[3]));
+            }
+        }
+
+        Map<YearMonth, AttendanceStore> byMonth = AttendancePartitions.split(punches);
+        for (YearMonth month : partitions.months()) {
+            byMonth.putIfAbsent(month, new AttendanceStore());
+        }
+        CompletableFuture<Boolean> saved = CompletableFuture.completedFuture(true);
+        for (Map.Entry<YearMonth, AttendanceStore> entry : byMonth.entrySet()) {
+            saved = saved.thenCombine(partitions.write(WRITER, entry.getKey(), entry.getValue()), Boolean::logicalAnd);
+        }
+        return saved.thenCombine(partitions.writeManifest(WRITER), Boolean::logicalAnd);
     }
 
-    // Returns employee data row by ID
-    public String[] getEmployeeById(String employeeId) {
-        int idIndex = employeeHeaders.indexOf("Employee #");
-        for (String[] row : employeeData) {
-            if (row[idIndex].equals(employeeId)) return row;
+    // Copies the rows under the lock, so edits made while the file is written cannot tear it
+    private synchronized DurableFileWriter.TextContent snapshotEmployeeFile(List<String[]> data) {
+        String[] headers = employeeHeaders.toArray(String[]::new);
+        List<String[]> rows = new ArrayList<>(data.size());
+        if (data == employeeData) {
+            for (int slot = 0; slot < employeeRows.size(); slot++) {
+                if (deletedEmployeeSlots.get(slot)) continue;
+                rows.add(employeeRows.get(slot).copyCells()); // Rows never opened are decoded for the write only
+            }
+        } else {
+            for (String[] row : data) {
+                rows.add(row.clone());
+            }
         }
-        return null;
+        long journaled = employeeJournal.size();
+
+        return new DurableFileWriter.TextContent() {
+            @Override
+            public void writeTo(Writer out) {
+                ICSVWriter writer = new CSVWriterBuilder(out)
+                        .withSeparator(';')
+                        .withQuoteChar(CSVWriter.NO_QUOTE_CHARACTER)
+                        .build();
+                writer.writeNext(headers);
+                for (String[] row : rows) {
+                    writer.writeNext(row);
+                }
+            }
+
+            @Override
+            public void committed() {
+                baseFileWritten(EMPLOYEE_FILE, employeeJournal, journaled);
+            }
+        };
     }
 
+    private synchronized DurableFileWriter.TextContent snapshotAttendanceFile(List<String[]> data) {
+        String[] headers = attendanceHeaders.toArray(String[]::new);
+        long journaled = attendanceJournal.size();
+        File file = new File(ATTENDANCE_FILE);
+        long sizeBefore = file.length(); // 0 if it does not exist
+
+        // The store is copied as primitive columns; other lists are copied row by row
+        AttendanceStore punches = data == attendanceData ? attendanceStore.copy() : null;
+        List<String[]> rows = punches != null ? null : new ArrayList<>(data);
+
+        return new DurableFileWriter.TextContent() {
+            @Override
+            public void writeTo(Writer out) throws IOException {
+                if (headers.length > 0) {
+                    out.write(String.join(",", headers));
+                    out.write('\n');
+                }
+                if (punches != null) {
+                    punches.writeCsv(out);
+                } else {
+                    for (String[] row : rows) {
+                        out.write(String.join(",", row));
+                        out.write('\n');
+                    }
+                }
+            }
 
-    // ✅ Check if a username already exists in the credentials file
-    public boolean userExists(String username) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(credentialsFilePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length == 2 && parts[0].trim().equals(username)) {
-                    return true;
+            @Override
+            public boolean targetUnchanged() {
+                synchronized (FileHandler.this) {
+                    if (file.length() == sizeBefore) return true;
                 }
+                System.out.println("⚠ The time clocks wrote to attendance.txt meanwhile; it was not replaced");
+                return false;
             }
-        } catch (IOException e) {
-            System.err.println("Error reading credentials file: " + e.getMessage());
-        }
-        return false;
+
+            @Override
+            public void committed() {
+                baseFileWritten(ATTENDANCE_FILE, attendanceJournal, journaled);
+            }
+        };
     }
 
-    // ✅ Add a new user to the credentials file
-    public boolean addUser(String username, String password) {
-        if (username.contains(",") || password.contains(",")) {
-            System.err.println("Username and password must not contain commas.");
-            return false;
+    // Records the file version just written and drops the journal entries it now contains
+    private synchronized void baseFileWritten(String fileName, ChangeJournal journal, long journaled) {
+        FileStamp stamp = FileStamp.of(new File(fileName)); // Memory already matches what was written
+        if (fileName.equals(EMPLOYEE_FILE)) {
+            employeeStamp = stamp;
+        } else {
+            attendanceStamp = stamp;
+            try (FileChannel channel = FileChannel.open(Path.of(fileName), StandardOpenOption.READ)) {
+                attendanceTail = AttendanceTail.capture(channel, channel.size()); // Follow the new file from its end
+            } catch (IOException e) {
+                attendanceTail = null; // The next refresh reloads in full
+            }
         }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(credentialsFilePath, true))) {
-            writer.write(username + "," + password);
-            writer.newLine();
-            return true;
+        try {
+            journal.discardHead(journaled);
+            if (journal == attendanceJournal) {
+                // Only the edits made after the snapshot are still journaled
+                clearJournaledAttendance();
+                attendanceJournal.replay(this::noteAttendanceChange);
+            }
         } catch (IOException e) {
-            System.err.println("Error writing to credentials file: " + e.getMessage());
-            return false;
+            // Harmless: replaying these entries again on the new file is idempotent
+            System.out.println("❌ Error trimming " + journal.path().getFileName() + ": " + e.getMessage());
         }
     }
 
-    // ✅ (Already mentioned) update user password
-    public boolean updateUserPassword(String username, String newPassword) {
-        List<String> lines = new ArrayList<>();
-        boolean updated = false;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(credentialsFilePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length == 2 && parts[0].trim().equals(username)) {
-                    lines.add(username + "," + newPassword);
-                    updated = true;
-                } else {
-                    lines.add(line);
-                }
+    // Splits attendance.txt (with its journal applied) into monthly partitions plus a manifest;
+    // from then on attendance is read from the partitions. attendance.txt stays where the
+    // clocks append to it, and the manifest records how much of it the partitions hold
+    // Returns false, leaving attendance.txt in use, if the partitions could not be written
+    public boolean migrateAttendanceToPartitions() {
+        CompletableFuture<Boolean> written = CompletableFuture.completedFuture(true);
+        long journaled; // Journal entries the partitions were written with
+        synchronized (this) {
+            if (partitions.exists()) {
+                System.out.println("⚠ Attendance is already partitioned.");
+                return true;
             }
-        } catch (IOException e) {
-            System.err.println("Error reading file: " + e.getMessage());
+            readAttendanceFile();
+            if (attendanceTail == null) {
+                System.out.println("❌ attendance.txt could not be read; it stays in use.");
+                return false;
+            }
+            try {
+                partitions.createFolder();
+            } catch (IOException e) {
+                System.out.println("❌ Cannot create the attendance folder: " + e.getMessage());
+                return false;
+            }
+            for (Map.Entry<YearMonth, AttendanceStore> month : AttendancePartitions.split(attendanceStore).entrySet()) {
+                written = written.thenCombine(partitions.write(WRITER, month.getKey(), month.getValue()), Boolean::logicalAnd);
+            }
+            partitions.setInboxTail(attendanceTail); // Punches appended after this are taken in later
+            journaled = attendanceJournal.size();
+        }
+
+        // The manifest goes last: once it exists the partitions are used instead of attendance.txt
+        if (!written.join() || !partitions.writeManifest(WRITER).join()) {
+            System.out.println("❌ Attendance partitions could not be written; attendance.txt stays in use.");
             return false;
         }
 
-        if (updated) {
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(credentialsFilePath))) {
-                for (String updatedLine : lines) {
-                    writer.write(updatedLine);
-                    writer.newLine();
-                }
-                return true;
+        synchronized (this) {
+            try {
+                Files.deleteIfExists(ATTENDANCE_SEGMENT);
+                // Its edits are in the partitions now; those made since are folded in by the reload
+                attendanceJournal.discardHead(journaled);
+                clearJournaledAttendance();
             } catch (IOException e) {
-                System.err.println("Error writing file: " + e.getMessage());
+                System.out.println("⚠ Partitions are in use, but attendance.journal could not be cleared: " + e.getMessage());
             }
+            readAttendanceFile(); // Also takes in what the clocks appended, and was edited, meanwhile
         }
+        System.out.println("✅ attendance.txt split into " + partitions.months().size() + " monthly partitions.");
+        return true;
+    }
 
-        return false;
+    // ======== Update & Append Methods ========
+
+    // Adds a new employee to memory and appends it to the employee file (or to the journal)
+    // Returns false if the Employee # is already taken or the row could not be saved
+    public synchronized boolean appendEmployeeToFile(String[] employeeRow) {
+        ensureEmployeeDataLoaded(); // Edits are applied to, and later written from, the loaded data
+        String taken = governmentIds.conflict(employeeRow[employeeIdColumn],
+                column -> column < employeeRow.length ? employeeRow[column] : "");
+        if (taken != null) {
+            System.out.println("❌ Employee # " + employeeRow[employeeIdColumn] + " not added: " + taken);
+            return false;
+        }
+        if (!addEmployeeRow(employeeRow)) {
+            System.out.println("❌ Employee # " + employeeRow[employeeIdColumn] + " already exists.");
+            return false;
+        }
+        history.recordInsert(employeeHeaders, employeeRow[employeeIdColumn], employeeRows.get(employeeRows.size() - 1).cells());
+
+        if (journaling && journalChange(employeeJournal, OP_APPEND, employeeRow)) {
+            if (employeeJournal.size() >= COMPACTION_THRESHOLD) writeEmployeeFile(employeeData);
+            return true;
+        }
+
+        writeEmployeeFile(employeeData); // Journaling is off: rewrite the file in the background
+        return true;
     }
 
-    // ✅ Return list of usernames
-    public List<String> getAllUsers() {
-        List<String> users = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(credentialsFilePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length == 2) {
-                    users.add(parts[0].trim());
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("Error reading users: " + e.getMessage());
+    // Updates a specific field of an employee identified by employee ID
+    public boolean updateEmployeeField(String employeeId, String columnName, String newValue) {
+        return updateEmployee(employeeId, Map.of(columnName, newValue));
+    }
+
+    // Updates several fields of one employee (column name -> new value) with a single save
+    // Every change is validated first; if any is invalid nothing is applied
+    public synchronized boolean updateEmployee(String employeeId, Map<String, String> changes) {
+        ensureEmployeeDataLoaded();
+        if (changes.isEmpty()) return false;
+        String error = validateEmployeeChanges(employeeId, changes);
+        if (error != null) {
+            System.out.println("❌ Employee " + employeeId + " not updated: " + error);
+            return false;
+        }
+
+        // Journal entry is the employee ID followed by column/value pairs
+        String[] args = new String[1 + changes.size() * 2];
+        args[0] = employeeId;
+        int i = 1;
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            args[i++] = change.getKey();
+            args[i++] = change.getValue();
         }
-        return users;
+
+        int slot = findEmployeeSlot(employeeId);
+        String[] before = employeeRows.get(slot).cells().clone();
+        applyEmployeeUpdate(args);
+        persistEmployeeChange(OP_UPDATE, args); // Save all changes at once
+        recordEmployeeUpdate(before, employeeRows.get(slot).cells());
+        return true;
+    }
+
+    // Updates multiple benefit fields of an employee by ID
+    public boolean updateBenefitsByEmployeeId(String employeeId, Benefits benefits) {
+        Map<String, String> changes = new LinkedHashMap<>();
+        changes.put("Rice Subsidy", String.valueOf(benefits.getRiceSubsidy()));
+        changes.put("Phone Allowance", String.valueOf(benefits.getPhoneAllowance()));
+        changes.put("Clothing Allowance", String.valueOf(benefits.getClothingAllowance()));
+        return updateEmployee(employeeId, changes);
+    }
+
+    // Updates attendance record by employee ID and date
+    public synchronized boolean updateAttendance(String employeeId, String date, String[] newRow) {
+        ensureAttendanceDataLoaded();
+        if (!applyAttendanceUpdate(employeeId, date, newRow)) return false;
+
+        if (partitioned) {
+            // The punch may have moved to another month; both partitions are rewritten
+            writeAttendancePartitions(AttendancePartitions.monthOf(AttendanceStore.parseDate(date)),
+                    AttendancePartitions.monthOf(AttendanceStore.parseDate(newRow[1])));
+            return true;
+        }
+
+        // Both days are journaled as they now are, so replaying does not depend on attendance.txt
+        persistAttendanceDay(AttendanceStore.parseEmployeeId(employeeId), AttendanceStore.parseDate(date));
+        persistAttendanceDay(AttendanceStore.parseEmployeeId(newRow[0]), AttendanceStore.parseDate(newRow[1]));
+        return true;
+    }
+
+    // Adds or replaces the attendance entry {employee #, date, log in, log out}
+    public synchronized boolean upsertAttendance(String[] row) {
+        ensureAttendanceDataLoaded();
+        if (row == null || row.length < 4 || !applyAttendanceUpsert(row)) return false;
+
+        if (partitioned) {
+            writeAttendancePartitions(AttendancePartitions.monthOf(AttendanceStore.parseDate(row[1])));
+            return true;
+        }
+        persistAttendanceDay(AttendanceStore.parseEmployeeId(row[0]), AttendanceStore.parseDate(row[1]));
+        return true;
+    }
+
+    // ======== Delete Methods ========
+
+    // Deletes an employee record by ID, leaving their attendance alone
+    public boolean deleteEmployeeById(String employeeId) {
+        return deleteEmployeeById(employeeId, false);
+    }
+
+    // Deletes an employee record by ID, and with cascadeAttendance every punch of theirs too
+    // The row is only marked as deleted here; it is removed from memory by the next purge
+    public synchronized boolean deleteEmployeeById(String employeeId, boolean cascadeAttendance) {
+        ensureEmployeeDataLoaded();
+        String[] row = getEmployeeById(employeeId);
+        boolean removed = applyEmployeeDelete(employeeId);
+        if (removed) {
+            persistEmployeeChange(OP_DELETE, employeeId);
+            history.recordDelete(employeeHeaders, employeeId, row);
+            if (cascadeAttendance) deleteAttendanceOf(employeeId);
+        }
+        return removed;
+    }
+
+    // Deletes every punch of the employee through their row chain, without scanning the others
+    private void deleteAttendanceOf(String employeeId) {
+        ensureAttendanceDataLoaded();
+        int[] days = attendanceStore.removeEmployee(AttendanceStore.parseEmployeeId(employeeId));
+        if (days.length == 0) return;
+
+        if (partitioned) {
+            // Only the months the employee had punches in are rewritten
+            Set<YearMonth> months = new TreeSet<>();
+            for (int day : days) {
+                months.add(AttendancePartitions.monthOf(day));
+            }
+            writeAttendancePartitions(months.toArray(YearMonth[]::new));
+        } else {
+            persistAttendanceChange(OP_DELETE_EMPLOYEE, employeeId);
+        }
+        System.out.println("✅ Removed " + days.length + " attendance entries of employee " + employeeId);
+    }
+
+    // Deletes attendance entry for an employee on a given date
+    public synchronized boolean deleteAttendance(String employeeId, String date) {
+        ensureAttendanceDataLoaded();
+        boolean removed = applyAttendanceDelete(employeeId, date);
+        if (removed && partitioned) {
+            writeAttendancePartitions(AttendancePartitions.monthOf(AttendanceStore.parseDate(date)));
+        } else if (removed) {
+            persistAttendanceDay(AttendanceStore.parseEmployeeId(employeeId), AttendanceStore.parseDate(date));
+        }
+        return removed;
+    }
+
+    // ======== In-Memory Changes ========
+    // Shared by the public edit methods and journal replay
+
+    // Applies {employee ID, column, value, column, value, ...}; unknown columns are ignored
+    private boolean applyEmployeeUpdate(String[] args) {
+        int slot = findEmployeeSlot(args[0]);
+        if (slot == -1) return false;
+        String[] row = employeeRows.get(slot).cells();
+        governmentIds.remove(column -> row[column]);
+
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            int columnIndex = employeeHeaders.indexOf(args[i]);
+            if (columnIndex == -1) continue;
+
+            if (columnIndex == employeeIdColumn) {
+                // Re-key the primary index when the Employee # itself changes
+                int oldKey = AttendanceStore.parseEmployeeId(row[columnIndex]);
+                if (oldKey >= 0 && employeeIndex.get(oldKey) == slot) employeeIndex.remove(oldKey);
+                row[columnIndex] = args[i + 1];
+                indexEmployeeRow(row[columnIndex], slot);
+            } else {
+                row[columnIndex] = args[i + 1];
+            }
+        }
+        deriveEmployeeRow(employeeRows.get(slot), slot);
+        governmentIds.add(column -> row[column]);
+        return true;
+    }
+
+    // Returns why a set of employee changes cannot be applied, or null if they are valid
+    private String validateEmployeeChanges(String employeeId, Map<String, String> changes) {
+        if (getEmployeeById(employeeId) == null) return "employee not found";
+
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            String column = change.getKey();
+            String value = change.getValue();
+            if (employeeHeaders.indexOf(column) == -1) return "unknown column '" + column + "'";
+            if (value == null) return column + " has no value";
+
+            // employee.txt is written without quoting, so these would break the row
+            if (value.indexOf(';') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                return column + " must not contain ';' or line breaks";
+            }
+            if (column.equals("Employee #") && !value.equals(employeeId) && getEmployeeById(value) != null) {
+                return "Employee # " + value + " already exists";
+            }
+            String owner = governmentIds.ownerOf(column, value);
+            if (owner != null && !owner.equals(employeeId)) {
+                return column + " " + value + " already belongs to employee " + owner;
+            }
+        }
+        return null;
+    }
+
+    // Marks the employee's row as deleted in constant time; no rows shift until the purge
+    private boolean applyEmployeeDelete(String employeeId) {
+        int slot = findEmployeeSlot(employeeId);
+        if (slot == -1) return false;
+
+        int key = AttendanceStore.parseEmployeeId(employeeId);
+        if (key >= 0) employeeIndex.remove(key);
+        markEmployeeDeleted(slot);
+
+        // Every row with this ID goes, as before; other rows can only hold it if IDs were duplicated
+        if (duplicateEmployeeIds || key < 0) {
+            for (int other = 0; other < employeeRows.size(); other++) {
+                if (!deletedEmployeeSlots.get(other) && employeeRows.get(other).cell(employeeIdColumn).equals(employeeId)) {
+                    markEmployeeDeleted(other);
+                }
+            }
+        }
+        schedulePurge();
+        return true;
+    }
+
+    private boolean applyAttendanceUpdate(String employeeId, String date, String[] newRow) {
+        int row = findAttendanceRow(employeeId, date);
+        if (row == -1) return false;
+        if (AttendanceStore.parseEmployeeId(newRow[0]) < 0) {
+            System.out.println("❌ Attendance not updated: Employee # " + newRow[0] + " is not a number.");
+            return false;
+        }
+
+        attendanceStore.set(row, AttendanceStore.parseEmployeeId(newRow[0]), AttendanceStore.parseDate(newRow[1]),
+                AttendanceStore.parseTime(newRow[2]), AttendanceStore.parseTime(newRow[3]));
+        return true;
+    }
+
+    // Sets the times of the employee's punch on that day, adding the punch if there is none
+    private boolean applyAttendanceUpsert(String[] row) {
+        int id = AttendanceStore.parseEmployeeId(row[0]);
+        int day = AttendanceStore.parseDate(row[1]);
+        if (id < 0 || day == AttendanceStore.NO_DATE) return false;
+
+        attendanceStore.upsert(id, day, AttendanceStore.parseTime(row[2]), AttendanceStore.parseTime(row[3]));
+        return true;
+    }
+
+    private boolean applyAttendanceDelete(String employeeId, String date) {
+        int id = AttendanceStore.parseEmployeeId(employeeId);
+        int day = AttendanceStore.parseDate(date);
+        if (id < 0 || day == AttendanceStore.NO_DATE) return false;
+
+        return attendanceStore.remove(id, day) > 0;
+    }
+
+    // Applies one replayed employee journal entry
+    private void applyEmployeeChange(byte op, String[] args) {
+        switch (op) {
+            case OP_APPEND -> {
+                // Skip rows already present, in case the journal outlived a compaction
+                addEmployeeRow(args);
+            }
+            case OP_UPDATE -> applyEmployeeUpdate(args);
+            case OP_DELETE -> applyEmployeeDelete(args[0]);
+            default -> System.out.println("⚠ Unknown employee.journal entry: " + op);
+        }
+    }
+
+    // Applies one replayed attendance journal entry
+    private void applyAttendanceChange(byte op, String[] args) {
+        noteAttendanceChange(op, args);
+        switch (op) {
+            case OP_APPEND -> applyAttendanceUpsert(args);
+            case OP_UPDATE -> applyAttendanceUpdate(args[0], args[1], Arrays.copyOfRange(args, 2, args.length));
+            case OP_DELETE -> applyAttendanceDelete(args[0], args[1]);
+            case OP_DELETE_EMPLOYEE -> attendanceStore.removeEmployee(AttendanceStore.parseEmployeeId(args[0]));
+            case OP_SET_DAY -> applyAttendanceDay(args);
+            default -> System.out.println("⚠ Unknown attendance.journal entry: " + op);
+        }
+    }
+
+    // Replaces the employee's punches on the day with the {log in, log out} pairs that follow
+    private void applyAttendanceDay(String[] args) {
+        int id = AttendanceStore.parseEmployeeId(args[0]);
+        int day = AttendanceStore.parseDate(args[1]);
+        if (id < 0 || day == AttendanceStore.NO_DATE) return;
+
+        attendanceStore.remove(id, day);
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            attendanceStore.add(id, day, AttendanceStore.parseTime(args[i]), AttendanceStore.parseTime(args[i + 1]));
+        }
+    }
+
+    // Remembers which employees and days an attendance journal entry overrides
+    private void noteAttendanceChange(byte op, String[] args) {
+        switch (op) {
+            case OP_APPEND, OP_DELETE, OP_SET_DAY -> noteJournaledDay(args[0], args[1]);
+            case OP_UPDATE -> {
+                noteJournaledDay(args[0], args[1]);
+                if (args.length >= 4) noteJournaledDay(args[2], args[3]);
+            }
+            case OP_DELETE_EMPLOYEE -> {
+                int id = AttendanceStore.parseEmployeeId(args[0]);
+                if (id < 0) return;
+                journaledEmployees.add(id);
+                journaledDays.removeIf(key -> (int) (key >> 32) == id); // Days edited before are gone with the rest
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void noteJournaledDay(String employeeId, String date) {
+        int id = AttendanceStore.parseEmployeeId(employeeId);
+        int day = AttendanceStore.parseDate(date);
+        if (id >= 0 && day != AttendanceStore.NO_DATE) journaledDays.add(dayKey(id, day));
+    }
+
+    private void clearJournaledAttendance() {
+        journaledEmployees.clear();
+        journaledDays.clear();
+        compactedAttendanceJournal = 0;
+    }
+
+    // Packs an (employee #, epoch day) pair into one key
+    private static long dayKey(int employeeId, int epochDay) {
+        return ((long) employeeId << 32) | (epochDay & 0xFFFFFFFFL);
+    }
+
+    // ======== Journal Persistence ========
+
+    // Turns journaled persistence of employee edits on or off; turning it off folds pending
+    // changes into employee.txt. Attendance edits are always journaled until the attendance
+    // is partitioned (see journaledDays)
+    public synchronized void setJournalingEnabled(boolean enabled) {
+        if (!enabled) compactJournals();
+        journaling = enabled;
+    }
+
+    // Folds employee.journal into employee.txt and shortens attendance.journal right away
+    // The future completes with true once both are on disk
+    public synchronized CompletableFuture<Boolean> compactJournals() {
+        // Both are rewritten from memory, so a journal left by an earlier run needs the data loaded
+        if (employeeJournal.size() > 0) ensureEmployeeDataLoaded();
+        if (attendanceJournal.size() > 0) ensureAttendanceDataLoaded();
+        CompletableFuture<Boolean> employees = employeeJournal.size() > 0
+                ? writeEmployeeFile(employeeData) : CompletableFuture.completedFuture(true);
+        boolean attendance = attendanceJournal.size() == 0 || compactAttendanceJournal();
+        return employees.thenApply(saved -> saved && attendance);
+    }
+
+    // Rewrites attendance.journal with one entry per deleted employee and per edited day, as
+    // they are in memory now; attendance.txt itself is left to the time clocks
+    private boolean compactAttendanceJournal() {
+        List<ChangeJournal.Entry> entries = new ArrayList<>();
+        for (int employeeId : journaledEmployees) {
+            entries.add(new ChangeJournal.Entry(OP_DELETE_EMPLOYEE, String.valueOf(employeeId)));
+        }
+        for (long key : journaledDays) {
+            entries.add(new ChangeJournal.Entry(OP_SET_DAY, attendanceDayArgs((int) (key >> 32), (int) key)));
+        }
+        try {
+            attendanceJournal.rewrite(entries);
+            compactedAttendanceJournal = attendanceJournal.size();
+            System.out.println("✅ attendance.journal compacted: " + entries.size() + " entries");
+            if (compactedAttendanceJournal >= ATTENDANCE_FOLD_THRESHOLD) foldAttendanceJournal();
+            return true;
+        } catch (IOException e) {
+            System.out.println("❌ Error compacting attendance.journal: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Moves attendance into monthly partitions (as AttendancePartitionMigration does) when the
+    // compacted journal is still too large to replay on every load; the partitions then hold
+    // the edits and the journal is emptied. Runs in the background, as it writes every punch
+    private void foldAttendanceJournal() {
+        if (foldingAttendanceJournal || partitions.exists()) return;
+        foldingAttendanceJournal = true;
+        System.out.println("⚠ attendance.journal is " + compactedAttendanceJournal / 1024
+                + " KB after compaction; moving attendance into monthly partitions");
+        CompletableFuture.supplyAsync(this::migrateAttendanceToPartitions).whenComplete((migrated, error) -> {
+            synchronized (FileHandler.this) {
+                foldingAttendanceJournal = false; // Tried again after the next compaction if it failed
+            }
+        });
+    }
+
+    // {employee #, date, log in, log out, ...} of every punch the employee has on the day, from memory
+    private String[] attendanceDayArgs(int employeeId, int epochDay) {
+        int[] rows = attendanceStore.rowsOf(employeeId, epochDay);
+        String[] args = new String[2 + rows.length * 2];
+        args[0] = String.valueOf(employeeId);
+        args[1] = AttendanceStore.formatDate(epochDay);
+        for (int i = 0; i < rows.length; i++) {
+            args[2 + i * 2] = AttendanceStore.formatTime(attendanceStore.loginMinute(rows[i]));
+            args[3 + i * 2] = AttendanceStore.formatTime(attendanceStore.logoutMinute(rows[i]));
+        }
+        return args;
+    }
+
+    // Journals the employee's punches on the day as they are in memory now
+    private void persistAttendanceDay(int employeeId, int epochDay) {
+        if (employeeId < 0 || epochDay == AttendanceStore.NO_DATE) return;
+        persistAttendanceChange(OP_SET_DAY, attendanceDayArgs(employeeId, epochDay));
+    }
+
+    // Records an employee change in the journal, or rewrites employee.txt when journaling is off
+    private void persistEmployeeChange(byte op, String... args) {
+        if (journaling && journalChange(employeeJournal, op, args)) {
+            // Rewriting the base file trims the journal once it has grown large
+            if (employeeJournal.size() >= COMPACTION_THRESHOLD) writeEmployeeFile(employeeData);
+        } else {
+            writeEmployeeFile(employeeData);
+        }
+    }
+
+    // Records an attendance change in the journal; if it cannot be appended, the compacted
+    // journal (which is written from memory and so includes the change) replaces it
+    private void persistAttendanceChange(byte op, String... args) {
+        noteAttendanceChange(op, args);
+        if (!journalChange(attendanceJournal, op, args)
+                || attendanceJournal.size() >= compactedAttendanceJournal + COMPACTION_THRESHOLD) {
+            compactAttendanceJournal();
+        }
+    }
+
+    // Appends to a journal; returns false so the caller can fall back to a full write
+    private boolean journalChange(ChangeJournal journal, byte op, String... args) {
+        try {
+            journal.append(op, args);
+            return true;
+        } catch (IOException e) {
+            System.out.println("❌ Error writing " + journal.path().getFileName() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // ======== Utility Methods ========
+
+    // Retrieves benefits object by employee ID
+    public Benefits getBenefitsByEmployeeId(String employeeId) {
+        return benefitsOf(getEmployee(employeeId));
+    }
+
+    // Allowances of a typed employee; all zero if the employee is null
+    static Benefits benefitsOf(Employee employee) {
+        return employee != null ? employee.getBenefits() : new Benefits(0.0, 0.0, 0.0); // Default if not found
+    }
+
+    // ======== Migration ========
+
+    // Copies everything stored in the text files, with pending journal entries applied
+    synchronized StorageSnapshot exportSnapshot() {
+        ensureEmployeeDataLoaded();
+        ensureAttendanceDataLoaded();
+        List<String[]> employees = new ArrayList<>(employeeData.size());
+        for (int slot = 0; slot < employeeRows.size(); slot++) {
+            if (!deletedEmployeeSlots.get(slot)) employees.add(employeeRows.get(slot).copyCells());
+        }
+        String[] headers = employeeHeaders.isEmpty() ? getEmployeeHeaders() : employeeHeaders.toArray(String[]::new);
+        return new StorageSnapshot(headers, employees, attendanceStore.copy(), credentials.entries());
+    }
+
+    // Replaces the contents of all three files with the snapshot and waits until they are on disk
+    // Returns false if any file could not be written
+    boolean importSnapshot(StorageSnapshot snapshot) {
+        CompletableFuture<Boolean> employees;
+        CompletableFuture<Boolean> attendance;
+        synchronized (this) {
+            employeeHeaders.clear();
+            employeeHeaders.addAll(Arrays.asList(snapshot.employeeHeaders()));
+            employeeIdColumn = Math.max(employeeHeaders.indexOf("Employee #"), 0);
+            resolveEmployeeColumns();
+            employeeRows.clear();
+            employeeIndex.clear();
+            employeeRecords.clear();
+            clearDeletedEmployees();
+            for (String[] row : snapshot.employees()) {
+                if (!addEmployeeRow(row.clone())) {
+                    System.out.println("⚠ Skipped duplicate Employee # " + row[employeeIdColumn]);
+                }
+            }
+
+            attendanceStore.clear();
+            attendanceStore.addAll(snapshot.attendance());
+            clearJournaledAttendance();
+
+            // Writing the files from memory also empties the journals
+            employees = writeEmployeeFile(employeeData);
+            attendance = writeAttendanceFile(attendanceData);
+        }
+        CompletableFuture<Boolean> users = credentials.replaceAll(snapshot.credentials());
+        return employees.join() && attendance.join() && users.join();
+    }
+
+    // ======== Outside Changes ========
+
+    // Registers a listener for outside edits of employee.txt; the data folder is watched
+    // from the first registration on
+    public void addEmployeeListener(EmployeeDiff.Listener listener) {
+        employeeListeners.add(listener);
+        watcher.start();
+    }
+
+    public void removeEmployeeListener(EmployeeDiff.Listener listener) {
+        employeeListeners.remove(listener);
+        if (employeeListeners.isEmpty()) watcher.stop();
+    }
+
+    // Called on the watcher thread once a watched file has settled
+    private void fileChanged(String fileName) {
+        EmployeeDiff diff = reloadEmployeeChanges();
+        if (diff.isEmpty()) return;
+        System.out.println("✅ employee.txt changed outside the application: " + diff.inserted().size() + " added, "
+                + diff.updated().size() + " updated, " + diff.deleted().size() + " removed");
+        for (EmployeeDiff.Listener listener : employeeListeners) {
+            listener.employeesChanged(diff);
+        }
+    }
+
+    // Brings the rows in memory up to date with employee.txt (plus its journal) and returns
+    // what changed. The file is read outside the lock and only split into lines; a row
+    // whose line is unchanged is matched by its Employee # without being decoded. The
+    // changes are then applied under the lock, so readers never see a half-applied reload.
+    EmployeeDiff reloadEmployeeChanges() {
+        File file = new File(EMPLOYEE_FILE);
+        FileStamp current = FileStamp.of(file);
+        FileStamp loaded;
+        synchronized (this) {
+            loaded = employeeStamp;
+            if (employeeStamp == null || current == null || current.equals(employeeStamp)
+                    || pendingEmployeeWrites > 0) {
+                return EmployeeDiff.NONE; // Not loaded yet, gone, unchanged or our own rewrite
+            }
+        }
+
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (!line.trim().isEmpty()) lines.add(line);
+            }
+        } catch (IOException e) {
+            System.out.println("❌ Error reading employee file: " + e.getMessage());
+            return EmployeeDiff.NONE;
+        }
+        if (lines.isEmpty()) return EmployeeDiff.NONE;
+
+        synchronized (this) {
+            // Memory was written or reloaded meanwhile; its stamp decides what happens next
+            if (!Objects.equals(employeeStamp, loaded) || pendingEmployeeWrites > 0) return EmployeeDiff.NONE;
+
+            LineTokenizer tokenizer = new LineTokenizer(';');
+            tokenizer.tokenize(lines.get(0));
+            EmployeeDiff diff = Arrays.asList(tokenizer.toArray()).equals(employeeHeaders)
+                    ? mergeEmployeeLines(lines.subList(1, lines.size())) : null;
+            if (diff == null) {
+                // New columns or a duplicated Employee #: the rows cannot be matched, so take the file as it is
+                int oldIdColumn = employeeIdColumn;
+                List<String[]> before = getEmployeeData();
+                readEmployeeFile();
+                return EmployeeDiff.replaced(before, getEmployeeData(), oldIdColumn);
+            }
+            employeeStamp = current;
+            return diff;
+        }
+    }
+
+    // Applies the rows of a new employee.txt to memory and returns what changed, or null if
+    // an Employee # occurs twice so rows cannot be matched. Memory is the old file with the
+    // journal replayed on it, so the journal is replayed again on top of the new rows; only
+    // rows whose line changed, and rows the journal touches, are decoded and compared.
+    private EmployeeDiff mergeEmployeeLines(List<String> lines) {
+        Map<String, Integer> slotOf = new HashMap<>(employeeRows.size() * 2);
+        for (int slot = 0; slot < employeeRows.size(); slot++) {
+            if (deletedEmployeeSlots.get(slot)) continue;
+            if (slotOf.put(employeeRows.get(slot).cell(employeeIdColumn), slot) != null) return null;
+        }
+        Map<String, String> lineOf = new LinkedHashMap<>(lines.size() * 2);
+        for (String line : lines) {
+            if (lineOf.put(LineTokenizer.field(line, ';', employeeIdColumn), line) != null) return null;
+        }
+
+        // Employee #s the journal changes, including new ones given by an update
+        Set<String> touched = new HashSet<>();
+        String idHeader = employeeHeaders.get(employeeIdColumn);
+        try {
+            employeeJournal.replay((op, args) -> {
+                touched.add(op == OP_APPEND && employeeIdColumn < args.length ? args[employeeIdColumn] : args[0]);
+                for (int i = 1; op == OP_UPDATE && i + 1 < args.length; i += 2) {
+                    if (args[i].equals(idHeader)) touched.add(args[i + 1]);
+                }
+            });
+        } catch (IOException e) {
+            System.out.println("❌ Error reading employee.journal: " + e.getMessage());
+            return null;
+        }
+
+        // Rows as they are now, by Employee #; null for rows that do not exist yet
+        Map<String, String[]> before = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : lineOf.entrySet()) {
+            Integer slot = slotOf.get(entry.getKey());
+            if (slot == null) {
+                before.put(entry.getKey(), null);
+            } else if (!employeeRows.get(slot).isLine(entry.getValue()) || touched.contains(entry.getKey())) {
+                before.put(entry.getKey(), employeeRows.get(slot).copyCells());
+            }
+        }
+        for (Map.Entry<String, Integer> entry : slotOf.entrySet()) {
+            if (!lineOf.containsKey(entry.getKey()) || touched.contains(entry.getKey())) {
+                before.put(entry.getKey(), employeeRows.get(entry.getValue()).copyCells());
+            }
+        }
+        for (String id : touched) {
+            if (!before.containsKey(id)) before.put(id, null);
+        }
+        if (before.isEmpty()) return EmployeeDiff.NONE;
+
+        // Take the file's version of those rows, then the journal's edits on top of it
+        for (String id : before.keySet()) {
+            Integer slot = slotOf.get(id);
+            String line = lineOf.get(id);
+            if (line == null) {
+                if (slot != null) applyEmployeeDelete(id);
+            } else if (slot == null) {
+                addEmployeeLine(line);
+            } else {
+                replaceEmployeeLine(slot, line);
+            }
+        }
+        if (!touched.isEmpty()) {
+            try {
+                employeeJournal.replay(this::applyEmployeeChange);
+            } catch (IOException e) {
+                System.out.println("❌ Error reading employee.journal: " + e.getMessage());
+            }
+        }
+
+        List<String[]> inserted = new ArrayList<>();
+        List<String[]> updated = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        for (Map.Entry<String, String[]> entry : before.entrySet()) {
+            int slot = findEmployeeSlot(entry.getKey());
+            String[] after = slot == -1 ? null : employeeRows.get(slot).copyCells();
+            String[] old = entry.getValue();
+            if (old == null && after != null) {
+                inserted.add(after);
+                history.recordInsert(employeeHeaders, entry.getKey(), after);
+            } else if (old != null && after == null) {
+                deleted.add(entry.getKey());
+                history.recordDelete(employeeHeaders, entry.getKey(), old);
+            } else if (old != null && !Arrays.equals(old, after)) {
+                updated.add(after);
+                recordEmployeeUpdate(old, after);
+            }
+        }
+        return new EmployeeDiff(inserted, updated, deleted);
+    }
+
+    // ======== History ========
+
+    // Records an update in the history; a changed Employee # ends the old ID and starts the new one
+    private void recordEmployeeUpdate(String[] before, String[] after) {
+        String oldId = before[employeeIdColumn];
+        String newId = after[employeeIdColumn];
+        if (oldId.equals(newId)) {
+            history.recordUpdate(employeeHeaders, oldId, before, after);
+        } else {
+            history.recordDelete(employeeHeaders, oldId, before);
+            history.recordInsert(employeeHeaders, newId, after);
+        }
+    }
+
+    // Returns the employee as it was at the instant, or null if it did not exist then
+    // Starts from the nearest checkpoint in employee.history, so only a few changes are applied
+    public synchronized Employee getEmployeeAsOf(String employeeId, Instant instant) {
+        ensureEmployeeDataLoaded();
+        Map<String, String> columns = history.asOf(employeeId, instant, employeeHeaders, getEmployeeById(employeeId));
+        if (columns == null) return null;
+
+        String[] row = new String[employeeHeaders.size()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = columns.getOrDefault(employeeHeaders.get(i), "");
+        }
+        return employeeSchema.toEmployee(row);
+    }
+
+    // ======== Primary Index ========
+
+    // Returns the position of the employee in employeeData, or -1 if not found
+    private int findEmployeeSlot(String employeeId) {
+        if (employeeId == null) return -1;
+        int key = AttendanceStore.parseEmployeeId(employeeId);
+        if (key >= 0) {
+            int slot = employeeIndex.get(key);
+            // The index is keyed by number, so confirm the stored text matches exactly
+            return slot != IntIntHashMap.MISSING && employeeRows.get(slot).cell(employeeIdColumn).equals(employeeId)
+                    ? slot : -1;
+        }
+
+        // Non-numeric IDs are not indexed
+        for (int i = 0; i < employeeRows.size(); i++) {
+            if (!deletedEmployeeSlots.get(i) && employeeRows.get(i).cell(employeeIdColumn).equals(employeeId)) return i;
+        }
+        return -1;
+    }
+
+    // Adds the row's Employee # to the index unless it is already indexed
+    private void indexEmployeeRow(String employeeId, int slot) {
+        int key = AttendanceStore.parseEmployeeId(employeeId);
+        if (key < 0) return;
+        int indexed = employeeIndex.get(key);
+        if (indexed == IntIntHashMap.MISSING) {
+            employeeIndex.put(key, slot);
+        } else if (indexed != slot) {
+            duplicateEmployeeIds = true;
+        }
+    }
+
+    // Appends a raw employee.txt line; only the columns the indexes need are decoded now
+    private void addEmployeeLine(String line) {
+        EmployeeRow row = new EmployeeRow(line, employeeHeaders.size());
+        row.cells(indexedColumns); // One pass over the line for all of them
+        employeeRows.add(row);
+        indexEmployeeRow(row.cell(employeeIdColumn), employeeRows.size() - 1);
+        deriveEmployeeRow(row, employeeRows.size() - 1);
+        governmentIds.add(row::cell);
+    }
+
+    // Puts a raw line in place of the row in the slot; the Employee # stays the same
+    private void replaceEmployeeLine(int slot, String line) {
+        governmentIds.remove(employeeRows.get(slot)::cell);
+        EmployeeRow row = new EmployeeRow(line, employeeHeaders.size());
+        row.cells(indexedColumns);
+        employeeRows.set(slot, row);
+        deriveEmployeeRow(row, slot);
+        governmentIds.add(row::cell);
+    }
+
+    // Appends a row to employeeData and the index; returns false if the ID is already present
+    private boolean addEmployeeRow(String[] row) {
+        if (!employeeHeaders.isEmpty()) row = adjustRowLength(row, employeeHeaders.size());
+        if (findEmployeeSlot(row[employeeIdColumn]) != -1) return false;
+
+        EmployeeRow added = new EmployeeRow(row);
+        employeeRows.add(added);
+        indexEmployeeRow(row[employeeIdColumn], employeeRows.size() - 1);
+        deriveEmployeeRow(added, employeeRows.size() - 1);
+        governmentIds.add(added::cell);
+        return true;
+    }
+
+    // Recomputes every slot, in the index and the dictionary codes, after rows have shifted
+    private void rebuildEmployeeIndex() {
+        employeeIndex.clear();
+        governmentIds.clear();
+        duplicateEmployeeIds = false;
+        for (int i = 0; i < employeeRows.size(); i++) {
+            if (!deletedEmployeeSlots.get(i)) {
+                indexEmployeeRow(employeeRows.get(i).cell(employeeIdColumn), i);
+                governmentIds.add(employeeRows.get(i)::cell);
+            }
+            deriveEmployeeRow(employeeRows.get(i), i);
+        }
+        for (ColumnDictionary dictionary : dictionaries.values()) {
+            dictionary.truncate(employeeRows.size());
+        }
+        employeeRecords.subList(Math.min(employeeRows.size(), employeeRecords.size()), employeeRecords.size()).clear();
+    }
+
+    // ======== Deleted Rows ========
+
+    // Returns the slot of the index-th row that is not deleted: a binary search over the
+    // rank table finds its 64-slot word, then the live bits of that word are counted off
+    private int liveSlot(int index) {
+        if (deletedEmployeeCount == 0) return index;
+        if (liveBeforeWord == null) {
+            deletedWords = deletedEmployeeSlots.toLongArray();
+            liveBeforeWord = new int[deletedWords.length + 1];
+            for (int word = 0; word < deletedWords.length; word++) {
+                liveBeforeWord[word + 1] = liveBeforeWord[word] + Long.bitCount(~deletedWords[word]);
+            }
+        }
+
+        // Past the last word with a deleted slot every slot is live
+        int words = deletedWords.length;
+        if (index >= liveBeforeWord[words]) return words * 64 + index - liveBeforeWord[words];
+
+        // Last word with at most index live rows before it
+        int low = 0, high = words - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (liveBeforeWord[mid] <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        long live = ~deletedWords[low];
+        for (int skip = index - liveBeforeWord[low]; skip > 0; skip--) {
+            live &= live - 1; // Drops the lowest live slot
+        }
+        return low * 64 + Long.numberOfTrailingZeros(live);
+    }
+
+    private void markEmployeeDeleted(int slot) {
+        if (deletedEmployeeSlots.get(slot)) return;
+        governmentIds.remove(employeeRows.get(slot)::cell);
+        deletedEmployeeSlots.set(slot);
+        deletedEmployeeCount++;
+        liveBeforeWord = null;
+        if (slot < employeeRecords.size()) employeeRecords.set(slot, null);
+    }
+
+    private void clearDeletedEmployees() {
+        deletedEmployeeSlots.clear();
+        deletedEmployeeCount = 0;
+        liveBeforeWord = null;
+    }
+
+    // Queues a purge on a background thread; deletes made before it runs share it
+    // The purge holds the lock like every read, so readers never see rows half shifted
+    private void schedulePurge() {
+        if (purgeScheduled) return;
+        purgeScheduled = true;
+        CompletableFuture.runAsync(this::purgeDeletedEmployees,
+                CompletableFuture.delayedExecutor(PURGE_DELAY_MS, TimeUnit.MILLISECONDS));
+    }
+
+    // Removes every deleted row in a single pass and re-slots the rest
+    synchronized void purgeDeletedEmployees() {
+        purgeScheduled = false;
+        if (deletedEmployeeCount == 0) return;
+
+        int live = 0;
+        for (int slot = 0; slot < employeeRows.size(); slot++) {
+            if (deletedEmployeeSlots.get(slot)) continue;
+            employeeRows.set(live, employeeRows.get(slot));
+            if (slot < employeeRecords.size()) employeeRecords.set(live, employeeRecords.get(slot));
+            live++;
+        }
+        employeeRows.subList(live, employeeRows.size()).clear();
+        clearDeletedEmployees();
+        rebuildEmployeeIndex();
+    }
+
+    // ======== Derived Columns ========
+
+    // Resolves the schema from the headers and starts empty dictionaries for the dictionary columns
+    private void resolveEmployeeColumns() {
+        employeeSchema = EmployeeSchema.of(employeeHeaders);
+        governmentIds = new GovernmentIdIndex(employeeHeaders, employeeIdColumn);
+        dictionaries.clear();
+        for (String name : DICTIONARY_COLUMNS) {
+            int column = employeeHeaders.indexOf(name);
+            if (column != -1) dictionaries.put(column, new ColumnDictionary(column));
+        }
+        int[] numbers = governmentIds.columns();
+        indexedColumns = new int[1 + dictionaries.size() + numbers.length];
+        indexedColumns[0] = employeeIdColumn;
+        int next = 1;
+        for (int column : dictionaries.keySet()) {
+            indexedColumns[next++] = column;
+        }
+        for (int column : numbers) {
+            indexedColumns[next++] = column;
+        }
+    }
+
+    // Refreshes what is kept per slot besides the row: the codes of its dictionary
+    // columns (sharing their strings) and the typed employee, which is dropped until next requested
+    private void deriveEmployeeRow(EmployeeRow row, int slot) {
+        for (ColumnDictionary dictionary : dictionaries.values()) {
+            row.share(dictionary.column(), dictionary.encode(row.cell(dictionary.column()), slot));
+        }
+        if (slot < employeeRecords.size()) {
+            employeeRecords.set(slot, null);
+        } else {
+            employeeRecords.add(null);
+        }
+    }
+
+    // Returns the typed employee with this Employee #, parsed once after the row was loaded or changed
+    public synchronized Employee getEmployee(String employeeId) {
+        ensureEmployeeDataLoaded();
+        int slot = findEmployeeSlot(employeeId);
+        if (slot == -1) return null;
+        Employee employee = employeeRecords.get(slot);
+        if (employee == null) {
+            employee = employeeSchema.toEmployee(employeeRows.get(slot).cells());
+            employeeRecords.set(slot, employee);
+        }
+        return employee;
+    }
+
+    // Returns the employees whose column holds exactly this value
+    // Dictionary columns are matched by code: one lookup for the value, then int compares
+    public synchronized List<String[]> findEmployeesByValue(String columnName, String value) {
+        ensureEmployeeDataLoaded();
+        int column = employeeHeaders.indexOf(columnName);
+        List<String[]> matches = new ArrayList<>();
+        if (column == -1 || value == null) return matches;
+
+        ColumnDictionary dictionary = dictionaries.get(column);
+        if (dictionary != null) {
+            int code = dictionary.codeOf(value);
+            if (code == ColumnDictionary.MISSING) return matches;
+            for (int slot = 0; slot < dictionary.size(); slot++) {
+                if (dictionary.codeAt(slot) == code && !deletedEmployeeSlots.get(slot)) {
+                    matches.add(employeeRows.get(slot).copyCells());
+                }
+            }
+            return matches;
+        }
+
+        for (int slot = 0; slot < employeeRows.size(); slot++) {
+            if (deletedEmployeeSlots.get(slot)) continue;
+            if (employeeRows.get(slot).cell(column).equals(value)) matches.add(employeeRows.get(slot).copyCells());
+        }
+        return matches;
+    }
+
+    // Returns only the given columns of every employee, in file order, decoding just
+    // those columns; for listings that show a few columns of a large employee file
+    public synchronized List<String[]> getEmployeeColumns(int... columns) {
+        ensureEmployeeDataLoaded();
+        List<String[]> projected = new ArrayList<>(employeeData.size());
+        for (int slot = 0; slot < employeeRows.size(); slot++) {
+            if (!deletedEmployeeSlots.get(slot)) projected.add(employeeRows.get(slot).cells(columns));
+        }
+        return projected;
+    }
+
+    // Returns the punches dated from..to (inclusive) in date order, optionally of one employee
+    // Binary-searched in the store's day index, so only the rows of that range are formatted
+    public synchronized List<String[]> getAttendanceBetween(LocalDate from, LocalDate to, String employeeId) {
+        ensureAttendanceDataLoaded();
+        int id = employeeId == null ? -1 : AttendanceStore.parseEmployeeId(employeeId);
+        if (employeeId != null && id < 0) return new ArrayList<>();
+
+        int[] rows = attendanceStore.between((int) from.toEpochDay(), (int) to.toEpochDay(), id);
+        List<String[]> punches = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            punches.add(attendanceStore.toRow(row));
+        }
+        return punches;
+    }
+
+    // Finds the attendance row for the employee and date through the composite index
+    private int findAttendanceRow(String employeeId, String date) {
+        return attendanceStore.find(AttendanceStore.parseEmployeeId(employeeId), AttendanceStore.parseDate(date));
+    }
+
+    // Adjusts the length of the row to match expected number of columns
+    private String[] adjustRowLength(String[] fields, int expectedSize) {
+        if (fields.length < expectedSize) {
+            String[] padded = Arrays.copyOf(fields, expectedSize);
+            Arrays.fill(padded, fields.length, expectedSize, "");
+            return padded;
+        } else if (fields.length > expectedSize) {
+            return Arrays.copyOf(fields, expectedSize);
+        } else {
+            return fields;
+        }
+    }
+
+    // ======== Getters ========
+
+    // Returns a copy of the employee rows, taken under the lock so a purge or reload
+    // running at the same time cannot shift rows under the caller
+    public synchronized List<String[]> getEmployeeData() {
+        List<String[]> rows = new ArrayList<>(employeeData.size());
+        for (int slot = 0; slot < employeeRows.size(); slot++) {
+            if (!deletedEmployeeSlots.get(slot)) rows.add(employeeRows.get(slot).copyCells());
+        }
+        return rows;
+    }
+
+    // Returns a copy of the attendance rows, taken under the lock since polls add to them
+    // on a background thread
+    public synchronized List<String[]> getAttendanceData() {
+        return new ArrayList<>(attendanceData);
+    }
+
+    // Copy of the punches from the given row on; only those rows are formatted
+    public synchronized List<String[]> getAttendanceDataFrom(int firstRow) {
+        int size = attendanceData.size();
+        return new ArrayList<>(attendanceData.subList(Math.min(Math.max(firstRow, 0), size), size));
+    }
+
+    // Returns the typed attendance store, for callers that work with parsed values
+    public AttendanceStore getAttendanceStore() {
+        return attendanceStore;
+    }
+
+    // Returns predefined headers for employee file
+    public String[] getEmployeeHeaders() {
+        return EMPLOYEE_HEADERS.clone();
+    }
+
+    // Returns attendance file headers
+    public synchronized List<String> getAttendanceHeaders() {
+        return List.copyOf(attendanceHeaders);
+    }
+
+    // Returns a copy of the employee row with this ID, or null if there is none
+    public synchronized String[] getEmployeeById(String employeeId) {
+        int slot = findEmployeeSlot(employeeId);
+        return slot == -1 ? null : employeeRows.get(slot).copyCells();
+    }
+
+    // Returns the employee holding the SSS, PhilHealth, TIN or Pag-IBIG number, or null
+    // Dashes and spaces are ignored, so "44-4506057-3" finds "4445060573"
+    public synchronized String[] findEmployeeByGovernmentId(String columnName, String number) {
+        ensureEmployeeDataLoaded();
+        String owner = governmentIds.ownerOf(columnName, number);
+        return owner == null ? null : getEmployeeById(owner);
+    }
+
+
+    // ✅ Check if a username already exists in the credentials file
+    public boolean userExists(String username) {
+        return credentials.exists(username);
+    }
+
+    // ✅ Add a new user to the credentials file
+    // The future completes with true once the file is on disk
+    public CompletableFuture<Boolean> addUser(String username, String password) {
+        if (username.contains(",") || password.contains(",")) {
+            System.err.println("Username and password must not contain commas.");
+            return CompletableFuture.completedFuture(false);
+        }
+        return credentials.add(username, password);
+    }
+
+    // ✅ (Already mentioned) update user password
+    // The future completes with false if the user does not exist or the write failed
+    public CompletableFuture<Boolean> updateUserPassword(String username, String newPassword) {
+        if (newPassword.contains(",")) return CompletableFuture.completedFuture(false);
+        return credentials.updatePassword(username, newPassword);
+    }
+
+    // ✅ Return list of usernames
+    public List<String> getAllUsers() {
+        return credentials.usernames();
+    }
+
+    // Hashes the plain-text passwords left in credentials.txt (see PasswordMigration)
+    public int hashPlainTextPasswords() {
+        return credentials.hashPlainText();
     }
 
     
@@ -0,0 +1,12 @@
+package model;
+
+import java.io.File;
+
+// Identifies one version of a file on disk by its size and modification time
+record FileStamp(long size, long lastModified) {
+
+    // Returns the stamp of the file as it is now, or null if it does not exist
+    static FileStamp of(File file) {
+        return file.exists() ? new FileStamp(file.length(), file.lastModified()) : null;
+    }
+}
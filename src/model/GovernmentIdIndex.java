@@ -0,0 +1,135 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+// Unique indexes on the government ID columns (SSS, PhilHealth, TIN and Pag-IBIG).
+// Numbers are compared by their digits only, so "44-4506057-3" and "4445060573" are
+// the same number. Each column maps a normalized number to the Employee # holding it,
+// so finding who has a number, or whether a new one is taken, is a single hash lookup.
+// Data edited by hand may give one number to several employees; all of them are kept,
+// so the number stays taken until the last of them lets go of it.
+final class GovernmentIdIndex {
+
+    // Columns indexed, by header name
+    static final String[] COLUMNS = {"SSS #", "Philhealth #", "TIN #", "Pag-ibig #"};
+
+    private final int idColumn;
+    // Position of each of COLUMNS in a row, or -1 if the headers do not have it
+    private final int[] columns = new int[COLUMNS.length];
+    // Normalized number -> Employee #s holding it, the owner first; one map per entry of COLUMNS
+    private final List<Map<String, List<String>>> holders;
+
+    // Numbers found held by a second employee while indexing (from data edited by hand)
+    private int shared;
+
+    GovernmentIdIndex(List<String> headers, int idColumn) {
+        this.idColumn = idColumn;
+        List<Map<String, List<String>>> maps = new ArrayList<>();
+        for (int i = 0; i < COLUMNS.length; i++) {
+            columns[i] = headers.indexOf(COLUMNS[i]);
+            maps.add(new HashMap<>());
+        }
+        this.holders = List.copyOf(maps);
+    }
+
+    // Positions of the indexed columns that the rows have
+    int[] columns() {
+        return Arrays.stream(columns).filter(column -> column != -1).toArray();
+    }
+
+    // True if the column is one of the indexed ones
+    boolean isIndexed(String columnName) {
+        return slotOf(columnName) != -1;
+    }
+
+    // Keeps the digits of a number, or returns null if it has none (blank, "N/A", ...)
+    static String normalize(String number) {
+        if (number == null) return null;
+        StringBuilder digits = new StringBuilder(number.length());
+        for (int i = 0; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if (c >= '0' && c <= '9') digits.append(c);
+        }
+        return digits.isEmpty() ? null : digits.toString();
+    }
+
+    // Returns the Employee # holding the number in that column, or null if nobody does
+    String ownerOf(String columnName, String number) {
+        int slot = slotOf(columnName);
+        String key = normalize(number);
+        if (slot == -1 || key == null) return null;
+        List<String> ids = holders.get(slot).get(key);
+        return ids == null ? null : ids.get(0);
+    }
+
+    // Returns why the row's numbers cannot be given to the employee, or null if none is
+    // held by someone else; cell reads a column of the row by position
+    String conflict(String employeeId, IntFunction<String> cell) {
+        for (int slot = 0; slot < COLUMNS.length; slot++) {
+            if (columns[slot] == -1) continue;
+            String number = cell.apply(columns[slot]);
+            String owner = ownerOf(COLUMNS[slot], number);
+            if (owner != null && !owner.equals(employeeId)) {
+                return COLUMNS[slot] + " " + number + " already belongs to employee " + owner;
+            }
+        }
+        return null;
+    }
+
+    // Indexes the numbers of a row; a number someone else holds already stays theirs, and
+    // the row is recorded as a further holder
+    void add(IntFunction<String> cell) {
+        String employeeId = cell.apply(idColumn);
+        for (int slot = 0; slot < COLUMNS.length; slot++) {
+            if (columns[slot] == -1) continue;
+            String key = normalize(cell.apply(columns[slot]));
+            if (key == null) continue;
+            List<String> ids = holders.get(slot).computeIfAbsent(key, k -> new ArrayList<>(1));
+            if (ids.contains(employeeId)) continue;
+            if (!ids.isEmpty()) shared++;
+            ids.add(employeeId);
+        }
+    }
+
+    // Drops the row as a holder of its numbers; a number stays indexed while another
+    // employee still holds it, and the next of them becomes its owner
+    void remove(IntFunction<String> cell) {
+        String employeeId = cell.apply(idColumn);
+        for (int slot = 0; slot < COLUMNS.length; slot++) {
+            if (columns[slot] == -1) continue;
+            String key = normalize(cell.apply(columns[slot]));
+            if (key == null) continue;
+            List<String> ids = holders.get(slot).get(key);
+            if (ids == null || !ids.remove(employeeId)) continue;
+            if (ids.isEmpty()) {
+                holders.get(slot).remove(key);
+            } else {
+                shared--;
+            }
+        }
+    }
+
+    void clear() {
+        for (Map<String, List<String>> map : holders) {
+            map.clear();
+        }
+        shared = 0;
+    }
+
+    // Extra holders of numbers that more than one employee holds
+    int sharedCount() {
+        return shared;
+    }
+
+    private int slotOf(String columnName) {
+        for (int slot = 0; slot < COLUMNS.length; slot++) {
+            if (columns[slot] != -1 && COLUMNS[slot].equals(columnName)) return slot;
+        }
+        return -1;
+    }
+}
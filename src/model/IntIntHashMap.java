@@ -0,0 +1,135 @@
+package model;
+
+import java.util.Arrays;
+
+// Open-addressing hash map from int keys to non-negative int values.
+// Keys and values live in two flat int arrays (no boxing, no entry objects)
+// and collisions are resolved by linear probing. Used for the Employee #
+// primary index, where the value is the row slot of the employee.
+final class IntIntHashMap {
+
+    // Returned by get() when the key is not present
+    static final int MISSING = -1;
+
+    // Marks an unused slot in the values array
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    IntIntHashMap() {
+        this(16);
+    }
+
+    IntIntHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Returns the value for the key, or MISSING
+    int get(int key) {
+        int slot = hash(key) & mask;
+        while (values[slot] != EMPTY) {
+            if (keys[slot] == key) return values[slot];
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    boolean containsKey(int key) {
+        return get(key) != MISSING;
+    }
+
+    // Maps the key to a non-negative value and returns the previous value, or MISSING
+    int put(int key, int value) {
+        if (value < 0) throw new IllegalArgumentException("Values must be non-negative: " + value);
+
+        int slot = hash(key) & mask;
+        while (values[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (mask + 1) * 3 / 4) rehash((mask + 1) * 2);
+        return MISSING;
+    }
+
+    // Removes the key and returns its value, or MISSING
+    int remove(int key) {
+        int slot = hash(key) & mask;
+        while (values[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                shiftBack(slot);
+                size--;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    void clear() {
+        Arrays.fill(values, EMPTY);
+        size = 0;
+    }
+
+    // Closes the gap left by a removed entry so probe chains stay unbroken
+    private void shiftBack(int gap) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (values[slot] == EMPTY) break;
+
+            int home = hash(keys[slot]) & mask;
+            // Move the entry into the gap if its home slot is not between the gap and its position
+            boolean movable = gap <= slot ? (home <= gap || home > slot) : (home <= gap && home > slot);
+            if (movable) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        values[gap] = EMPTY;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != EMPTY) put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity * 3 / 4 < expectedSize) capacity <<= 1;
+        return capacity;
+    }
+
+    // Spreads sequential employee numbers across the table
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
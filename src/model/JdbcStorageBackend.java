@@ -0,0 +1,1242 @@
+package model;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Storage backend on an embedded SQL database reached through plain JDBC, e.g.
+//   jdbc:h2:./data/motorph   or   jdbc:sqlite:data/motorph.db
+// The driver jar only has to be on the classpath (src/lib has H2); no other code depends on it.
+// Employees are looked up through a unique index on Employee #, punches through an
+// (employee, day) index and a day index, logins through the credential primary key.
+// Every table keeps a row_no column so rows come back in the order they were added,
+// like the lines of the text files. A data_version row per data set is bumped on
+// every change other than an attendance append, so a process notices when another
+// one changed the data and reloads, the same way FileHandler compares file stamps.
+public class JdbcStorageBackend implements StorageBackend {
+
+    // Column names for FileHandler.EMPLOYEE_HEADERS, in the same order
+    private static final String[] EMPLOYEE_COLUMNS = {
+            "employee_no", "last_name", "first_name", "birthday", "address", "phone_number",
+            "sss_no", "philhealth_no", "tin_no", "pagibig_no", "status", "job_position",
+            "immediate_supervisor", "basic_salary", "rice_subsidy", "phone_allowance",
+            "clothing_allowance", "gross_semi_monthly_rate", "hourly_rate"
+    };
+
+    private static final List<String> HEADERS = List.of(FileHandler.EMPLOYEE_HEADERS);
+
+    private static final String EMPLOYEES = "employee";
+    private static final String ATTENDANCE = "attendance";
+
+    // Rows fetched per round trip when loading or streaming, and rows per insert batch
+    private static final int FETCH_SIZE = 4096;
+    private static final int BATCH_SIZE = 10_000;
+
+    private final String url;
+    private final Connection connection; // Guarded by this
+
+    // Loaded employees, in row_no order, and the same rows by Employee #
+    private final List<String[]> employeeData = new ArrayList<>();
+    private final Map<String, String[]> employeeRows = new HashMap<>();
+    // Unique indexes on the government ID numbers of the loaded rows
+    private final GovernmentIdIndex governmentIds = new GovernmentIdIndex(HEADERS, 0);
+    private boolean employeesLoaded;
+    private long employeeVersion;
+
+    // Loaded punches, the highest row_no among them and the version they were read at
+    private final AttendanceStore attendanceStore = new AttendanceStore();
+    private boolean attendanceLoaded;
+    private long attendanceVersion;
+    private long lastAttendanceRow;
+
+    // Every employee change with its time, kept in the employee_history table
+    private final EmployeeHistory history = new EmployeeHistory(new HistoryTable());
+
+    // Listeners for changes made by other processes; data_version is polled while there are any
+    private static final long POLL_SECONDS = 2;
+    private final List<EmployeeDiff.Listener> employeeListeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService poller; // Guarded by this
+    private ScheduledFuture<?> polling;
+
+    // Opens the database and creates the tables and indexes it does not have yet
+    public JdbcStorageBackend(String url) throws SQLException {
+        this.url = url;
+        this.connection = DriverManager.getConnection(url);
+        createSchema();
+        warnAboutPlainTextPasswords();
+    }
+
+    private void createSchema() throws SQLException {
+        StringBuilder employeeTable = new StringBuilder("CREATE TABLE IF NOT EXISTS employee (row_no BIGINT PRIMARY KEY");
+        for (String column : EMPLOYEE_COLUMNS) {
+            employeeTable.append(", ").append(column).append(" VARCHAR NOT NULL");
+        }
+        employeeTable.append(')');
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(employeeTable.toString());
+            statement.executeUpdate("CREATE UNIQUE INDEX IF NOT EXISTS employee_by_number ON employee (employee_no)");
+
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS attendance (row_no BIGINT PRIMARY KEY, "
+                    + "employee_id INTEGER NOT NULL, epoch_day INTEGER NOT NULL, "
+                    + "login_minute SMALLINT NOT NULL, logout_minute SMALLINT NOT NULL)");
+            // Not unique: attendance.txt may hold more than one punch per employee and day
+            statement.executeUpdate("CREATE INDEX IF NOT EXISTS attendance_by_employee_day ON attendance (employee_id, epoch_day)");
+            statement.executeUpdate("CREATE INDEX IF NOT EXISTS attendance_by_day ON attendance (epoch_day)");
+
+            // password holds a salted hash (see PasswordHash); rows from before passwords were
+            // hashed hold the password itself until PasswordMigration runs
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS credential (username VARCHAR PRIMARY KEY, "
+                    + "password VARCHAR NOT NULL, row_no BIGINT NOT NULL)");
+
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS data_version (name VARCHAR PRIMARY KEY, version BIGINT NOT NULL)");
+
+            // Records of EmployeeHistory, in append order
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS employee_history (row_no BIGINT PRIMARY KEY, "
+                    + "op SMALLINT NOT NULL, args VARCHAR NOT NULL)");
+        }
+        for (String name : new String[]{EMPLOYEES, ATTENDANCE}) {
+            if (readVersion(name) < 0) {
+                try (PreparedStatement insert = connection.prepareStatement("INSERT INTO data_version (name, version) VALUES (?, 0)")) {
+                    insert.setString(1, name);
+                    insert.executeUpdate();
+                }
+            }
+        }
+    }
+
+    // ======== Employees ========
+
+    // Loads the employee table unless it has not changed since the last load
+    public synchronized boolean ensureEmployeeDataLoaded() {
+        try {
+            long version = readVersion(EMPLOYEES);
+            if (employeesLoaded && version == employeeVersion) return false;
+
+            // Versioned before reading, so a change made meanwhile triggers another reload
+            employeeVersion = version;
+            employeeData.clear();
+            employeeRows.clear();
+            governmentIds.clear();
+            try (PreparedStatement query = connection.prepareStatement(
+                    "SELECT " + String.join(", ", EMPLOYEE_COLUMNS) + " FROM employee ORDER BY row_no")) {
+                query.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = query.executeQuery()) {
+                    while (rs.next()) {
+                        String[] row = readEmployeeRow(rs);
+                        employeeData.add(row);
+                        employeeRows.put(row[0], row);
+                        governmentIds.add(column -> row[column]);
+                    }
+                }
+            }
+            employeesLoaded = true;
+            System.out.println("✅ employee table loaded: " + employeeData.size() + " rows");
+            return true;
+        } catch (SQLException e) {
+            System.out.println("❌ Error reading employee table: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // A copy taken under the lock, since a reload replaces the rows on the watcher thread
+    public synchronized List<String[]> getEmployeeData() {
+        List<String[]> rows = new ArrayList<>(employeeData.size());
+        for (String[] row : employeeData) {
+            rows.add(row.clone());
+        }
+        return rows;
+    }
+
+    public String[] getEmployeeHeaders() {
+        return FileHandler.EMPLOYEE_HEADERS.clone();
+    }
+
+    // Looks the employee up through the unique index instead of the loaded rows
+    public synchronized String[] getEmployeeById(String employeeId) {
+        if (employeeId == null) return null;
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT " + String.join(", ", EMPLOYEE_COLUMNS) + " FROM employee WHERE employee_no = ?")) {
+            query.setString(1, employeeId);
+            try (ResultSet rs = query.executeQuery()) {
+                return rs.next() ? readEmployeeRow(rs) : null;
+            }
+        } catch (SQLException e) {
+            System.out.println("❌ Error reading employee " + employeeId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Looked up in the in-memory index of the loaded rows, then fetched by Employee #
+    public synchronized String[] findEmployeeByGovernmentId(String columnName, String number) {
+        ensureEmployeeDataLoaded();
+        String owner = governmentIds.ownerOf(columnName, number);
+        return owner == null ? null : employeeRows.get(owner).clone();
+    }
+
+    // The columns are fixed here, so rows are parsed with the standard schema
+    public Employee getEmployee(String employeeId) {
+        return EmployeeSchema.STANDARD.toEmployee(getEmployeeById(employeeId));
+    }
+
+    public Benefits getBenefitsByEmployeeId(String employeeId) {
+        return FileHandler.benefitsOf(getEmployee(employeeId));
+    }
+
+    // Rebuilt from the nearest checkpoint in employee_history
+    public synchronized Employee getEmployeeAsOf(String employeeId, Instant instant) {
+        Map<String, String> columns = history.asOf(employeeId, instant, HEADERS, getEmployeeById(employeeId));
+        if (columns == null) return null;
+
+        String[] row = new String[HEADERS.size()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = columns.getOrDefault(HEADERS.get(i), "");
+        }
+        return EmployeeSchema.STANDARD.toEmployee(row);
+    }
+
+    // Selects just the requested columns, so the others are never fetched
+    public synchronized List<String[]> getEmployeeColumns(int... columns) {
+        List<String[]> projected = new ArrayList<>();
+        StringBuilder select = new StringBuilder("SELECT ");
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) select.append(", ");
+            select.append(EMPLOYEE_COLUMNS[columns[i]]);
+        }
+        if (columns.length == 0) select.append("row_no");
+        select.append(" FROM employee ORDER BY row_no");
+
+        try (PreparedStatement query = connection.prepareStatement(select.toString())) {
+            query.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    String[] values = new String[columns.length];
+                    for (int i = 0; i < columns.length; i++) {
+                        values[i] = rs.getString(i + 1);
+                    }
+                    projected.add(values);
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("❌ Error reading employee columns: " + e.getMessage());
+        }
+        return projected;
+    }
+
+    // The database compares the values itself, so no dictionary is kept here
+    public synchronized List<String[]> findEmployeesByValue(String columnName, String value) {
+        List<String[]> matches = new ArrayList<>();
+        int column = Arrays.asList(FileHandler.EMPLOYEE_HEADERS).indexOf(columnName);
+        if (column == -1 || value == null) return matches;
+
+        try (PreparedStatement query = connection.prepareStatement("SELECT " + String.join(", ", EMPLOYEE_COLUMNS)
+                + " FROM employee WHERE " + EMPLOYEE_COLUMNS[column] + " = ? ORDER BY row_no")) {
+            query.setString(1, value);
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    matches.add(readEmployeeRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("❌ Error searching employees by " + columnName + ": " + e.getMessage());
+        }
+        return matches;
+    }
+
+    public synchronized boolean appendEmployeeToFile(String[] employeeRow) {
+        ensureEmployeeDataLoaded();
+        String[] row = Arrays.copyOf(employeeRow, EMPLOYEE_COLUMNS.length);
+        for (int i = 0; i < row.length; i++) {
+            if (row[i] == null) row[i] = "";
+        }
+        String taken = governmentIds.conflict(row[0], column -> row[column]);
+        if (taken != null) {
+            System.out.println("❌ Employee # " + row[0] + " not added: " + taken);
+            return false;
+        }
+
+        try {
+            Long version = inTransaction(() -> {
+                if (employeeExists(row[0])) return null;
+                try (PreparedStatement insert = connection.prepareStatement(insertEmployeeSql())) {
+                    bindEmployeeRow(insert, nextRowNo(EMPLOYEES), row);
+                    insert.executeUpdate();
+                }
+                return bumpVersion(EMPLOYEES);
+            });
+            if (version == null) {
+                System.out.println("❌ Employee # " + row[0] + " already exists.");
+                return false;
+            }
+
+            if (employeesLoaded) {
+                employeeData.add(row);
+                employeeRows.put(row[0], row);
+                governmentIds.add(column -> row[column]);
+            }
+            employeeChanged(version);
+            history.recordInsert(HEADERS, row[0], row);
+            return true;
+        } catch (SQLException e) {
+            System.out.println("❌ Error adding employee " + row[0] + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    public boolean updateEmployeeField(String employeeId, String columnName, String newValue) {
+        return updateEmployee(employeeId, Map.of(columnName, newValue));
+    }
+
+    // Applies all changes in one UPDATE; nothing is changed if any of them is invalid
+    public synchronized boolean updateEmployee(String employeeId, Map<String, String> changes) {
+        ensureEmployeeDataLoaded();
+        if (changes.isEmpty()) return false;
+        String error = validateEmployeeChanges(employeeId, changes);
+        if (error != null) {
+            System.out.println("❌ Employee " + employeeId + " not updated: " + error);
+            return false;
+        }
+
+        List<Integer> columns = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("UPDATE employee SET ");
+        for (String header : changes.keySet()) {
+            int column = Arrays.asList(FileHandler.EMPLOYEE_HEADERS).indexOf(header);
+            if (!columns.isEmpty()) sql.append(", ");
+            sql.append(EMPLOYEE_COLUMNS[column]).append(" = ?");
+            columns.add(column);
+        }
+        sql.append(" WHERE employee_no = ?");
+        String[] before = getEmployeeById(employeeId);
+
+        try {
+            Long version = inTransaction(() -> {
+                try (PreparedStatement update = connection.prepareStatement(sql.toString())) {
+                    int parameter = 1;
+                    for (String value : changes.values()) {
+                        update.setString(parameter++, value);
+                    }
+                    update.setString(parameter, employeeId);
+                    if (update.executeUpdate() == 0) return null;
+                }
+                return bumpVersion(EMPLOYEES);
+            });
+            if (version == null) return false;
+
+            String[] row = employeeRows.remove(employeeId);
+            if (row != null) {
+                governmentIds.remove(column -> row[column]);
+                int i = 0;
+                for (String value : changes.values()) {
+                    row[columns.get(i++)] = value;
+                }
+                employeeRows.put(row[0], row); // Re-keyed if the Employee # itself changed
+                governmentIds.add(column -> row[column]);
+            }
+            employeeChanged(version);
+
+            String[] after = before.clone();
+            int i = 0;
+            for (String value : changes.values()) {
+                after[columns.get(i++)] = value;
+            }
+            if (after[0].equals(employeeId)) {
+                history.recordUpdate(HEADERS, employeeId, before, after);
+            } else {
+                history.recordDelete(HEADERS, employeeId, before);
+                history.recordInsert(HEADERS, after[0], after);
+            }
+            return true;
+        } catch (SQLException e) {
+            System.out.println("❌ Error updating employee " + employeeId + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    public boolean updateBenefitsByEmployeeId(String employeeId, Benefits benefits) {
+        Map<String, String> changes = new LinkedHashMap<>();
+        changes.put("Rice Subsidy", String.valueOf(benefits.getRiceSubsidy()));
+        changes.put("Phone Allowance", String.valueOf(benefits.getPhoneAllowance()));
+        changes.put("Clothing Allowance", String.valueOf(benefits.getClothingAllowance()));
+        return updateEmployee(employeeId, changes);
+    }
+
+    public boolean deleteEmployeeById(String employeeId) {
+        return deleteEmployeeById(employeeId, false);
+    }
+
+    // With cascadeAttendance the punches go in the same transaction, found through
+    // attendance_by_employee_day rather than a scan of the table
+    public synchronized boolean deleteEmployeeById(String employeeId, boolean cascadeAttendance) {
+        ensureEmployeeDataLoaded();
+        String[] before = getEmployeeById(employeeId);
+        int id = AttendanceStore.parseEmployeeId(employeeId);
+        try {
+            long[] versions = inTransaction(() -> {
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM employee WHERE employee_no = ?")) {
+                    delete.setString(1, employeeId);
+                    if (delete.executeUpdate() == 0) return null;
+                }
+                long attendance = -1;
+                if (cascadeAttendance && id >= 0) {
+                    try (PreparedStatement delete = connection.prepareStatement("DELETE FROM attendance WHERE employee_id = ?")) {
+                        delete.setInt(1, id);
+                        if (delete.executeUpdate() > 0) attendance = bumpVersion(ATTENDANCE);
+                    }
+                }
+                return new long[]{bumpVersion(EMPLOYEES), attendance};
+            });
+            if (versions == null) return false;
+
+            String[] row = employeeRows.remove(employeeId);
+            if (row != null) {
+                employeeData.remove(row);
+                governmentIds.remove(column -> row[column]);
+            }
+            employeeChanged(versions[0]);
+            if (versions[1] != -1) {
+                if (attendanceLoaded) attendanceStore.removeEmployee(id);
+                attendanceChanged(versions[1]);
+            }
+            if (before != null) history.recordDelete(HEADERS, employeeId, before);
+            return true;
+        } catch (SQLException e) {
+            System.out.println("❌ Error deleting employee " + employeeId + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Returns why a set of employee changes cannot be applied, or null if they are valid
+    // Values follow the rules of employee.txt so the data can always be migrated back
+    private String validateEmployeeChanges(String employeeId, Map<String, String> changes) {
+        if (getEmployeeById(employeeId) == null) return "employee not found";
+
+        List<String> headers = Arrays.asList(FileHandler.EMPLOYEE_HEADERS);
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            String column = change.getKey();
+            String value = change.getValue();
+            if (!headers.contains(column)) return "unknown column '" + column + "'";
+            if (value == null) return column + " has no value";
+            if (value.indexOf(';') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                return column + " must not contain ';' or line breaks";
+            }
+            if (column.equals("Employee #") && !value.equals(employeeId) && getEmployeeById(value) != null) {
+                return "Employee # " + value + " already exists";
+            }
+            String owner = governmentIds.ownerOf(column, value);
+            if (owner != null && !owner.equals(employeeId)) {
+                return column + " " + value + " already belongs to employee " + owner;
+            }
+        }
+        return null;
+    }
+
+    // Keeps the loaded rows current after our own change, unless another process
+    // changed the table in between; then the next ensureEmployeeDataLoaded reloads
+    private void employeeChanged(long version) {
+        employeeVersion = version == employeeVersion + 1 ? version : -1;
+    }
+
+    // The database sends no notifications, so other processes' changes are found by polling
+    // the employee version and diffing the reloaded rows against the previous ones
+    public synchronized void addEmployeeListener(EmployeeDiff.Listener listener) {
+        employeeListeners.add(listener);
+        if (polling != null) return;
+        if (poller == null) {
+            poller = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "employee-version-poll");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        polling = poller.scheduleWithFixedDelay(this::pollEmployees, POLL_SECONDS, POLL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public synchronized void removeEmployeeListener(EmployeeDiff.Listener listener) {
+        employeeListeners.remove(listener);
+        if (employeeListeners.isEmpty() && polling != null) {
+            polling.cancel(false);
+            polling = null;
+        }
+    }
+
+    private void pollEmployees() {
+        EmployeeDiff diff = reloadEmployeeChanges();
+        if (diff.isEmpty()) return;
+        for (EmployeeDiff.Listener listener : employeeListeners) {
+            listener.employeesChanged(diff);
+        }
+    }
+
+    // Reloads the employees if their version moved and returns what changed
+    synchronized EmployeeDiff reloadEmployeeChanges() {
+        if (!employeesLoaded) return EmployeeDiff.NONE;
+        try {
+            if (readVersion(EMPLOYEES) == employeeVersion) return EmployeeDiff.NONE;
+        } catch (SQLException e) {
+            System.out.println("⚠ Error checking employee version: " + e.getMessage());
+            return EmployeeDiff.NONE;
+        }
+
+        // Reloading builds new row arrays, so the old ones still hold the previous values
+        List<String[]> before = new ArrayList<>(employeeData);
+        if (!ensureEmployeeDataLoaded()) return EmployeeDiff.NONE;
+        EmployeeDiff diff = EmployeeDiff.between(before, employeeData, 0); // Employee # is unique here
+        return diff != null ? diff : EmployeeDiff.replaced(before, employeeData, 0);
+    }
+
+    private boolean employeeExists(String employeeId) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement("SELECT 1 FROM employee WHERE employee_no = ?")) {
+            query.setString(1, employeeId);
+            try (ResultSet rs = query.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static String[] readEmployeeRow(ResultSet rs) throws SQLException {
+        String[] row = new String[EMPLOYEE_COLUMNS.length];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = rs.getString(i + 1);
+        }
+        return row;
+    }
+
+    private static String insertEmployeeSql() {
+        return "INSERT INTO employee (row_no, " + String.join(", ", EMPLOYEE_COLUMNS) + ") VALUES (?"
+                + ", ?".repeat(EMPLOYEE_COLUMNS.length) + ")";
+    }
+
+    private static void bindEmployeeRow(PreparedStatement insert, long rowNo, String[] row) throws SQLException {
+        insert.setLong(1, rowNo);
+        for (int i = 0; i < EMPLOYEE_COLUMNS.length; i++) {
+            insert.setString(i + 2, i < row.length && row[i] != null ? row[i] : "");
+        }
+    }
+
+    // ======== Attendance ========
+
+    // Loads the attendance table, or only the punches appended since the last load
+    public synchronized boolean ensureAttendanceDataLoaded() {
+        try {
+            if (attendanceLoaded && readVersion(ATTENDANCE) == attendanceVersion) {
+                return readAppendedPunches() > 0;
+            }
+            readAttendance();
+            return true;
+        } catch (SQLException e) {
+            System.out.println("❌ Error reading attendance table: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // A copy taken under the lock, since polls add punches on a background thread
+    public synchronized List<String[]> getAttendanceData() {
+        return new ArrayList<>(attendanceStore.asRows());
+    }
+
+    public synchronized List<String[]> getAttendanceDataFrom(int firstRow) {
+        List<String[]> rows = attendanceStore.asRows();
+        return new ArrayList<>(rows.subList(Math.min(Math.max(firstRow, 0), rows.size()), rows.size()));
+    }
+
+    // The table has no header row
+    public List<String> getAttendanceHeaders() {
+        return Collections.emptyList();
+    }
+
+    // Streams the punches in row order over a connection of its own, fetching them in pages,
+    // so memory use stays bounded however large the table is; close the stream when done
+    public Stream<AttendanceRecord> streamAttendance(Predicate<? super AttendanceRecord> filter) {
+        return streamPunches("", Long.MIN_VALUE, Long.MAX_VALUE).filter(filter);
+    }
+
+    // Reads only the month's rows through the day index
+    public Stream<AttendanceRecord> streamAttendance(YearMonth month, Predicate<? super AttendanceRecord> filter) {
+        return streamPunches(" WHERE epoch_day BETWEEN ? AND ?", month.atDay(1).toEpochDay(),
+                month.atEndOfMonth().toEpochDay()).filter(filter);
+    }
+
+    // Answered from the day index alone: one entry per distinct day
+    public synchronized List<YearMonth> getAttendanceMonths() {
+        Set<YearMonth> months = new TreeSet<>();
+        try (PreparedStatement query = connection.prepareStatement("SELECT DISTINCT epoch_day FROM attendance");
+             ResultSet rs = query.executeQuery()) {
+            while (rs.next()) {
+                if (rs.getInt(1) != AttendanceStore.NO_DATE) months.add(YearMonth.from(LocalDate.ofEpochDay(rs.getInt(1))));
+            }
+        } catch (SQLException e) {
+            System.out.println("❌ Error reading attendance table: " + e.getMessage());
+        }
+        return new ArrayList<>(months);
+    }
+
+    // Range scan of attendance_by_day, or of attendance_by_employee_day for one employee
+    public synchronized List<String[]> getAttendanceBetween(LocalDate from, LocalDate to, String employeeId) {
+        List<String[]> punches = new ArrayList<>();
+        int id = employeeId == null ? -1 : AttendanceStore.parseEmployeeId(employeeId);
+        if (employeeId != null && id < 0) return punches;
+
+        String sql = "SELECT employee_id, epoch_day, login_minute, logout_minute FROM attendance "
+                + "WHERE epoch_day BETWEEN ? AND ?" + (id >= 0 ? " AND employee_id = ?" : "")
+                + " ORDER BY epoch_day, row_no";
+        try (PreparedStatement query = connection.prepareStatement(sql)) {
+            query.setLong(1, from.toEpochDay());
+            query.setLong(2, to.toEpochDay());
+            if (id >= 0) query.setInt(3, id);
+            query.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    punches.add(new String[]{String.valueOf(rs.getInt(1)), AttendanceStore.formatDate(rs.getInt(2)),
+                            AttendanceStore.formatTime(rs.getShort(3)), AttendanceStore.formatTime(rs.getShort(4))});
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("❌ Error reading attendance between " + from + " and " + to + ": " + e.getMessage());
+        }
+        return punches;
+    }
+
+    // The employee's entries of attendance_by_employee_day are contiguous and date-sorted,
+    // so both of these read only that employee's part of the index
+    public synchronized List<YearMonth> getAttendanceMonths(String employeeId) {
+        Set<YearMonth> months = new TreeSet<>();
+        int id = AttendanceStore.parseEmployeeId(employeeId);
+        if (id < 0) return new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT DISTINCT epoch_day FROM attendance WHERE employee_id = ?")) {
+            query.setInt(1, id);
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    if (rs.getInt(1) != AttendanceStore.NO_DATE) months.add(YearMonth.from(LocalDate.ofEpochDay(rs.getInt(1))));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("❌ Error reading attendance of employee " + employeeId + ": " + e.getMessage());
+        }
+        return new ArrayList<>(months);
+    }
+
+    public synchronized Stream<AttendanceRecord> streamAttendance(String employeeId, YearMonth month) {
+        List<AttendanceRecord> punches = new ArrayList<>();
+        int id = AttendanceStore.parseEmployeeId(employeeId);
+        if (id < 0) return punches.stream();
+        try (PreparedStatement query = connection.prepareStatement("SELECT epoch_day, login_minute, logout_minute "
+                + "FROM attendance WHERE employee_id = ? AND epoch_day BETWEEN ? AND ? ORDER BY epoch_day, row_no")) {
+            query.setInt(1, id);
+            query.setLong(2, month.atDay(1).toEpochDay());
+            query.setLong(3, month.atEndOfMonth().toEpochDay());
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    punches.add(new AttendanceRecord(id, rs.getInt(1), rs.getShort(2), rs.getShort(3)));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("❌ Error reading attendance of employee " + employeeId + ": " + e.getMessage());
+        }
+        return punches.stream();
+    }
+
+    // Streams the punches matching the condition (with two day bounds, if it has parameters)
+    private Stream<AttendanceRecord> streamPunches(String condition, long firstDay, long lastDay) {
+        Connection streamConnection = null;
+        try {
+            streamConnection = DriverManager.getConnection(url);
+            PreparedStatement query = streamConnection.prepareStatement("SELECT employee_id, epoch_day, "
+                    + "login_minute, logout_minute FROM attendance" + condition + " ORDER BY row_no");
+            if (!condition.isEmpty()) {
+                query.setLong(1, firstDay);
+                query.setLong(2, lastDay);
+            }
+            query.setFetchSize(FETCH_SIZE);
+            ResultSet rs = query.executeQuery();
+
+            Spliterator<AttendanceRecord> punches = new Spliterators.AbstractSpliterator<>(
+                    Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super AttendanceRecord> action) {
+                    try {
+                        if (!rs.next()) return false;
+                        action.accept(new AttendanceRecord(rs.getInt(1), rs.getInt(2), rs.getShort(3), rs.getShort(4)));
+                        return true;
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("Error reading attendance table: " + e.getMessage(), e);
+                    }
+                }
+            };
+            Connection opened = streamConnection;
+            return StreamSupport.stream(punches, false).onClose(() -> close(opened));
+        } catch (SQLException e) {
+            System.out.println("❌ Error reading attendance table: " + e.getMessage());
+            if (streamConnection != null) close(streamConnection);
+            return Stream.empty();
+        }
+    }
+
+    // Returns how many punches were appended since the last load, or -1 after a full reload
+    // (rows were changed or deleted since, here or by another process)
+    public synchronized int pollAttendanceFile() {
+        try {
+            if (!attendanceLoaded || readVersion(ATTENDANCE) != attendanceVersion) {
+                readAttendance();
+                return -1;
+            }
+            int added = readAppendedPunches();
+            if (added > 0) System.out.println("✅ attendance table: " + added + " new punches");
+            return added;
+        } catch (SQLException e) {
+            System.out.println("❌ Error reading attendance table: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    public synchronized boolean updateAttendance(String employeeId, String date, String[] newRow) {
+        ensureAttendanceDataLoaded();
+        int id = AttendanceStore.parseEmployeeId(employeeId);
+        int day = AttendanceStore.parseDate(date);
+        if (id < 0 || day == AttendanceStore.NO_DATE || newRow == null || newRow.length < 4) return false;
+        int newId = AttendanceStore.parseEmployeeId(newRow[0]);
+        int newDay = AttendanceStore.parseDate(newRow[1]);
+        short login = AttendanceStore.parseTime(newRow[2]);
+        short logout = AttendanceStore.parseTime(newRow[3]);
+
+        try {
+            Long version = inTransaction(() -> {
+                long rowNo = findPunch(id, day);
+                if (rowNo < 0) return null;
+                try (PreparedStatement update = connection.prepareStatement("UPDATE attendance SET employee_id = ?, "
+                        + "epoch_day = ?, login_minute = ?, logout_minute = ? WHERE row_no = ?")) {
+                    bindPunch(update, newId, newDay, login, logout);
+                    update.setLong(5, rowNo);
+                    update.executeUpdate();
+                }
+                return bumpVersion(ATTENDANCE);
+            });
+            if (version == null) return false;
+
+            int row = attendanceStore.find(id, day);
+            if (row != -1) attendanceStore.set(row, newId, newDay, login, logout);
+            attendanceChanged(version);
+            return true;
+        } catch (SQLException e) {
+            System.out.println("❌ Error updating attendance: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Sets the times of the employee's punch on that day, adding the punch if there is none
+    public synchronized boolean upsertAttendance(String[] row) {
+        ensureAttendanceDataLoaded();
+        if (row == null || row.length < 4) return false;
+        int id = AttendanceStore.parseEmployeeId(row[0]);
+        int day = AttendanceStore.parseDate(row[1]);
+        if (id < 0 || day == AttendanceStore.NO_DATE) return false;
+        short login = AttendanceStore.parseTime(row[2]);
+        short logout = AttendanceStore.parseTime(row[3]);
+
+        try {
+            // {row_no, version}: an update bumps the version, an append only adds a row_no
+            long[] result = inTransaction(() -> {
+                long rowNo = findPunch(id, day);
+                if (rowNo >= 0) {
+                    try (PreparedStatement update = connection.prepareStatement(
+                            "UPDATE attendance SET login_minute = ?, logout_minute = ? WHERE row_no = ?")) {
+                        update.setShort(1, login);
+                        update.setShort(2, logout);
+                        update.setLong(3, rowNo);
+                        update.executeUpdate();
+                    }
+                    return new long[]{rowNo, bumpVersion(ATTENDANCE)};
+                }
+                rowNo = nextRowNo(ATTENDANCE);
+                try (PreparedStatement insert = connection.prepareStatement("INSERT INTO attendance "
+                        + "(employee_id, epoch_day, login_minute, logout_minute, row_no) VALUES (?, ?, ?, ?, ?)")) {
+                    bindPunch(insert, id, day, login, logout);
+                    insert.setLong(5, rowNo);
+                    insert.executeUpdate();
+                }
+                return new long[]{rowNo, -1};
+            });
+
+            if (result[1] >= 0) {
+                attendanceStore.upsert(id, day, login, logout);
+                attendanceChanged(result[1]);
+            } else if (attendanceLoaded && result[0] == lastAttendanceRow + 1) {
+                attendanceStore.add(id, day, login, logout);
+                lastAttendanceRow = result[0];
+            } // Otherwise another process appended first; the next poll reads both punches
+            return true;
+        } catch (SQLException e) {
+            System.out.println("❌ Error saving attendance: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Deletes every punch of the employee on that day
+    public synchronized boolean deleteAttendance(String employeeId, String date) {
+        ensureAttendanceDataLoaded();
+        int id = AttendanceStore.parseEmployeeId(employeeId);
+        int day = AttendanceStore.parseDate(date);
+        if (id < 0 || day == AttendanceStore.NO_DATE) return false;
+
+        try {
+            Long version = inTransaction(() -> {
+                try (PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM attendance WHERE employee_id = ? AND epoch_day = ?")) {
+                    delete.setInt(1, id);
+                    delete.setInt(2, day);
+                    if (delete.executeUpdate() == 0) return null;
+                }
+                return bumpVersion(ATTENDANCE);
+            });
+            if (version == null) return false;
+
+            attendanceStore.remove(id, day);
+            attendanceChanged(version);
+            return true;
+        } catch (SQLException e) {
+            System.out.println("❌ Error deleting attendance: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void attendanceChanged(long version) {
+        attendanceVersion = version == attendanceVersion + 1 ? version : -1;
+    }
+
+    private void readAttendance() throws SQLException {
+        attendanceVersion = readVersion(ATTENDANCE);
+        attendanceStore.clear();
+        lastAttendanceRow = 0;
+        attendanceLoaded = true;
+        readAppendedPunches();
+        System.out.println("✅ Attendance data loaded: " + attendanceStore.size() + " rows");
+    }
+
+    // Adds the punches with a row_no above the last one loaded
+    private int readAppendedPunches() throws SQLException {
+        int added = 0;
+        try (PreparedStatement query = connection.prepareStatement("SELECT row_no, employee_id, epoch_day, "
+                + "login_minute, logout_minute FROM attendance WHERE row_no > ? ORDER BY row_no")) {
+            query.setLong(1, lastAttendanceRow);
+            query.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    lastAttendanceRow = rs.getLong(1);
+                    attendanceStore.add(rs.getInt(2), rs.getInt(3), rs.getShort(4), rs.getShort(5));
+                    added++;
+                }
+            }
+        }
+        return added;
+    }
+
+    // Returns the row_no of the employee's first punch on that day, or -1
+    private long findPunch(int employeeId, int epochDay) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT MIN(row_no) FROM attendance WHERE employee_id = ? AND epoch_day = ?")) {
+            query.setInt(1, employeeId);
+            query.setInt(2, epochDay);
+            try (ResultSet rs = query.executeQuery()) {
+                long rowNo = rs.next() ? rs.getLong(1) : 0;
+                return rs.wasNull() || rowNo == 0 ? -1 : rowNo;
+            }
+        }
+    }
+
+    private static void bindPunch(PreparedStatement statement, int employeeId, int epochDay, short login, short logout)
+            throws SQLException {
+        statement.setInt(1, employeeId);
+        statement.setInt(2, epochDay);
+        statement.setShort(3, login);
+        statement.setShort(4, logout);
+    }
+
+    // Opening the database only reports passwords left in plain text by a database written
+    // before they were hashed; PasswordMigration hashes them
+    private void warnAboutPlainTextPasswords() throws SQLException {
+        int plainText = plainTextPasswords().size();
+        if (plainText > 0) {
+            System.out.println("⚠ " + plainText + " passwords are stored in plain text; run model.PasswordMigration to hash them");
+        }
+    }
+
+    private Map<String, String> plainTextPasswords() throws SQLException {
+        Map<String, String> plainText = new LinkedHashMap<>();
+        try (PreparedStatement query = connection.prepareStatement("SELECT username, password FROM credential");
+             ResultSet rs = query.executeQuery()) {
+            while (rs.next()) {
+                if (!PasswordHash.isHash(rs.getString(2))) plainText.put(rs.getString(1), rs.getString(2));
+            }
+        }
+        return plainText;
+    }
+
+    // Replaces the passwords stored in plain text by their hash, in one transaction
+    public synchronized int hashPlainTextPasswords() {
+        try {
+            Map<String, String> plainText = plainTextPasswords();
+            if (plainText.isEmpty()) return 0;
+
+            inTransaction(() -> {
+                try (PreparedStatement update = connection.prepareStatement("UPDATE credential SET password = ? WHERE username = ?")) {
+                    for (Map.Entry<String, String> entry : plainText.entrySet()) {
+                        update.setString(1, PasswordHash.hash(entry.getValue()));
+                        update.setString(2, entry.getKey());
+                        update.addBatch();
+                    }
+                    update.executeBatch();
+                }
+                return true;
+            });
+            return plainText.size();
+        } catch (SQLException e) {
+            System.out.println("❌ Error hashing passwords: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    // ======== Credentials ========
+
+    // The hash is checked outside the lock, so a login does not hold up other queries
+    public boolean authenticateUser(String username, String password) {
+        String stored = storedPassword(username);
+        // Unknown users are hashed too, so timing does not tell them apart
+        return stored == null ? PasswordHash.matchesUnknownUser(password) : PasswordHash.matchesStored(password, stored);
+    }
+
+    private synchronized String storedPassword(String username) {
+        try (PreparedStatement query = connection.prepareStatement("SELECT password FROM credential WHERE username = ?")) {
+            query.setString(1, username);
+            try (ResultSet rs = query.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        } catch (SQLException e) {
+            System.out.println("❌ Error reading credentials: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public synchronized boolean userExists(String username) {
+        try {
+            return credentialExists(username);
+        } catch (SQLException e) {
+            System.out.println("❌ Error reading credentials: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Commas are rejected as in credentials.txt, so accounts can be migrated back to it
+    // The password is hashed before the lock is taken, as that is slow on purpose
+    public CompletableFuture<Boolean> addUser(String username, String password) {
+        if (username.contains(",") || password.contains(",")) {
+            System.err.println("Username and password must not contain commas.");
+            return CompletableFuture.completedFuture(false);
+        }
+        return insertCredential(username, PasswordHash.hash(password));
+    }
+
+    private synchronized CompletableFuture<Boolean> insertCredential(String username, String hash) {
+        try {
+            return CompletableFuture.completedFuture(inTransaction(() -> {
+                if (credentialExists(username)) return false;
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO credential (username, password, row_no) VALUES (?, ?, ?)")) {
+                    insert.setString(1, username);
+                    insert.setString(2, hash);
+                    insert.setLong(3, nextRowNo("credential"));
+                    insert.executeUpdate();
+                }
+                return true;
+            }));
+        } catch (SQLException e) {
+            System.out.println("❌ Error adding user " + username + ": " + e.getMessage());
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+
+    public CompletableFuture<Boolean> updateUserPassword(String username, String newPassword) {
+        if (newPassword.contains(",")) return CompletableFuture.completedFuture(false);
+        return updateCredential(username, PasswordHash.hash(newPassword));
+    }
+
+    private synchronized CompletableFuture<Boolean> updateCredential(String username, String hash) {
+        try (PreparedStatement update = connection.prepareStatement("UPDATE credential SET password = ? WHERE username = ?")) {
+            update.setString(1, hash);
+            update.setString(2, username);
+            return CompletableFuture.completedFuture(update.executeUpdate() > 0);
+        } catch (SQLException e) {
+            System.out.println("❌ Error updating user " + username + ": " + e.getMessage());
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+
+    public synchronized List<String> getAllUsers() {
+        List<String> users = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement("SELECT username FROM credential ORDER BY row_no");
+             ResultSet rs = query.executeQuery()) {
+            while (rs.next()) {
+                users.add(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            System.out.println("❌ Error reading credentials: " + e.getMessage());
+        }
+        return users;
+    }
+
+    private boolean credentialExists(String username) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement("SELECT 1 FROM credential WHERE username = ?")) {
+            query.setString(1, username);
+            try (ResultSet rs = query.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    // ======== Migration ========
+
+    // Copies everything in the database
+    synchronized StorageSnapshot exportSnapshot() {
+        ensureEmployeeDataLoaded();
+        ensureAttendanceDataLoaded();
+        List<String[]> employees = new ArrayList<>(employeeData.size());
+        for (String[] row : employeeData) {
+            employees.add(row.clone());
+        }
+
+        Map<String, String> credentials = new LinkedHashMap<>();
+        try (PreparedStatement query = connection.prepareStatement("SELECT username, password FROM credential ORDER BY row_no");
+             ResultSet rs = query.executeQuery()) {
+            while (rs.next()) {
+                credentials.put(rs.getString(1), rs.getString(2));
+            }
+        } catch (SQLException e) {
+            System.out.println("❌ Error reading credentials: " + e.getMessage());
+        }
+        return new StorageSnapshot(getEmployeeHeaders(), employees, attendanceStore.copy(), credentials);
+    }
+
+    // Replaces the contents of all tables with the snapshot in one transaction
+    // Returns false, leaving the database as it was, if anything could not be written
+    synchronized boolean importSnapshot(StorageSnapshot snapshot) {
+        // Punches are stored by numeric Employee #, so lines without one have no place here
+        int unreadable = snapshot.attendance().unreadableLines().size();
+        if (unreadable > 0) {
+            System.out.println("❌ " + unreadable + " attendance rows have no numeric Employee # and cannot be stored in the"
+                    + " database; fix or remove them in attendance.txt first:");
+            snapshot.attendance().unreadableLines().forEach(line -> System.out.println("   " + line));
+            return false;
+        }
+        try {
+            inTransaction(() -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate("DELETE FROM employee");
+                    statement.executeUpdate("DELETE FROM attendance");
+                    statement.executeUpdate("DELETE FROM credential");
+                }
+
+                try (PreparedStatement insert = connection.prepareStatement(insertEmployeeSql())) {
+                    Set<String> seen = new HashSet<>();
+                    long rowNo = 0;
+                    for (String[] row : snapshot.employees()) {
+                        if (!seen.add(row[0])) {
+                            System.out.println("⚠ Skipped duplicate Employee # " + row[0]);
+                            continue;
+                        }
+                        bindEmployeeRow(insert, ++rowNo, row);
+                        insert.addBatch();
+                        if (rowNo % BATCH_SIZE == 0) insert.executeBatch();
+                    }
+                    insert.executeBatch();
+                }
+
+                try (PreparedStatement insert = connection.prepareStatement("INSERT INTO attendance "
+                        + "(employee_id, epoch_day, login_minute, logout_minute, row_no) VALUES (?, ?, ?, ?, ?)")) {
+                    long rowNo = 0;
+                    AttendanceStore.Cursor cursor = snapshot.attendance().cursor();
+                    while (cursor.next()) {
+                        bindPunch(insert, cursor.employeeId(), cursor.epochDay(), cursor.loginMinute(), cursor.logoutMinute());
+                        insert.setLong(5, ++rowNo);
+                        insert.addBatch();
+                        if (rowNo % BATCH_SIZE == 0) insert.executeBatch();
+                    }
+                    insert.executeBatch();
+                }
+
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO credential (username, password, row_no) VALUES (?, ?, ?)")) {
+                    long rowNo = 0;
+                    for (Map.Entry<String, String> entry : snapshot.credentials().entrySet()) {
+                        // Accounts from the text files are hashed already, unless PasswordMigration has not run
+                        String hash = PasswordHash.isHash(entry.getValue()) ? entry.getValue() : PasswordHash.hash(entry.getValue());
+                        insert.setString(1, entry.getKey());
+                        insert.setString(2, hash);
+                        insert.setLong(3, ++rowNo);
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+
+                bumpVersion(EMPLOYEES);
+                bumpVersion(ATTENDANCE);
+                return null;
+            });
+        } catch (SQLException e) {
+            System.out.println("❌ Error importing into " + url + ": " + e.getMessage());
+            return false;
+        }
+
+        // Everything changed; reload on next use
+        employeesLoaded = false;
+        attendanceLoaded = false;
+        return true;
+    }
+
+    synchronized void close() {
+        if (poller != null) poller.shutdownNow();
+        close(connection);
+    }
+
+    // ======== History ========
+
+    // The history log as rows of employee_history; each record's arguments are stored
+    // length-prefixed in one column ("5:10001" ...), so any value survives the round trip
+    private final class HistoryTable implements ChangeLog {
+
+        @Override
+        public void append(byte op, String... args) throws IOException {
+            StringBuilder encoded = new StringBuilder();
+            for (String arg : args) {
+                encoded.append(arg.length()).append(':').append(arg);
+            }
+            synchronized (JdbcStorageBackend.this) {
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO employee_history (row_no, op, args) VALUES (?, ?, ?)")) {
+                    insert.setLong(1, nextRowNo("employee_history"));
+                    insert.setInt(2, op);
+                    insert.setString(3, encoded.toString());
+                    insert.executeUpdate();
+                } catch (SQLException e) {
+                    throw new IOException(e.getMessage(), e);
+                }
+            }
+        }
+
+        @Override
+        public int replay(ChangeJournal.Handler handler) throws IOException {
+            int records = 0;
+            synchronized (JdbcStorageBackend.this) {
+                try (PreparedStatement query = connection.prepareStatement(
+                        "SELECT op, args FROM employee_history ORDER BY row_no")) {
+                    query.setFetchSize(FETCH_SIZE);
+                    try (ResultSet rs = query.executeQuery()) {
+                        while (rs.next()) {
+                            handler.apply((byte) rs.getInt(1), decode(rs.getString(2)));
+                            records++;
+                        }
+                    }
+                } catch (SQLException e) {
+                    throw new IOException(e.getMessage(), e);
+                }
+            }
+            return records;
+        }
+
+        private String[] decode(String encoded) {
+            List<String> args = new ArrayList<>();
+            int position = 0;
+            while (position < encoded.length()) {
+                int colon = encoded.indexOf(':', position);
+                int length = Integer.parseInt(encoded.substring(position, colon));
+                args.add(encoded.substring(colon + 1, colon + 1 + length));
+                position = colon + 1 + length;
+            }
+            return args.toArray(String[]::new);
+        }
+    }
+
+    // ======== SQL Helpers ========
+
+    private interface SqlWork<T> {
+        T run() throws SQLException;
+    }
+
+    // Runs the work as one transaction on the shared connection, rolling back on failure
+    private <T> T inTransaction(SqlWork<T> work) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            T result = work.run();
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    // Returns the version of a data set, or -1 if it has no row yet
+    private long readVersion(String name) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement("SELECT version FROM data_version WHERE name = ?")) {
+            query.setString(1, name);
+            try (ResultSet rs = query.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : -1;
+            }
+        }
+    }
+
+    // Marks a data set as changed and returns its new version
+    private long bumpVersion(String name) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement("UPDATE data_version SET version = version + 1 WHERE name = ?")) {
+            update.setString(1, name);
+            update.executeUpdate();
+        }
+        return readVersion(name);
+    }
+
+    // Next free row_no of a table, so new rows sort after the existing ones
+    private long nextRowNo(String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(row_no), 0) + 1 FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void close(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.out.println("⚠ Error closing database connection: " + e.getMessage());
+        }
+    }
+}
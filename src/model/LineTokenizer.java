@@ -0,0 +1,132 @@
+package model;
+
+import java.util.Arrays;
+
+// Splits a single delimited text line into fields in one left-to-right pass.
+// Separators inside double quotes are kept as part of the field, one pair of
+// outer quotes is removed and surrounding whitespace is trimmed, matching the
+// way employee.txt has always been read. The field buffer is reused between
+// lines so a tokenizer instance should not be shared across threads.
+final class LineTokenizer {
+
+    private final char separator;
+
+    // Reusable field buffer; only the first 'count' entries are valid
+    private String[] fields = new String[32];
+    private int count;
+
+    LineTokenizer(char separator) {
+        this.separator = separator;
+    }
+
+    // Tokenizes the line and returns the number of fields found
+    int tokenize(String line) {
+        count = 0;
+
+        // Trailing empty fields are dropped, as String.split does
+        int end = line.length();
+        while (end > 0 && line.charAt(end - 1) == separator) end--;
+        if (end == 0) {
+            if (line.isEmpty()) add(line, 0, 0);
+            return count;
+        }
+
+        int start = 0;
+        boolean inQuotes = false;
+        for (int i = 0; i < end; i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            } else if (c == separator && !inQuotes) {
+                add(line, start, i);
+                start = i + 1;
+            }
+        }
+        add(line, start, end);
+        return count;
+    }
+
+    // Decodes only the field at the index, the same way tokenize would, without
+    // cutting out the fields before it; returns "" if the line has fewer fields
+    static String field(String line, char separator, int index) {
+        int start = 0;
+        int column = 0;
+        boolean inQuotes = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            } else if (c == separator && !inQuotes) {
+                if (column == index) return strip(line, start, i);
+                column++;
+                start = i + 1;
+            }
+        }
+        return column == index ? strip(line, start, line.length()) : "";
+    }
+
+    // Decodes the fields at the given indexes into target[index] in one pass, skipping
+    // entries that are already set or outside the target; fields past the end of the line become ""
+    static void fields(String line, char separator, int[] indexes, String[] target) {
+        int last = -1;
+        for (int index : indexes) last = Math.max(last, index);
+
+        int start = 0;
+        int column = 0;
+        boolean inQuotes = false;
+        for (int i = 0; i <= line.length() && column <= last; i++) {
+            char c = i < line.length() ? line.charAt(i) : separator;
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            } else if (c == separator && (!inQuotes || i == line.length())) {
+                if (column < target.length && target[column] == null && contains(indexes, column)) {
+                    target[column] = strip(line, start, i);
+                }
+                column++;
+                start = i + 1;
+            }
+        }
+        for (int index : indexes) {
+            if (index < target.length && target[index] == null) target[index] = "";
+        }
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) return true;
+        }
+        return false;
+    }
+
+    // Returns the number of fields from the last tokenize call
+    int count() {
+        return count;
+    }
+
+    // Returns a field from the last tokenize call
+    String field(int index) {
+        return fields[index];
+    }
+
+    // Copies the fields of the last tokenize call into a new array
+    String[] toArray() {
+        return Arrays.copyOf(fields, count);
+    }
+
+    // Strips one pair of outer quotes, trims, and stores the field
+    private void add(String line, int start, int end) {
+        if (count == fields.length) {
+            fields = Arrays.copyOf(fields, count * 2);
+        }
+        fields[count++] = strip(line, start, end);
+    }
+
+    // Returns the field between start and end without one pair of outer quotes and surrounding whitespace
+    private static String strip(String line, int start, int end) {
+        if (start < end && line.charAt(start) == '"') start++;
+        if (end > start && line.charAt(end - 1) == '"') end--;
+        while (start < end && line.charAt(start) <= ' ') start++;
+        while (end > start && line.charAt(end - 1) <= ' ') end--;
+        return (start == 0 && end == line.length()) ? line : line.substring(start, end);
+    }
+}
@@ -0,0 +1,407 @@
+package model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Reads attendance.txt by memory-mapping it instead of going through a Reader.
+// Records may be separated by '\r', '\n' or "\r\n" (the biometric export uses
+// bare '\r'), and each record's four comma-separated fields (employee #, date,
+// log in, log out) are decoded straight from the mapped bytes into an
+// AttendanceStore without creating any Strings.
+final class MappedAttendanceReader {
+
+    // Largest region mapped at once; a MappedByteBuffer cannot exceed 2 GB
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    // Size of the heap block mapped bytes are copied into before parsing
+    private static final int BLOCK_SIZE = 1 << 20;
+
+    // Files smaller than this are parsed on the calling thread
+    private static final long PARALLEL_THRESHOLD = 16L << 20;
+
+    // Chunks per core, so a slow chunk does not hold up the others for long
+    private static final int CHUNKS_PER_CORE = 4;
+
+    // Smallest chunk worth handing to another thread
+    private static final long MIN_CHUNK_SIZE = 4L << 20;
+
+    private MappedAttendanceReader() {
+    }
+
+    // Maps the file and appends every record with a numeric employee # to the store
+    // Returns the number of non-blank records that were not, which the store keeps as
+    // unreadable lines
+    static int read(Path path, AttendanceStore store) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel, 0, channel.size(), store);
+        }
+    }
+
+    // Reads the records in [start, end) of the file; start must be at the beginning of a record
+    static int read(FileChannel channel, long start, long end, AttendanceStore store) throws IOException {
+        int skipped = 0;
+        long position = start;
+
+        while (position < end) {
+            long length = Math.min(WINDOW_SIZE, end - position);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            boolean lastWindow = position + length == end;
+
+            // Only parse up to the last separator so no record is cut in half
+            int limit = (int) length;
+            if (!lastWindow) {
+                limit = lastSeparator(buffer, limit) + 1;
+                if (limit == 0) {
+                    throw new IOException("Attendance record at offset " + position + " is too long.");
+                }
+            }
+
+            skipped += readRecords(buffer, 0, limit, store);
+            position += limit;
+        }
+        return skipped;
+    }
+
+    // Reads the records in [start, end) using all cores for large files
+    // The range is split into chunks aligned to record separators, each chunk is parsed
+    // into its own store on the fork-join pool, and the chunks are appended in file order,
+    // so the result is identical to read()
+    static int readParallel(FileChannel channel, long start, long end, AttendanceStore store) throws IOException {
+        int cores = ForkJoinPool.getCommonPoolParallelism();
+        if (cores < 2 || end - start < PARALLEL_THRESHOLD) {
+            return read(channel, start, end, store);
+        }
+        int chunks = (int) Math.min(cores * CHUNKS_PER_CORE, (end - start) / MIN_CHUNK_SIZE);
+        return readChunks(channel, start, end, store, chunks);
+    }
+
+    // Splits [start, end) into the given number of record-aligned chunks and parses them in parallel
+    static int readChunks(FileChannel channel, long start, long end, AttendanceStore store, int chunks)
+            throws IOException {
+        // Move each boundary forward to the start of the next record
+        long[] bounds = new long[chunks + 1];
+        bounds[0] = start;
+        for (int i = 1; i < chunks; i++) {
+            long guess = start + (end - start) * i / chunks;
+            bounds[i] = Math.max(bounds[i - 1], nextRecordStart(channel, guess, end));
+        }
+        bounds[chunks] = end;
+
+        List<ForkJoinTask<ChunkResult>> tasks = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            long chunkStart = bounds[i];
+            long chunkEnd = bounds[i + 1];
+            tasks.add(ForkJoinPool.commonPool().submit(() -> {
+                AttendanceStore part = new AttendanceStore();
+                int skipped = read(channel, chunkStart, chunkEnd, part);
+                return new ChunkResult(part, skipped);
+            }));
+        }
+
+        int skipped = 0;
+        try {
+            for (ForkJoinTask<ChunkResult> task : tasks) {
+                ChunkResult result = task.get();
+                store.addAll(result.punches());
+                skipped += result.skipped();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading attendance", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+        return skipped;
+    }
+
+    // Punches parsed from one chunk, with the number of records skipped in it
+    private record ChunkResult(AttendanceStore punches, int skipped) {
+    }
+
+    // Returns the offset just past the first record separator at or after from, or end if there is none
+    static long nextRecordStart(FileChannel channel, long from, long end) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE / 16);
+        long blockStart = from;
+        while (blockStart < end) {
+            block.clear().limit((int) Math.min(block.capacity(), end - blockStart));
+            while (block.hasRemaining()) {
+                if (channel.read(block, blockStart + block.position()) < 0) return end;
+            }
+            for (int i = 0; i < block.position(); i++) {
+                if (isSeparator(block.get(i))) return blockStart + i + 1;
+            }
+            blockStart += block.position();
+        }
+        return end;
+    }
+
+    // Returns the offset just past the last record separator in [start, end), or start if there is none
+    static long lastRecordStart(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE / 16);
+        long blockEnd = end;
+        while (blockEnd > start) {
+            long blockStart = Math.max(start, blockEnd - block.capacity());
+            block.clear().limit((int) (blockEnd - blockStart));
+            while (block.hasRemaining()) {
+                if (channel.read(block, blockStart + block.position()) < 0) break;
+            }
+            for (int i = block.position() - 1; i >= 0; i--) {
+                if (isSeparator(block.get(i))) return blockStart + i + 1;
+            }
+            blockEnd = blockStart;
+        }
+        return start;
+    }
+
+    // Parses the records in [start, end) of the buffer into the store
+    // The mapped bytes are copied into a heap block in bulk, which is far cheaper
+    // than reading them one at a time through the buffer
+    static int readRecords(MappedByteBuffer buffer, int start, int end, AttendanceStore store) {
+        int skipped = 0;
+        byte[] block = new byte[BLOCK_SIZE];
+        int carry = 0;
+        int position = start;
+
+        while (position < end) {
+            int length = Math.min(block.length - carry, end - position);
+            buffer.get(position, block, carry, length);
+            position += length;
+            int filled = carry + length;
+
+            // Leave a trailing partial record in the block for the next round
+            int parseEnd = position == end ? filled : lastSeparator(block, filled) + 1;
+            if (parseEnd == 0) {
+                block = Arrays.copyOf(block, block.length * 2);
+                carry = filled;
+                continue;
+            }
+
+            skipped += readRecords(block, 0, parseEnd, store);
+            carry = filled - parseEnd;
+            System.arraycopy(block, parseEnd, block, 0, carry);
+        }
+        return skipped;
+    }
+
+    // Parses the records in [start, end) of a byte block into the store in a single
+    // pass: every byte is looked at once and numbers are accumulated as they are read
+    // A record without a numeric employee # is kept in the store as an unreadable line
+    static int readRecords(byte[] bytes, int start, int end, AttendanceStore store) {
+        int skipped = 0;
+        RecordDecoder decoder = new RecordDecoder();
+        int recordStart = start;
+        for (int i = start; i < end; i++) {
+            byte b = bytes[i];
+            if (b == '\r' || b == '\n') {
+                // "\r\n" just yields an empty record, which is ignored
+                if (!decoder.finishRecord(store)) {
+                    store.keepUnreadable(new String(bytes, recordStart, i - recordStart, StandardCharsets.UTF_8));
+                    skipped++;
+                }
+                recordStart = i + 1;
+            } else {
+                decoder.accept(b);
+            }
+        }
+        if (!decoder.finishRecord(store)) {
+            store.keepUnreadable(new String(bytes, recordStart, end - recordStart, StandardCharsets.UTF_8));
+            skipped++;
+        }
+        return skipped;
+    }
+
+    // Streams the records of the file lazily, reading it one block at a time
+    // Only one block and the punches parsed from it are held in memory; closing the
+    // stream closes the file
+    static Stream<AttendanceRecord> stream(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        BlockSpliterator spliterator = new BlockSpliterator(channel);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    // Hands out the punches of one block at a time, refilling as the stream advances
+    private static final class BlockSpliterator extends Spliterators.AbstractSpliterator<AttendanceRecord> {
+        private final FileChannel channel;
+        private final AttendanceStore punches = new AttendanceStore();
+        private ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+        private long position;
+        private int next;
+
+        BlockSpliterator(FileChannel channel) {
+            super(Long.MAX_VALUE, ORDERED | NONNULL | IMMUTABLE);
+            this.channel = channel;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super AttendanceRecord> action) {
+            while (next >= punches.size()) {
+                if (!refill()) return false;
+            }
+            action.accept(new AttendanceRecord(punches.employeeId(next), punches.epochDay(next),
+                    punches.loginMinute(next), punches.logoutMinute(next)));
+            next++;
+            return true;
+        }
+
+        // Parses the next block's complete records; returns false at the end of the file
+        private boolean refill() {
+            try {
+                long size = channel.size();
+                if (position >= size) return false;
+
+                int filled = 0;
+                block.clear();
+                while (true) {
+                    int read = channel.read(block, position + filled);
+                    if (read > 0) filled += read;
+                    boolean atEnd = read < 0 || position + filled >= size;
+
+                    // Keep a trailing partial record for the next block, unless the file ends here
+                    int end = atEnd ? filled : lastSeparator(block.array(), filled) + 1;
+                    if (end > 0) {
+                        punches.clear();
+                        next = 0;
+                        readRecords(block.array(), 0, end, punches);
+                        position += end;
+                        return true;
+                    }
+                    if (!block.hasRemaining()) {
+                        // One record longer than the block: grow it and keep reading
+                        block = ByteBuffer.wrap(Arrays.copyOf(block.array(), block.capacity() * 2)).position(filled);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Finds the last record separator before the limit, or -1 if there is none
+    static int lastSeparator(MappedByteBuffer buffer, int limit) {
+        for (int i = limit - 1; i >= 0; i--) {
+            if (isSeparator(buffer.get(i))) return i;
+        }
+        return -1;
+    }
+
+    static int lastSeparator(byte[] bytes, int limit) {
+        for (int i = limit - 1; i >= 0; i--) {
+            if (isSeparator(bytes[i])) return i;
+        }
+        return -1;
+    }
+
+    static boolean isSeparator(byte b) {
+        return b == '\r' || b == '\n';
+    }
+
+    // Accumulates the fields of one record byte by byte
+    // Field 0 is the employee #, field 1 an MM/dd/yyyy date and fields 2 and 3 H:mm[:ss] times
+    private static final class RecordDecoder {
+        private int field;
+        private int part;
+        private int digits;
+        private final int[] parts = new int[3];
+        private boolean invalid;
+        private boolean blank = true;
+
+        private int employeeId = -1;
+        private int epochDay = AttendanceStore.NO_DATE;
+        private short login = AttendanceStore.NO_TIME;
+        private short logout = AttendanceStore.NO_TIME;
+
+        void accept(byte b) {
+            if (b >= '0' && b <= '9') {
+                blank = false;
+                if (field < 4) {
+                    parts[part] = parts[part] * 10 + (b - '0');
+                    int maxDigits = field == 0 ? 9 : (field == 1 && part == 2 ? 4 : 2);
+                    if (++digits > maxDigits) invalid = true;
+                }
+            } else if (b == ',') {
+                finishField();
+            } else if (b == '/' || b == ':') {
+                blank = false;
+                char expected = field == 1 ? '/' : ':';
+                if (field == 0 || b != expected || digits == 0 || part == 2) {
+                    invalid = true;
+                } else {
+                    part++;
+                    digits = 0;
+                }
+            } else if ((b & 0xFF) > ' ' && b != '"') {
+                blank = false;
+                invalid = true;
+            }
+        }
+
+        // Completes the current field and stores its parsed value
+        private void finishField() {
+            boolean ok = !invalid && digits > 0;
+            switch (field) {
+                case 0 -> employeeId = ok && part == 0 ? parts[0] : -1;
+                case 1 -> epochDay = ok && part == 2 && digits == 4
+                        ? AttendanceStore.toEpochDay(parts[2], parts[0], parts[1]) : AttendanceStore.NO_DATE;
+                case 2 -> login = ok && part > 0 && digits == 2
+                        ? AttendanceStore.toMinuteOfDay(parts[0], parts[1], parts[2]) : AttendanceStore.NO_TIME;
+                case 3 -> logout = ok && part > 0 && digits == 2
+                        ? AttendanceStore.toMinuteOfDay(parts[0], parts[1], parts[2]) : AttendanceStore.NO_TIME;
+                default -> { }
+            }
+            field++;
+            part = 0;
+            digits = 0;
+            parts[0] = parts[1] = parts[2] = 0;
+            invalid = false;
+        }
+
+        // Completes the record and appends it; returns false if a non-blank record was unusable
+        boolean finishRecord(AttendanceStore store) {
+            if (field == 0 && digits == 0 && blank) {
+                reset();
+                return true; // empty record
+            }
+            finishField();
+
+            boolean usable = employeeId >= 0;
+            if (usable) store.add(employeeId, epochDay, login, logout);
+            boolean wasBlank = blank;
+            reset();
+            return usable || wasBlank;
+        }
+
+        private void reset() {
+            field = part = digits = 0;
+            parts[0] = parts[1] = parts[2] = 0;
+            invalid = false;
+            blank = true;
+            employeeId = -1;
+            epochDay = AttendanceStore.NO_DATE;
+            login = logout = AttendanceStore.NO_TIME;
+        }
+    }
+}
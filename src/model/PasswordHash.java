@@ -0,0 +1,90 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+// Salted PBKDF2 password hashes, as stored in credentials.txt and the credential table:
+// "pbkdf2$<iterations>$<salt>$<hash>" with the salt and hash in Base64. Every password
+// gets its own random salt, and the iteration count is kept with the hash so it can be
+// raised later without breaking existing accounts.
+final class PasswordHash {
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA512";
+    private static final String PREFIX = "pbkdf2";
+    private static final int ITERATIONS = 210_000;
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Checked against when the username is unknown, so the time taken does not tell
+    // existing accounts apart
+    private static volatile String unknownUser;
+
+    private PasswordHash() {
+    }
+
+    // Hashes a password with a new random salt
+    static String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        Base64.Encoder base64 = Base64.getEncoder();
+        return PREFIX + "$" + ITERATIONS + "$" + base64.encodeToString(salt)
+                + "$" + base64.encodeToString(derive(password, salt, ITERATIONS));
+    }
+
+    // True if the password matches a stored hash; a malformed hash matches nothing
+    static boolean matches(String password, String stored) {
+        String[] parts = stored == null ? new String[0] : stored.split("\\$");
+        if (parts.length != 4 || !parts[0].equals(PREFIX)) return false;
+        try {
+            int iterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            if (iterations <= 0 || expected.length == 0) return false;
+            return MessageDigest.isEqual(expected, derive(password, salt, iterations, expected.length * 8));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // Checks a password against a stored value: a hash, or on an account PasswordMigration
+    // has not converted yet the password itself, which is compared in constant time
+    static boolean matchesStored(String password, String stored) {
+        if (isHash(stored)) return matches(password, stored);
+        return stored != null && MessageDigest.isEqual(
+                password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Same work as matches, for a username that has no account; always false
+    static boolean matchesUnknownUser(String password) {
+        if (unknownUser == null) unknownUser = hash("");
+        matches(password, unknownUser);
+        return false;
+    }
+
+    // True if the stored value is a hash rather than a password kept in plain text
+    static boolean isHash(String stored) {
+        return stored != null && stored.startsWith(PREFIX + "$") && stored.split("\\$").length == 4;
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        return derive(password, salt, iterations, HASH_BITS);
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations, int bits) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, bits);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package model;
+
+// One-shot upgrade of passwords still stored in plain text to salted hashes (see PasswordHash).
+// Run once from the project folder while the application is closed:
+//   java -cp ... model.PasswordMigration                             (data/credentials.txt)
+//   java -cp ... model.PasswordMigration jdbc:h2:./data/motorph      (the database)
+// Until then those accounts still log in, and the storage warns about them when it loads.
+public final class PasswordMigration {
+
+    private PasswordMigration() {
+    }
+
+    public static void main(String[] args) {
+        String location = args.length > 0 ? args[0] : "text";
+        StorageBackend backend = DataRepository.open(location);
+        int hashed;
+        try {
+            hashed = backend.hashPlainTextPasswords();
+        } finally {
+            if (backend instanceof JdbcStorageBackend database) database.close();
+        }
+
+        if (hashed >= 0) {
+            System.out.println("✅ Hashed " + hashed + " passwords stored in plain text in " + location);
+            System.exit(0);
+        } else {
+            System.out.println("❌ Passwords in " + location + " could not be hashed.");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+// Everything the panels need from the employee, attendance and credential data.
+// The panels only see this interface (through DataRepository.getStorage), so the
+// data can live in the text files under data/ (FileHandler) or in a SQL database
+// (JdbcStorageBackend) without any change to the GUI.
+// Row formats match the text files: employee rows follow getEmployeeHeaders and
+// attendance rows are {Employee #, Date, Log In, Log Out}.
+public interface StorageBackend {
+
+    // ======== Employees ========
+
+    // Loads the employees unless the copy in memory is current; returns true if they were (re)read
+    boolean ensureEmployeeDataLoaded();
+
+    // Copy of the loaded employee rows; later changes are not reflected in it
+    List<String[]> getEmployeeData();
+
+    // Only the given columns (positions in getEmployeeHeaders) of every employee, in order;
+    // listings use this so the columns they do not show are never decoded or fetched
+    List<String[]> getEmployeeColumns(int... columns);
+
+    String[] getEmployeeHeaders();
+
+    // Returns a copy of the employee row with this Employee #, or null if there is none
+    String[] getEmployeeById(String employeeId);
+
+    // Returns the employee holding the SSS #, Philhealth #, TIN # or Pag-ibig # number,
+    // or null if nobody does; only the digits are compared, so dashes do not matter
+    String[] findEmployeeByGovernmentId(String columnName, String number);
+
+    // Same employee with the amounts and dates already parsed, or null if there is none
+    Employee getEmployee(String employeeId);
+
+    // The employee as it was at the instant (e.g. for recomputing an old payroll),
+    // or null if it did not exist then; changes are kept from the first one recorded on
+    Employee getEmployeeAsOf(String employeeId, Instant instant);
+
+    Benefits getBenefitsByEmployeeId(String employeeId);
+
+    // Returns the employees whose column holds exactly this value (e.g. Status = "Regular")
+    List<String[]> findEmployeesByValue(String columnName, String value);
+
+    // Adds an employee; returns false if the Employee # is taken or the row could not be saved
+    boolean appendEmployeeToFile(String[] employeeRow);
+
+    boolean updateEmployeeField(String employeeId, String columnName, String newValue);
+
+    // Applies all changes (column name -> new value) or, if any is invalid, none of them
+    boolean updateEmployee(String employeeId, Map<String, String> changes);
+
+    boolean updateBenefitsByEmployeeId(String employeeId, Benefits benefits);
+
+    boolean deleteEmployeeById(String employeeId);
+
+    // Same, and with cascadeAttendance every punch of the employee is deleted as well
+    boolean deleteEmployeeById(String employeeId, boolean cascadeAttendance);
+
+    // Reports employees added, changed or removed outside this process (on a background thread)
+    void addEmployeeListener(EmployeeDiff.Listener listener);
+
+    void removeEmployeeListener(EmployeeDiff.Listener listener);
+
+    // ======== Attendance ========
+
+    // Loads the punches unless the copy in memory is current; returns true if they were (re)read
+    boolean ensureAttendanceDataLoaded();
+
+    // Copy of the loaded punches; later changes are not reflected in it
+    List<String[]> getAttendanceData();
+
+    // Copy of the loaded punches from the given row on, e.g. those a poll added at the end
+    List<String[]> getAttendanceDataFrom(int firstRow);
+
+    List<String> getAttendanceHeaders();
+
+    // Streams the stored punches that pass the filter without loading them all; close when done
+    Stream<AttendanceRecord> streamAttendance(Predicate<? super AttendanceRecord> filter);
+
+    // Streams only the punches of one month; close when done
+    Stream<AttendanceRecord> streamAttendance(YearMonth month, Predicate<? super AttendanceRecord> filter);
+
+    // Punches dated from..to (inclusive) in date order, of one employee or of everyone if
+    // employeeId is null; found through a day index, so only that range is read
+    List<String[]> getAttendanceBetween(LocalDate from, LocalDate to, String employeeId);
+
+    // Months that have punches, in order
+    List<YearMonth> getAttendanceMonths();
+
+    // Months one employee has punches in, in order, without reading other employees' punches
+    List<YearMonth> getAttendanceMonths(String employeeId);
+
+    // One employee's punches of one month, in date order; close when done
+    Stream<AttendanceRecord> streamAttendance(String employeeId, YearMonth month);
+
+    // Picks up punches added since the last load; returns how many were added at the end
+    // of the data, or -1 if existing rows changed too and everything was reloaded
+    // Reads files or the database, so call it off the EDT
+    int pollAttendanceFile();
+
+    boolean updateAttendance(String employeeId, String date, String[] newRow);
+
+    // Adds or replaces the punch {employee #, date, log in, log out}
+    boolean upsertAttendance(String[] row);
+
+    boolean deleteAttendance(String employeeId, String date);
+
+    // ======== Credentials ========
+
+    // Safe to call off the EDT
+    boolean authenticateUser(String username, String password);
+
+    boolean userExists(String username);
+
+    // The future completes with true once the account is saved
+    CompletableFuture<Boolean> addUser(String username, String password);
+
+    CompletableFuture<Boolean> updateUserPassword(String username, String newPassword);
+
+    List<String> getAllUsers();
+
+    // One-shot upgrade run by PasswordMigration: hashes the passwords still stored in plain
+    // text and returns how many there were, or -1 if they could not be saved
+    int hashPlainTextPasswords();
+}
@@ -0,0 +1,61 @@
+package model;
+
+// One-shot copy of all employees, punches and accounts from one storage backend to another.
+// Usage (run from the project folder, with the JDBC driver on the classpath):
+//   java -cp ... model.StorageMigration text jdbc:h2:./data/motorph     (files -> database)
+//   java -cp ... model.StorageMigration jdbc:h2:./data/motorph text     (database -> files)
+// Everything in the target is replaced. Pending journal entries of the text files
+// are included, and a database target is written in a single transaction.
+public final class StorageMigration {
+
+    private StorageMigration() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 2 || args[0].equals(args[1])) {
+            System.out.println("Usage: StorageMigration <from> <to>   (each \"text\" or a JDBC URL)");
+            System.exit(2);
+        }
+
+        StorageBackend from = DataRepository.open(args[0]);
+        StorageBackend to = DataRepository.open(args[1]);
+        boolean migrated;
+        try {
+            StorageSnapshot snapshot = exportSnapshot(from);
+            System.out.println("✅ Read " + snapshot.employees().size() + " employees, "
+                    + snapshot.attendance().size() + " punches and "
+                    + snapshot.credentials().size() + " accounts from " + args[0]);
+            migrated = importSnapshot(to, snapshot);
+        } finally {
+            close(from);
+            close(to);
+        }
+
+        if (migrated) {
+            System.out.println("✅ Migration to " + args[1] + " complete.");
+        } else {
+            System.out.println("❌ Migration to " + args[1] + " failed.");
+            System.exit(1);
+        }
+    }
+
+    private static StorageSnapshot exportSnapshot(StorageBackend backend) {
+        return switch (backend) {
+            case FileHandler files -> files.exportSnapshot();
+            case JdbcStorageBackend database -> database.exportSnapshot();
+            default -> throw new IllegalArgumentException("Cannot migrate from " + backend.getClass().getName());
+        };
+    }
+
+    private static boolean importSnapshot(StorageBackend backend, StorageSnapshot snapshot) {
+        return switch (backend) {
+            case FileHandler files -> files.importSnapshot(snapshot);
+            case JdbcStorageBackend database -> database.importSnapshot(snapshot);
+            default -> throw new IllegalArgumentException("Cannot migrate to " + backend.getClass().getName());
+        };
+    }
+
+    private static void close(StorageBackend backend) {
+        if (backend instanceof JdbcStorageBackend database) database.close();
+    }
+}
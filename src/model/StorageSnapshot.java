@@ -0,0 +1,10 @@
+package model;
+
+import java.util.List;
+import java.util.Map;
+
+// Complete contents of a storage backend, as moved between backends by StorageMigration
+// Credentials map username -> password hash (see PasswordHash) in their stored order
+record StorageSnapshot(String[] employeeHeaders, List<String[]> employees, AttendanceStore attendance,
+                       Map<String, String> credentials) {
+}
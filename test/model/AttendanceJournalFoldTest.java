@@ -0,0 +1,103 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+// attendance.txt belongs to the clocks, so attendance edits are folded into the monthly
+// partitions instead: after the move the journal is empty and nothing is lost or doubled,
+// even when a crash left the journal behind.
+public class AttendanceJournalFoldTest {
+
+    private Path folder;
+    private Path journal;
+
+    @Before
+    public void createData() throws IOException {
+        folder = Files.createTempDirectory("motorph-data");
+        journal = folder.resolve("attendance.journal");
+        Files.writeString(folder.resolve("attendance.txt"),
+                "10001,06/03/2024,8:59,18:31\r10002,06/03/2024,10:35,19:44\r10001,07/01/2024,8:00,17:00",
+                StandardCharsets.UTF_8);
+    }
+
+    @After
+    public void deleteData() throws IOException {
+        try (Stream<Path> files = Files.walk(folder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void movingToPartitionsEmptiesTheJournal() throws IOException {
+        FileHandler handler = new FileHandler(folder);
+        editAttendance(handler);
+        assertTrue(Files.size(journal) > 0);
+
+        assertTrue(handler.migrateAttendanceToPartitions());
+        waitForEmptyJournal();
+        assertEquals(expectedRows(), rowsOf(new FileHandler(folder)));
+    }
+
+    @Test
+    public void aJournalLeftBehindIsFoldedInOnce() throws IOException {
+        FileHandler handler = new FileHandler(folder);
+        editAttendance(handler);
+        byte[] leftOver = Files.readAllBytes(journal);
+
+        assertTrue(handler.migrateAttendanceToPartitions());
+        waitForEmptyJournal();
+        // As if the process had stopped before the journal was cleared
+        Files.write(journal, leftOver);
+
+        assertEquals(expectedRows(), rowsOf(new FileHandler(folder)));
+        waitForEmptyJournal();
+        assertEquals(expectedRows(), rowsOf(new FileHandler(folder)));
+    }
+
+    private static void editAttendance(FileHandler handler) {
+        handler.ensureAttendanceDataLoaded();
+        assertTrue(handler.updateAttendance("10001", "06/03/2024", new String[]{"10001", "06/03/2024", "9:00", "18:00"}));
+        assertTrue(handler.upsertAttendance(new String[]{"10003", "07/02/2024", "8:30", "17:30"}));
+        assertTrue(handler.deleteAttendance("10002", "06/03/2024"));
+    }
+
+    private static List<String> expectedRows() {
+        return List.of("10001,06/03/2024,9:00,18:00", "10001,07/01/2024,8:00,17:00", "10003,07/02/2024,8:30,17:30");
+    }
+
+    private static List<String> rowsOf(FileHandler handler) {
+        handler.ensureAttendanceDataLoaded();
+        List<String> rows = new ArrayList<>();
+        for (String[] row : handler.getAttendanceData()) {
+            rows.add(String.join(",", row));
+        }
+        rows.sort(null);
+        return rows;
+    }
+
+    // The journal is cleared once the background writer has saved the partitions
+    private void waitForEmptyJournal() throws IOException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (Files.exists(journal) && Files.size(journal) > 0) {
+            if (System.currentTimeMillis() > deadline) throw new AssertionError("attendance.journal was not emptied");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
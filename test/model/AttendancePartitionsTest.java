@@ -0,0 +1,90 @@
+package model;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+// The manifest is written after the partitions it lists: a manifest write already
+// queued must not pick up a month whose partition is still waiting behind it, or a
+// crash in between would leave the manifest pointing at punches that were never saved.
+public class AttendancePartitionsTest {
+
+    private static final YearMonth JUNE = YearMonth.of(2024, 6);
+    private static final YearMonth JULY = YearMonth.of(2024, 7);
+
+    private Path folder;
+    private DurableFileWriter writer;
+    private AttendancePartitions partitions;
+
+    @Before
+    public void createPartitions() throws IOException {
+        folder = Files.createTempDirectory("motorph-attendance");
+        writer = new DurableFileWriter();
+        partitions = new AttendancePartitions(folder);
+        partitions.createFolder();
+        assertTrue(partitions.write(writer, JUNE, punches(JUNE)).join());
+        assertTrue(partitions.writeManifest(writer).join());
+    }
+
+    @After
+    public void deletePartitions() throws IOException {
+        writer.shutdown();
+        try (Stream<Path> files = Files.walk(folder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void aQueuedManifestDoesNotListAPartitionQueuedBehindIt() throws IOException {
+        CountDownLatch first = new CountDownLatch(1);
+        CountDownLatch second = new CountDownLatch(1);
+
+        // Hold the writer so the following requests queue up in this order
+        writer.submit(folder.resolve("hold-1"), () -> channel -> await(first));
+        CompletableFuture<Boolean> earlierManifest = partitions.writeManifest(writer);
+        writer.submit(folder.resolve("hold-2"), () -> channel -> await(second));
+        CompletableFuture<Boolean> july = partitions.write(writer, JULY, punches(JULY));
+        CompletableFuture<Boolean> laterManifest = partitions.writeManifest(writer);
+
+        first.countDown();
+        assertTrue(earlierManifest.join());
+        assertFalse(Files.exists(partitions.pathOf(JULY)));
+        assertFalse(manifest().contains(JULY.toString()));
+
+        second.countDown();
+        assertTrue(july.join());
+        assertTrue(laterManifest.join());
+        assertTrue(manifest().contains(JULY.toString()));
+    }
+
+    private String manifest() throws IOException {
+        return Files.readString(folder.resolve("manifest.txt"), StandardCharsets.UTF_8);
+    }
+
+    private static AttendanceStore punches(YearMonth month) {
+        AttendanceStore punches = new AttendanceStore();
+        punches.add(10001, (int) month.atDay(3).toEpochDay(), 8 * 60, 17 * 60);
+        return punches;
+    }
+
+    private static void await(CountDownLatch latch) throws IOException {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+// Crash recovery of the change journal: a journal cut short at any byte (as a crash
+// in the middle of an append leaves it) must replay exactly the records before the
+// cut, and appends made after the replay must follow them cleanly.
+public class ChangeJournalTest {
+
+    private static final int RECORDS = 200;
+
+    private Path directory;
+    private Path journalPath;
+    private final List<ChangeJournal.Entry> written = new ArrayList<>();
+    // Offset just past each written record
+    private final List<Long> recordEnds = new ArrayList<>();
+
+    @Before
+    public void writeJournal() throws IOException {
+        directory = Files.createTempDirectory("journal-test");
+        journalPath = directory.resolve("employee.journal");
+
+        ChangeJournal journal = new ChangeJournal(journalPath);
+        Random random = new Random(4);
+        for (int i = 0; i < RECORDS; i++) {
+            String[] args = new String[1 + random.nextInt(4)];
+            for (int a = 0; a < args.length; a++) {
+                args[a] = "arg" + i + "-" + a + "é".repeat(random.nextInt(20));
+            }
+            ChangeJournal.Entry entry = new ChangeJournal.Entry((byte) (1 + random.nextInt(5)), args);
+            journal.append(entry.op(), entry.args());
+            written.add(entry);
+            recordEnds.add(journal.size());
+        }
+    }
+
+    @After
+    public void deleteJournal() throws IOException {
+        Files.deleteIfExists(journalPath);
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    public void replaysEveryRecordOfAnIntactJournal() throws IOException {
+        List<ChangeJournal.Entry> replayed = replay();
+        assertEquals(RECORDS, replayed.size());
+        assertPrefix(replayed);
+    }
+
+    @Test
+    public void replaysThePrefixOfAJournalTruncatedAtRandomOffsets() throws IOException {
+        byte[] full = Files.readAllBytes(journalPath);
+        Random random = new Random(11);
+
+        for (int round = 0; round < 300; round++) {
+            int cut = random.nextInt(full.length + 1);
+            Files.write(journalPath, Arrays.copyOf(full, cut));
+
+            List<ChangeJournal.Entry> replayed = replay();
+            assertEquals("cut at " + cut, completeRecordsBefore(cut), replayed.size());
+            assertPrefix(replayed);
+
+            // The torn tail is gone, so the file ends right after the last whole record
+            long expectedSize = replayed.isEmpty() ? 0 : recordEnds.get(replayed.size() - 1);
+            assertEquals("cut at " + cut, expectedSize, Files.size(journalPath));
+        }
+    }
+
+    @Test
+    public void replaysThePrefixBeforeACorruptRecord() throws IOException {
+        int damaged = RECORDS / 2;
+        long offset = recordEnds.get(damaged) - 1; // Last payload byte of the record
+        try (RandomAccessFile file = new RandomAccessFile(journalPath.toFile(), "rw")) {
+            file.seek(offset);
+            int b = file.read();
+            file.seek(offset);
+            file.write(b ^ 0x5A);
+        }
+
+        List<ChangeJournal.Entry> replayed = replay();
+        assertEquals(damaged, replayed.size());
+        assertPrefix(replayed);
+    }
+
+    @Test
+    public void appendsAfterRecoveryFollowTheReplayedPrefix() throws IOException {
+        byte[] full = Files.readAllBytes(journalPath);
+        int cut = (int) (recordEnds.get(9) + 5); // Five bytes into the eleventh record
+        Files.write(journalPath, Arrays.copyOf(full, cut));
+
+        ChangeJournal journal = new ChangeJournal(journalPath);
+        assertEquals(10, journal.replay((op, args) -> { }));
+        journal.append((byte) 9, "after", "crash");
+
+        List<ChangeJournal.Entry> replayed = replay();
+        assertEquals(11, replayed.size());
+        assertPrefix(replayed.subList(0, 10));
+        assertEquals(9, replayed.get(10).op());
+        assertArrayEquals(new String[]{"after", "crash"}, replayed.get(10).args());
+    }
+
+    private List<ChangeJournal.Entry> replay() throws IOException {
+        List<ChangeJournal.Entry> replayed = new ArrayList<>();
+        int applied = new ChangeJournal(journalPath).replay((op, args) -> replayed.add(new ChangeJournal.Entry(op, args)));
+        assertEquals(replayed.size(), applied);
+        return replayed;
+    }
+
+    private int completeRecordsBefore(long cut) {
+        int complete = 0;
+        while (complete < recordEnds.size() && recordEnds.get(complete) <= cut) complete++;
+        return complete;
+    }
+
+    private void assertPrefix(List<ChangeJournal.Entry> replayed) {
+        assertTrue(replayed.size() <= written.size());
+        for (int i = 0; i < replayed.size(); i++) {
+            assertEquals("op of record " + i, written.get(i).op(), replayed.get(i).op());
+            assertArrayEquals("args of record " + i, written.get(i).args(), replayed.get(i).args());
+        }
+    }
+}
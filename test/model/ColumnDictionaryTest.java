@@ -0,0 +1,104 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+// A dictionary-encoded column keeps one copy of each distinct value and hands the
+// same code and String back for every row that has it, so rows take much less heap
+// than when every row holds its own copy of the values.
+public class ColumnDictionaryTest {
+
+    @Test
+    public void sharesOneCopyOfEachValue() {
+        ColumnDictionary status = new ColumnDictionary(10);
+        String first = status.encode(new String("Regular"), 0);
+        String second = status.encode(new String("Regular"), 1);
+        status.encode("Probationary", 2);
+
+        assertSame(first, second);
+        assertEquals(2, status.distinctValues());
+        assertEquals(3, status.size());
+        assertEquals(status.codeAt(0), status.codeAt(1));
+        assertEquals("Probationary", status.decode(status.codeAt(2)));
+        assertEquals(status.codeAt(2), status.codeOf("Probationary"));
+        assertEquals(ColumnDictionary.MISSING, status.codeOf("Contractual"));
+    }
+
+    @Test
+    public void growsForSlotsPastTheEnd() {
+        ColumnDictionary position = new ColumnDictionary(11);
+        for (int slot = 0; slot < 1_000; slot++) {
+            position.encode(slot % 3 == 0 ? "HR Manager" : "Account Rank and File", slot);
+        }
+        assertEquals(1_000, position.size());
+        assertEquals(2, position.distinctValues());
+        assertEquals("HR Manager", position.decode(position.codeAt(999)));
+
+        position.truncate(10);
+        assertEquals(10, position.size());
+        position.encode("Payroll Team Leader", 10);
+        assertEquals(11, position.size());
+        assertEquals(3, position.distinctValues());
+    }
+
+    @Test
+    public void encodedRowsTakeLessHeapThanPlainRows() {
+        int rows = 200_000;
+        String[] statuses = {"Regular", "Probationary"};
+        String[] positions = {"HR Manager", "Account Rank and File", "Payroll Team Leader", "Sales & Marketing"};
+        String[] supervisors = {"Garcia, Manuel III", "Lim, Antonio", "Aquino, Bianca Sofia", "N/A"};
+
+        // Every row has its own copy of each value, as when the file is split without a dictionary
+        long before = usedHeapAfterGc();
+        List<String[]> plain = new ArrayList<>(rows);
+        Random random = new Random(3);
+        for (int i = 0; i < rows; i++) {
+            plain.add(new String[]{
+                new String(statuses[random.nextInt(statuses.length)]),
+                new String(positions[random.nextInt(positions.length)]),
+                new String(supervisors[random.nextInt(supervisors.length)])
+            });
+        }
+        long plainBytes = usedHeapAfterGc() - before;
+        assertEquals(rows, plain.size());
+        plain = null;
+
+        before = usedHeapAfterGc();
+        ColumnDictionary[] dictionaries = {new ColumnDictionary(10), new ColumnDictionary(11), new ColumnDictionary(12)};
+        List<String[]> encoded = new ArrayList<>(rows);
+        random = new Random(3);
+        for (int i = 0; i < rows; i++) {
+            encoded.add(new String[]{
+                dictionaries[0].encode(new String(statuses[random.nextInt(statuses.length)]), i),
+                dictionaries[1].encode(new String(positions[random.nextInt(positions.length)]), i),
+                dictionaries[2].encode(new String(supervisors[random.nextInt(supervisors.length)]), i)
+            });
+        }
+        long encodedBytes = usedHeapAfterGc() - before;
+        assertEquals(rows, encoded.size());
+        assertEquals(4, dictionaries[2].distinctValues());
+
+        // Loose bound: the shared values save far more than the int slots cost
+        assertTrue("encoded " + encodedBytes + " bytes, plain " + plainBytes + " bytes",
+                encodedBytes < plainBytes / 2);
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,68 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+// Reading credentials.txt never rewrites it: accounts from before passwords were hashed
+// keep logging in until PasswordMigration hashes them, in one explicit step.
+public class CredentialStoreTest {
+
+    private static final String PLAIN_TEXT = "admin,1234\nuser1,password1\n";
+
+    private Path folder;
+    private Path file;
+    private DurableFileWriter writer;
+
+    @Before
+    public void createFile() throws IOException {
+        folder = Files.createTempDirectory("motorph-credentials");
+        file = folder.resolve("credentials.txt");
+        Files.writeString(file, PLAIN_TEXT, StandardCharsets.UTF_8);
+        writer = new DurableFileWriter();
+    }
+
+    @After
+    public void deleteFile() throws IOException {
+        writer.shutdown();
+        try (Stream<Path> files = Files.walk(folder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void loadingLeavesThePlainTextFileAlone() throws IOException {
+        CredentialStore store = new CredentialStore(file, writer);
+        assertTrue(store.exists("admin"));
+        assertTrue(store.authenticate("admin", "1234"));
+        assertFalse(store.authenticate("admin", "12345"));
+
+        assertEquals(PLAIN_TEXT, Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void hashingThePlainTextKeepsTheLogins() throws IOException {
+        CredentialStore store = new CredentialStore(file, writer);
+        assertEquals(2, store.hashPlainText());
+
+        String saved = Files.readString(file, StandardCharsets.UTF_8);
+        assertFalse(saved.contains("1234"));
+        assertFalse(saved.contains("password1"));
+        assertEquals(0, store.hashPlainText());
+
+        CredentialStore reloaded = new CredentialStore(file, writer);
+        assertTrue(reloaded.authenticate("admin", "1234"));
+        assertTrue(reloaded.authenticate("user1", "password1"));
+        assertFalse(reloaded.authenticate("user1", "1234"));
+    }
+}
@@ -0,0 +1,105 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+// The panels share one handler (DataRepository), so opening any number of views parses
+// employee.txt and attendance.txt once; a file is only read again after it changed on disk.
+public class FileHandlerLoadTest {
+
+    private static final int VIEWS = 6;
+
+    private Path folder;
+    private FileHandler handler;
+
+    @Before
+    public void createData() throws IOException {
+        folder = Files.createTempDirectory("motorph-data");
+        Files.writeString(folder.resolve("employee.txt"), employeeFile(3), StandardCharsets.UTF_8);
+        Files.writeString(folder.resolve("attendance.txt"),
+                "10001,06/03/2024,8:59,18:31\r10002,06/03/2024,10:35,19:44\r10001,07/01/2024,8:00,17:00",
+                StandardCharsets.UTF_8);
+        handler = new FileHandler(folder);
+    }
+
+    @After
+    public void deleteData() throws IOException {
+        try (Stream<Path> files = Files.walk(folder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void openingSeveralViewsParsesEachFileOnce() {
+        for (int view = 0; view < VIEWS; view++) {
+            openView();
+        }
+        assertEquals(1, handler.employeeLoads());
+        assertEquals(1, handler.attendanceLoads());
+    }
+
+    @Test
+    public void punchesAppendedByTheClocksAreReadWithoutAFullParse() throws IOException {
+        openView();
+        Files.writeString(folder.resolve("attendance.txt"), "\r10003,07/02/2024,9:00,18:00",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        for (int view = 0; view < VIEWS; view++) {
+            openView();
+        }
+        assertEquals(1, handler.attendanceLoads());
+        assertEquals(4, handler.getAttendanceData().size());
+        // What the attendance panel fetches after the poll: just the appended row
+        List<String[]> appended = handler.getAttendanceDataFrom(3);
+        assertEquals(1, appended.size());
+        assertEquals("10003", appended.get(0)[0]);
+    }
+
+    @Test
+    public void aChangedEmployeeFileIsParsedOnceMore() throws IOException {
+        openView();
+        Files.writeString(folder.resolve("employee.txt"), employeeFile(4), StandardCharsets.UTF_8);
+
+        assertTrue(handler.ensureEmployeeDataLoaded());
+        for (int view = 0; view < VIEWS; view++) {
+            openView();
+        }
+        assertFalse(handler.ensureEmployeeDataLoaded());
+        assertEquals(2, handler.employeeLoads());
+        assertEquals(4, handler.getEmployeeData().size());
+    }
+
+    // What a panel does when it opens: make sure the data is loaded, then read it
+    private void openView() {
+        handler.ensureEmployeeDataLoaded();
+        assertEquals(FileHandler.EMPLOYEE_HEADERS.length, handler.getEmployeeHeaders().length);
+        assertNotNull(handler.getEmployeeById("10001"));
+        handler.ensureAttendanceDataLoaded();
+        handler.getAttendanceData();
+        handler.getAttendanceMonths("10001");
+    }
+
+    private static String employeeFile(int employees) {
+        StringBuilder text = new StringBuilder(String.join(";", FileHandler.EMPLOYEE_HEADERS)).append('\n');
+        for (int i = 1; i <= employees; i++) {
+            text.append(10000 + i).append(";Garcia;Manuel;10/11/1983;\"Valero Street, Makati City\";966-860-27").append(i)
+                .append(";44-4506057-").append(i).append(";82012685395").append(i).append(";442-605-657-00").append(i)
+                .append(";69129533087").append(i).append(";Regular;HR Manager;N/A;90000;1500;2000;1000;45000;535.71\n");
+        }
+        return text.toString();
+    }
+}
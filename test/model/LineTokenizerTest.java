@@ -0,0 +1,140 @@
+package model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+// The single-pass tokenizer must split employee.txt lines exactly as the regex split
+// it replaced did, down to the trimming and the dropped trailing empty fields. The one
+// intended difference is a separator inside quotes, which the regex split on anyway.
+public class LineTokenizerTest {
+
+    // The way readEmployeeFile split a line before the tokenizer
+    private static String[] regexSplit(String line) {
+        String[] fields = line.split("(?=(?:[^\"]*\"[^\"]*\")*[^\"]*)\\;");
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = fields[i].replaceAll("^\"|\"$", "").trim();
+        }
+        return fields;
+    }
+
+    @Test
+    public void splitsLikeTheRegexSplit() {
+        String[] lines = {
+            "10001;Garcia;Manuel III;10/11/1983;\"Valero Carpark Building, Makati City\";966-860-270",
+            "10002; Lim ;Antonio;06/19/1988;\"San Antonio De Padua 2, Cavite\"",
+            "10003;;;;",
+            ";10004",
+            "",
+            "single",
+            "\"quoted only\"",
+            "a;\"\";b",
+        };
+        LineTokenizer tokenizer = new LineTokenizer(';');
+        for (String line : lines) {
+            tokenizer.tokenize(line);
+            assertArrayEquals(line, regexSplit(line), tokenizer.toArray());
+        }
+    }
+
+    @Test
+    public void splitsRandomLinesLikeTheRegexSplit() {
+        Random random = new Random(7);
+        String alphabet = "ab ,1";
+        LineTokenizer tokenizer = new LineTokenizer(';');
+        for (int round = 0; round < 20_000; round++) {
+            StringBuilder line = new StringBuilder();
+            int fields = random.nextInt(8);
+            for (int f = 0; f < fields; f++) {
+                if (f > 0) line.append(';');
+                boolean quoted = random.nextInt(3) == 0;
+                if (quoted) line.append(' ').append('"');
+                int length = random.nextInt(6);
+                for (int i = 0; i < length; i++) {
+                    line.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                if (quoted) line.append('"');
+            }
+
+            String text = line.toString();
+            tokenizer.tokenize(text);
+            assertArrayEquals(text, regexSplit(text), tokenizer.toArray());
+        }
+    }
+
+    @Test
+    public void keepsQuotedSeparatorsInTheField() {
+        LineTokenizer tokenizer = new LineTokenizer(';');
+        assertEquals(3, tokenizer.tokenize("10001;\"Makati; City\";Regular"));
+        assertEquals("Makati; City", tokenizer.field(1));
+        assertEquals("Regular", tokenizer.field(2));
+    }
+
+    @Test
+    public void decodesSingleFieldsLikeTokenize() {
+        String line = "10001; Garcia ;\"Makati; City\";;966-860-270";
+        LineTokenizer tokenizer = new LineTokenizer(';');
+        int count = tokenizer.tokenize(line);
+        for (int i = 0; i < count; i++) {
+            assertEquals(tokenizer.field(i), LineTokenizer.field(line, ';', i));
+        }
+        assertEquals("", LineTokenizer.field(line, ';', count + 3));
+
+        String[] target = new String[8];
+        LineTokenizer.fields(line, ';', new int[]{1, 2, 7}, target);
+        assertEquals("Garcia", target[1]);
+        assertEquals("Makati; City", target[2]);
+        assertEquals("", target[7]);
+    }
+
+    @Test
+    public void tokenizesFasterThanTheRegexSplit() {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            lines.add((10001 + i) + ";Garcia;Manuel III;10/11/1983;\"Valero Carpark Building Valero Street 1227, Makati City\";"
+                    + "966-860-270;44-4506057-3;820126853951;442-605-657-000;691295330870;Regular;"
+                    + "Chief Executive Officer;N/A;90,000;1,500;2,000;1,000;45,000;535.71");
+        }
+        LineTokenizer tokenizer = new LineTokenizer(';');
+
+        // Warm both up before timing them
+        long checksum = 0;
+        for (int round = 0; round < 2; round++) {
+            checksum += timeRegex(lines) > 0 ? 1 : 0;
+            checksum += timeTokenizer(tokenizer, lines) > 0 ? 1 : 0;
+        }
+        long regexNanos = timeRegex(lines);
+        long tokenizerNanos = timeTokenizer(tokenizer, lines);
+        System.out.println("Regex split: " + regexNanos / 1_000_000 + " ms, tokenizer: "
+                + tokenizerNanos / 1_000_000 + " ms for " + lines.size() + " lines");
+
+        // Loose bound: the single pass is many times faster, so twice survives a noisy machine
+        assertTrue(checksum > 0);
+        assertTrue("regex " + regexNanos + " ns, tokenizer " + tokenizerNanos + " ns", tokenizerNanos * 2 < regexNanos);
+    }
+
+    private static long timeRegex(List<String> lines) {
+        long start = System.nanoTime();
+        int fields = 0;
+        for (String line : lines) {
+            fields += regexSplit(line).length;
+        }
+        assertEquals(lines.size() * 19, fields);
+        return System.nanoTime() - start;
+    }
+
+    private static long timeTokenizer(LineTokenizer tokenizer, List<String> lines) {
+        long start = System.nanoTime();
+        int fields = 0;
+        for (String line : lines) {
+            fields += tokenizer.tokenize(line);
+        }
+        assertEquals(lines.size() * 19, fields);
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,125 @@
+package model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+// The parallel, chunked read of attendance.txt must give exactly what the sequential
+// read gives: the same punches in the same order, the same skipped count and the same
+// unreadable lines, whatever the separators and wherever the chunk boundaries fall.
+public class MappedAttendanceReaderTest {
+
+    private Path file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = Files.createTempFile("attendance", ".txt");
+    }
+
+    @After
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void chunkedReadMatchesSequentialRead() throws IOException {
+        for (long seed = 1; seed <= 20; seed++) {
+            Files.write(file, attendance(new Random(seed), 2_000));
+            for (int chunks : new int[]{1, 2, 3, 7, 16, 64}) {
+                assertSameAsSequential("seed " + seed + ", " + chunks + " chunks", chunks);
+            }
+        }
+    }
+
+    @Test
+    public void chunkedReadOfTinyFilesMatchesSequentialRead() throws IOException {
+        // More chunks than records, so several boundaries land in the same record
+        for (long seed = 1; seed <= 50; seed++) {
+            Random random = new Random(seed);
+            Files.write(file, attendance(random, random.nextInt(6)));
+            assertSameAsSequential("seed " + seed, 8);
+        }
+    }
+
+    @Test
+    public void parallelReadMatchesSequentialRead() throws IOException {
+        // Large enough to take the parallel path on a machine with several cores
+        Files.write(file, attendance(new Random(99), 700_000));
+        AttendanceStore sequential = new AttendanceStore();
+        int sequentialSkipped = MappedAttendanceReader.read(file, sequential);
+
+        AttendanceStore parallel = new AttendanceStore();
+        int parallelSkipped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            parallelSkipped = MappedAttendanceReader.readParallel(channel, 0, channel.size(), parallel);
+        }
+        assertSameStore("readParallel", sequential, sequentialSkipped, parallel, parallelSkipped);
+    }
+
+    private void assertSameAsSequential(String message, int chunks) throws IOException {
+        AttendanceStore sequential = new AttendanceStore();
+        int sequentialSkipped = MappedAttendanceReader.read(file, sequential);
+
+        AttendanceStore chunked = new AttendanceStore();
+        int chunkedSkipped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            chunkedSkipped = MappedAttendanceReader.readChunks(channel, 0, channel.size(), chunked, chunks);
+        }
+        assertSameStore(message, sequential, sequentialSkipped, chunked, chunkedSkipped);
+    }
+
+    private static void assertSameStore(String message, AttendanceStore expected, int expectedSkipped,
+                                        AttendanceStore actual, int actualSkipped) {
+        assertEquals(message + ": skipped", expectedSkipped, actualSkipped);
+        assertEquals(message + ": unreadable lines", expected.unreadableLines(), actual.unreadableLines());
+        assertEquals(message + ": rows", expected.size(), actual.size());
+
+        List<String[]> expectedRows = expected.asRows();
+        List<String[]> actualRows = actual.asRows();
+        for (int i = 0; i < expectedRows.size(); i++) {
+            assertArrayEquals(message + ": row " + i, expectedRows.get(i), actualRows.get(i));
+        }
+    }
+
+    // Generates attendance records the way the biometric export and hand edits produce
+    // them: mixed '\r', '\n' and "\r\n" separators, blank records, times with and without
+    // a leading zero, and the odd line without a numeric employee #
+    private static byte[] attendance(Random random, int records) {
+        StringBuilder text = new StringBuilder(records * 32);
+        String[] separators = {"\r", "\r", "\r", "\n", "\r\n"};
+        for (int i = 0; i < records; i++) {
+            if (i > 0) text.append(separators[random.nextInt(separators.length)]);
+            int kind = random.nextInt(100);
+            if (kind == 0) {
+                continue; // Blank record
+            } else if (kind == 1) {
+                text.append("Employee #,Date,Log In,Log Out");
+                continue;
+            } else if (kind == 2) {
+                text.append("n/a,").append(date(random)).append(",8:00,17:00");
+                continue;
+            }
+            text.append(10001 + random.nextInt(34)).append(',')
+                .append(date(random)).append(',')
+                .append(random.nextInt(4) + 7).append(':').append(String.format("%02d", random.nextInt(60))).append(',')
+                .append(random.nextInt(4) + 16).append(':').append(String.format("%02d", random.nextInt(60)));
+        }
+        if (random.nextBoolean()) text.append('\r');
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String date(Random random) {
+        return String.format("%02d/%02d/%d", 1 + random.nextInt(12), 1 + random.nextInt(28), 2022 + random.nextInt(4));
+    }
+}